@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.benchmarks;
+
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.events.TransferListener;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A listener that hands every event to a {@link Blackhole}, so that dispatch cannot be optimised away
+ */
+final class BlackholeTransferListener implements TransferListener {
+
+    private final Blackhole blackhole;
+
+    BlackholeTransferListener(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent transferEvent) {
+        this.blackhole.consume(transferEvent);
+    }
+
+    @Override
+    public void transferStarted(TransferEvent transferEvent) {
+        this.blackhole.consume(transferEvent);
+    }
+
+    @Override
+    public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+        this.blackhole.consume(transferEvent);
+        this.blackhole.consume(length);
+    }
+
+    @Override
+    public void transferCompleted(TransferEvent transferEvent) {
+        this.blackhole.consume(transferEvent);
+    }
+
+    @Override
+    public void transferError(TransferEvent transferEvent) {
+        this.blackhole.consume(transferEvent);
+    }
+
+    @Override
+    public void debug(String message) {
+        this.blackhole.consume(message);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.benchmarks;
+
+import io.github.kuraun.aws.maven.plugin.util.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original 8 KiB stream copy with the positional channel copy the wagon now uses, across object sizes
+ * and, for the channel copy, buffer sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IOUtilsBenchmark {
+
+    @State(Scope.Thread)
+    public static class Content {
+
+        @Param({"65536", "4194304", "67108864"})
+        int size;
+
+        byte[] content;
+
+        File file;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.content = new byte[this.size];
+            new Random(42).nextBytes(this.content);
+            this.file = File.createTempFile("aws-maven-benchmark", ".bin");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.file.delete();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+
+        @Param({"8192", "131072", "1048576"})
+        int bufferSize;
+
+        byte[] buffer;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            this.buffer = new byte[this.bufferSize];
+        }
+    }
+
+    @Benchmark
+    public void copyToStream(Content content) throws IOException {
+        try (OutputStream out = new FileOutputStream(content.file)) {
+            IOUtils.copy(new ByteArrayInputStream(content.content), out);
+        }
+    }
+
+    @Benchmark
+    public long copyToChannel(Content content, Buffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(content.file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return IOUtils.copy(new ByteArrayInputStream(content.content), channel, 0, Long.MAX_VALUE, buffer.buffer,
+                    null);
+        }
+    }
+}
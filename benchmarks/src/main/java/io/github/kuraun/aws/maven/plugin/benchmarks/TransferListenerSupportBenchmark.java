@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.benchmarks;
+
+import io.github.kuraun.aws.maven.plugin.AmazonS3Wagon;
+import io.github.kuraun.aws.maven.plugin.data.transfer.StandardTransferListenerSupport;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching one progress event to zero, one and several listeners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferListenerSupportBenchmark {
+
+    @Param({"0", "1", "4"})
+    int listeners;
+
+    private final Resource resource = new Resource("artifact.jar");
+
+    private final byte[] buffer = new byte[64 * 1024];
+
+    private StandardTransferListenerSupport listenerSupport;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) {
+        this.listenerSupport = new StandardTransferListenerSupport(new AmazonS3Wagon());
+        for (int i = 0; i < this.listeners; i++) {
+            this.listenerSupport.addTransferListener(new BlackholeTransferListener(blackhole));
+        }
+    }
+
+    @Benchmark
+    public void fireTransferProgress() {
+        this.listenerSupport.fireTransferProgress(this.resource, TransferEvent.REQUEST_GET, this.buffer,
+                this.buffer.length);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.benchmarks;
+
+import io.github.kuraun.aws.maven.plugin.AmazonS3Wagon;
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.data.transfer.StandardTransferListenerSupport;
+import io.github.kuraun.aws.maven.plugin.data.transfer.StandardTransferProgress;
+import io.github.kuraun.aws.maven.plugin.data.transfer.TransferProgressFileInputStream;
+import io.github.kuraun.aws.maven.plugin.data.transfer.TransferProgressFileOutputStream;
+import org.apache.maven.wagon.events.TransferEvent;
+import org.apache.maven.wagon.resource.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the progress-reporting stream wrappers with a listener attached, reading and writing a file through
+ * buffers of different sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TransferProgressStreamBenchmark {
+
+    @Param({"1048576", "33554432"})
+    int size;
+
+    @Param({"8192", "131072"})
+    int bufferSize;
+
+    private byte[] content;
+
+    private byte[] buffer;
+
+    private File file;
+
+    private TransferProgress transferProgress;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) throws IOException {
+        this.content = new byte[this.size];
+        new Random(42).nextBytes(this.content);
+        this.buffer = new byte[this.bufferSize];
+        this.file = File.createTempFile("aws-maven-benchmark", ".bin");
+        Files.write(this.file.toPath(), this.content);
+
+        StandardTransferListenerSupport listenerSupport = new StandardTransferListenerSupport(new AmazonS3Wagon());
+        listenerSupport.addTransferListener(new BlackholeTransferListener(blackhole));
+        this.transferProgress = new StandardTransferProgress(new Resource("artifact.jar"), TransferEvent.REQUEST_GET,
+                listenerSupport);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long total = 0;
+        try (InputStream in = new TransferProgressFileInputStream(this.file, this.transferProgress)) {
+            int read;
+            while ((read = in.read(this.buffer)) != -1) {
+                total += read;
+            }
+        }
+        this.transferProgress.flush();
+        return total;
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        try (OutputStream out = new TransferProgressFileOutputStream(this.file, this.transferProgress)) {
+            for (int offset = 0; offset < this.content.length; offset += this.buffer.length) {
+                out.write(this.content, offset, Math.min(this.buffer.length, this.content.length - offset));
+            }
+        }
+        this.transferProgress.flush();
+    }
+}
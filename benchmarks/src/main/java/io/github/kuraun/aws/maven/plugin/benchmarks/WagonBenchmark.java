@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.benchmarks;
+
+import io.github.kuraun.aws.maven.plugin.AmazonS3Wagon;
+import io.github.kuraun.aws.maven.plugin.testing.LocalS3Server;
+import org.apache.maven.wagon.WagonException;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.repository.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the wagon's public operations end to end against a {@link LocalS3Server}, so that the numbers reflect the
+ * client, the wagon and local disk rather than the network. Objects of 32 MiB cross the multipart and ranged download
+ * thresholds, which are lowered to 8 MiB for these runs. Run with <code>-t</code> to add concurrent callers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WagonBenchmark {
+
+    private static final String BUCKET_NAME = "benchmark";
+
+    private static final long PART_SIZE = 8 * 1024 * 1024;
+
+    private static final int LISTING_SIZE = 2500;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"1024", "1048576", "33554432"})
+        int size;
+
+        LocalS3Server server;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.server = new LocalS3Server();
+            byte[] content = new byte[this.size];
+            new Random(42).nextBytes(content);
+            this.server.putObject(BUCKET_NAME, "repo/artifact.jar", content);
+            for (int i = 0; i < LISTING_SIZE; i++) {
+                this.server.putObject(BUCKET_NAME, String.format("repo/listing/artifact-%04d.jar", i), new byte[0]);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.server.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        @Param({"1", "8"})
+        int maxConcurrency;
+
+        AmazonS3Wagon wagon;
+
+        File source;
+
+        File destination;
+
+        @Setup(Level.Trial)
+        public void setup(Server server) throws IOException, WagonException {
+            this.wagon = new AmazonS3Wagon();
+            this.wagon.setEndpoint(server.server.getEndpoint().toString());
+            this.wagon.setPathStyleAccess(true);
+            this.wagon.setMultipartThreshold(PART_SIZE);
+            this.wagon.setMultipartPartSize(PART_SIZE);
+            this.wagon.setDownloadPartSize(PART_SIZE);
+            this.wagon.setMaxConcurrency(this.maxConcurrency);
+            this.wagon.setCreateDirectoryMarkers(false);
+            this.wagon.setMetadataCacheTtl(0);
+
+            AuthenticationInfo authenticationInfo = new AuthenticationInfo();
+            authenticationInfo.setUserName("akid");
+            authenticationInfo.setPassword("skid");
+            this.wagon.connect(new Repository("benchmark", "s3://" + BUCKET_NAME + "/repo"), authenticationInfo);
+
+            this.source = File.createTempFile("aws-maven-benchmark", ".jar");
+            this.destination = File.createTempFile("aws-maven-benchmark", ".jar");
+            Files.write(this.source.toPath(), server.server.getObject(BUCKET_NAME, "repo/artifact.jar"));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws WagonException {
+            this.wagon.disconnect();
+            this.source.delete();
+            this.destination.delete();
+        }
+    }
+
+    @Benchmark
+    public File get(Client client) throws WagonException {
+        client.wagon.get("artifact.jar", client.destination);
+        return client.destination;
+    }
+
+    @Benchmark
+    public void put(Client client) throws WagonException {
+        client.wagon.put(client.source, "uploads/" + Thread.currentThread().getId() + ".jar");
+    }
+
+    @Benchmark
+    public List<String> list(Client client) throws WagonException {
+        return client.wagon.getFileList("listing/");
+    }
+
+    @Benchmark
+    public boolean exists(Client client) throws WagonException {
+        return client.wagon.resourceExists("artifact.jar");
+    }
+}
@@ -16,52 +16,106 @@
 
 package io.github.kuraun.aws.maven.plugin;
 
+import io.github.kuraun.aws.maven.plugin.aws.AWSMavenCredentialsProvider;
+import io.github.kuraun.aws.maven.plugin.aws.AdaptiveRateLimiter;
+import io.github.kuraun.aws.maven.plugin.aws.BucketRegionResolver;
+import io.github.kuraun.aws.maven.plugin.aws.DecorrelatedJitterBackoffStrategy;
+import io.github.kuraun.aws.maven.plugin.aws.DirectoryListing;
+import io.github.kuraun.aws.maven.plugin.aws.HttpTransportConfiguration;
+import io.github.kuraun.aws.maven.plugin.aws.Replica;
+import io.github.kuraun.aws.maven.plugin.aws.ReplicaLocation;
+import io.github.kuraun.aws.maven.plugin.aws.ReplicaRouter;
+import io.github.kuraun.aws.maven.plugin.aws.RetryBudget;
+import io.github.kuraun.aws.maven.plugin.aws.S3ClientKey;
+import io.github.kuraun.aws.maven.plugin.aws.S3ClientRegistry;
+import io.github.kuraun.aws.maven.plugin.aws.ThrottlingInterceptor;
+import io.github.kuraun.aws.maven.plugin.cache.ContentCache;
+import io.github.kuraun.aws.maven.plugin.cache.DirectorySnapshot;
+import io.github.kuraun.aws.maven.plugin.cache.DirectorySnapshotCache;
+import io.github.kuraun.aws.maven.plugin.cache.ObjectMetadataCache;
+import io.github.kuraun.aws.maven.plugin.cache.Prefetcher;
 import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.data.transfer.AsyncDownload;
+import io.github.kuraun.aws.maven.plugin.data.transfer.AsyncUpload;
+import io.github.kuraun.aws.maven.plugin.data.transfer.CountingTransferProgress;
+import io.github.kuraun.aws.maven.plugin.data.transfer.FileRegionInputStream;
+import io.github.kuraun.aws.maven.plugin.data.transfer.MultipartUpload;
+import io.github.kuraun.aws.maven.plugin.data.transfer.RangedDownload;
 import io.github.kuraun.aws.maven.plugin.data.transfer.TransferProgressFileInputStream;
-import io.github.kuraun.aws.maven.plugin.data.transfer.TransferProgressFileOutputStream;
 import io.github.kuraun.aws.maven.plugin.maven.AbstractWagon;
+import io.github.kuraun.aws.maven.plugin.metrics.MetricsInterceptor;
+import io.github.kuraun.aws.maven.plugin.metrics.Operation;
+import io.github.kuraun.aws.maven.plugin.metrics.S3Metrics;
+import io.github.kuraun.aws.maven.plugin.metrics.S3MetricsRegistry;
+import io.github.kuraun.aws.maven.plugin.util.CompressionUtils;
+import io.github.kuraun.aws.maven.plugin.util.DaemonThreadFactory;
+import io.github.kuraun.aws.maven.plugin.util.DigestUtils;
+import io.github.kuraun.aws.maven.plugin.util.FutureUtils;
 import io.github.kuraun.aws.maven.plugin.util.IOUtils;
 import io.github.kuraun.aws.maven.plugin.util.S3Utils;
 import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.apache.maven.wagon.TransferFailedException;
 import org.apache.maven.wagon.authentication.AuthenticationException;
 import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.proxy.ProxyInfo;
 import org.apache.maven.wagon.proxy.ProxyInfoProvider;
 import org.apache.maven.wagon.repository.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
 import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.CommonPrefix;
-import software.amazon.awssdk.services.s3.model.GetBucketLocationRequest;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
-import software.amazon.awssdk.services.s3.model.ListObjectsRequest;
-import software.amazon.awssdk.services.s3.model.ListObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Object;
-import software.amazon.awssdk.utils.CollectionUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.ByteBuffer;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Random;
-import java.util.regex.Matcher;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
 import java.util.regex.Pattern;
 
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
 /**
  * An implementation of the Maven Wagon interface that allows you to access the Amazon S3 service. URLs that reference
  * the S3 service should be in the form of <code>s3://bucket.name</code>. As an example
@@ -69,16 +123,158 @@ import java.util.regex.Pattern;
  * on the S3 service.
  * <p>
  * This implementation uses the <code>username</code> and <code>passphrase</code> portions of the server authentication
- * metadata for credentials.
+ * metadata for credentials, falling back to the default AWS credentials chain when no username is configured.
+ * Wagons with the same region, endpoint, credentials and proxy share one {@link S3Client}. Clients are built against
+ * the bucket's home region, which is looked up once and then cached in memory and on disk.
+ * <p>
+ * Artifacts larger than the multipart threshold are uploaded as multipart uploads, and artifacts larger than the
+ * download part size are downloaded as concurrent byte-range GETs, with up to <code>maxConcurrency</code> parts in
+ * flight at once. These settings can be tuned from the <code>configuration</code> element of the matching
+ * <code>server</code> in <code>settings.xml</code>.
+ * <p>
+ * With <code>asyncTransport</code> enabled, artifacts are transferred with an {@link S3AsyncClient} on the Netty
+ * event loop instead, so concurrent parts and ranges share a few threads rather than blocking one each. Existence
+ * checks, listings and directory markers stay on the synchronous client.
  */
 public final class AmazonS3Wagon extends AbstractWagon {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AmazonS3Wagon.class);
+
     private static final String KEY_FORMAT = "%s%s";
 
-    private static final String RESOURCE_FORMAT = "%s(.*)";
+    private static final long DEFAULT_MULTIPART_THRESHOLD = 64L * 1024 * 1024;
+
+    private static final long DEFAULT_MULTIPART_PART_SIZE = 16L * 1024 * 1024;
+
+    private static final long DEFAULT_DOWNLOAD_PART_SIZE = 16L * 1024 * 1024;
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    private static final long DEFAULT_METADATA_CACHE_TTL = 60 * 1000;
+
+    private static final int METADATA_CACHE_SIZE = 10000;
+
+    private static final int NOT_MODIFIED = 304;
+
+    private static final int FORBIDDEN = 403;
+
+    private static final int DIRECTORY_SNAPSHOT_CACHE_SIZE = 1000;
+
+    private static final int NOT_FOUND = 404;
+
+    private static final String POM_EXTENSION = ".pom";
+
+    // what Maven asks for after a POM: its checksum, the main artifact and the artifact's checksum
+    private static final String[] PREFETCH_SUFFIXES = {".pom.sha1", ".jar", ".jar.sha1"};
+
+    private static final int DEFAULT_PREFETCH_CONCURRENCY = 4;
+
+    private static final long DEFAULT_PREFETCH_BUDGET = 64L * 1024 * 1024;
+
+    private static final TransferProgress NO_PROGRESS = (buffer, offset, length) -> {
+    };
+
+    private static final Duration RETRY_BASE_DELAY = Duration.ofMillis(100);
+
+    private static final Duration THROTTLED_RETRY_BASE_DELAY = Duration.ofMillis(500);
+
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(20);
+
+    private volatile long multipartThreshold = DEFAULT_MULTIPART_THRESHOLD;
+
+    private volatile long multipartPartSize = DEFAULT_MULTIPART_PART_SIZE;
+
+    private volatile long downloadPartSize = DEFAULT_DOWNLOAD_PART_SIZE;
+
+    private volatile int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+    private volatile boolean createDirectoryMarkers = true;
+
+    private volatile int transferBufferSize = IOUtils.DEFAULT_TRANSFER_BUFFER_SIZE;
+
+    private volatile boolean preallocate;
+
+    private volatile boolean asyncTransport;
+
+    private volatile boolean memoryMappedUploads;
+
+    private volatile ExecutorService executorService;
+
+    private final Set<String> directories = ConcurrentHashMap.newKeySet();
+
+    private final ObjectMetadataCache metadataCache =
+            new ObjectMetadataCache(DEFAULT_METADATA_CACHE_TTL, METADATA_CACHE_SIZE);
+
+    private volatile long metadataCacheTtl = DEFAULT_METADATA_CACHE_TTL;
+
+    private volatile boolean directorySnapshotsEnabled;
+
+    private volatile DirectorySnapshotCache directorySnapshots;
+
+    private volatile boolean prefetchEnabled;
+
+    private volatile int prefetchConcurrency = DEFAULT_PREFETCH_CONCURRENCY;
+
+    private volatile long prefetchBudget = DEFAULT_PREFETCH_BUDGET;
+
+    private volatile Prefetcher prefetcher;
+
+    private volatile String readReplicas;
+
+    private volatile ReplicaRouter replicaRouter;
+
+    private volatile String endpoint;
+
+    private volatile boolean pathStyleAccess;
+
+    private volatile String region;
+
+    private volatile Path regionCacheFile = BucketRegionResolver.DEFAULT_CACHE_FILE;
+
+    private volatile boolean skipUnchanged;
+
+    private volatile List<Pattern> compressPatterns = CompressionUtils.compilePatterns(null);
+
+    private volatile boolean verifyChecksums = true;
+
+    private volatile boolean contentCacheEnabled;
+
+    private volatile Path contentCacheDirectory = ContentCache.DEFAULT_DIRECTORY;
+
+    private volatile long contentCacheSize = ContentCache.DEFAULT_MAX_SIZE;
+
+    private volatile ContentCache contentCache;
+
+    private volatile int maxConnections = HttpTransportConfiguration.DEFAULT_MAX_CONNECTIONS;
+
+    private volatile long connectionAcquisitionTimeout;
+
+    private volatile long connectionTimeToLive;
+
+    private volatile long connectionMaxIdleTime;
+
+    private volatile boolean useIdleConnectionReaper = true;
+
+    private volatile boolean expectContinueEnabled = true;
+
+    private volatile long apiCallTimeout;
+
+    private volatile long apiCallAttemptTimeout;
+
+    private volatile int maxRetries = HttpTransportConfiguration.DEFAULT_MAX_RETRIES;
+
+    private volatile boolean adaptiveThrottling = true;
+
+    private volatile boolean metricsSummary;
+
+    private volatile S3Metrics metrics = new S3Metrics();
+
+    private volatile S3ClientKey clientKey;
 
     private volatile S3Client amazonS3;
 
+    private volatile S3AsyncClient amazonS3Async;
+
     private volatile String bucketName;
 
     private volatile String baseDirectory;
@@ -97,137 +293,874 @@ public final class AmazonS3Wagon extends AbstractWagon {
         this.baseDirectory = baseDirectory;
     }
 
-    private HeadObjectResponse getObjectMetadata(S3Client amazonS3,
-            String bucketName, String baseDirectory, String resourceName) {
-        return amazonS3.headObject(
-                HeadObjectRequest.builder().bucket(bucketName)
-                        .key(getKey(baseDirectory, resourceName)).build());
+    /**
+     * Sets the size in bytes above which artifacts are uploaded as multipart uploads
+     *
+     * @param multipartThreshold The threshold in bytes
+     */
+    public void setMultipartThreshold(long multipartThreshold) {
+        this.multipartThreshold = multipartThreshold;
     }
 
-    private static String getKey(String baseDirectory, String resourceName) {
-        return String.format(KEY_FORMAT, baseDirectory, resourceName);
+    /**
+     * Sets the size in bytes of each part of a multipart upload. S3 requires at least 5 MiB per part and at most 10,000
+     * parts, so the effective size may be larger.
+     *
+     * @param multipartPartSize The part size in bytes
+     */
+    public void setMultipartPartSize(long multipartPartSize) {
+        this.multipartPartSize = multipartPartSize;
+    }
+
+    /**
+     * Sets the size in bytes of each byte range of a ranged download. Artifacts no larger than this are downloaded with
+     * a single request, and a value of {@code 0} disables ranged downloads.
+     *
+     * @param downloadPartSize The range size in bytes
+     */
+    public void setDownloadPartSize(long downloadPartSize) {
+        this.downloadPartSize = downloadPartSize;
+    }
+
+    /**
+     * Sets how many parts of a single artifact may be transferred concurrently
+     *
+     * @param maxConcurrency The maximum number of concurrent part transfers
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    /**
+     * Sets whether an empty directory marker object is written for every directory above an uploaded artifact. Markers
+     * are written at most once per directory per session.
+     *
+     * @param createDirectoryMarkers {@code false} to skip directory markers entirely
+     */
+    public void setCreateDirectoryMarkers(boolean createDirectoryMarkers) {
+        this.createDirectoryMarkers = createDirectoryMarkers;
+    }
+
+    /**
+     * Sets the size of the buffer each transfer streams its bytes through
+     *
+     * @param transferBufferSize The buffer size in bytes
+     */
+    public void setTransferBufferSize(int transferBufferSize) {
+        this.transferBufferSize = Math.max(IOUtils.MINIMUM_TRANSFER_BUFFER_SIZE, transferBufferSize);
+    }
+
+    /**
+     * Sets whether downloaded files are extended to their full length before any bytes are written
+     *
+     * @param preallocate {@code true} to preallocate downloaded files
+     */
+    public void setPreallocate(boolean preallocate) {
+        this.preallocate = preallocate;
+    }
+
+    /**
+     * Sets whether artifacts are transferred with the non-blocking asynchronous client. The asynchronous transport
+     * does not support proxies, so it is not used when a proxy is configured.
+     *
+     * @param asyncTransport {@code true} to transfer artifacts asynchronously
+     */
+    public void setAsyncTransport(boolean asyncTransport) {
+        this.asyncTransport = asyncTransport;
+    }
+
+    /**
+     * Sets whether the asynchronous transport memory-maps the files it uploads and hands slices of the mapping to the
+     * client, instead of reading them onto the heap
+     *
+     * @param memoryMappedUploads {@code true} to map uploaded files
+     */
+    public void setMemoryMappedUploads(boolean memoryMappedUploads) {
+        this.memoryMappedUploads = memoryMappedUploads;
+    }
+
+    /**
+     * Sets the endpoint to use instead of the default Amazon S3 endpoint, e.g. for S3-compatible storage
+     *
+     * @param endpoint The endpoint URL
+     */
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Sets whether buckets are addressed as part of the path rather than the host name
+     *
+     * @param pathStyleAccess {@code true} to use path-style requests
+     */
+    public void setPathStyleAccess(boolean pathStyleAccess) {
+        this.pathStyleAccess = pathStyleAccess;
+    }
+
+    /**
+     * Sets the region of the bucket, which skips looking it up
+     *
+     * @param region The region id, e.g. <code>eu-west-1</code>
+     */
+    public void setRegion(String region) {
+        this.region = isNotBlank(region) ? region : null;
+    }
+
+    /**
+     * Sets the file in which looked-up bucket regions are cached across builds
+     *
+     * @param regionCacheFile The path of the cache file; blank to only cache regions in memory
+     */
+    public void setRegionCacheFile(String regionCacheFile) {
+        this.regionCacheFile = isNotBlank(regionCacheFile) ? Paths.get(regionCacheFile) : null;
+    }
+
+    /**
+     * Sets whether uploads of files whose content matches the ETag of the existing object are skipped, so that
+     * re-deploying unchanged artifacts only costs a HEAD request
+     *
+     * @param skipUnchanged {@code true} to compare files with the existing objects before uploading them
+     */
+    public void setSkipUnchanged(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    /**
+     * Sets whether the MD5 digest of every upload is checked against the ETag S3 returns, failing the transfer on a
+     * mismatch. Single requests are checked by the SDK, and an object it reports as mismatching is deleted. The
+     * digest of every part is computed while it is streamed, and a mismatching part aborts its multipart upload.
+     *
+     * @param verifyChecksums {@code false} for S3-compatible stores whose ETags are not MD5 digests
+     */
+    public void setVerifyChecksums(boolean verifyChecksums) {
+        this.verifyChecksums = verifyChecksums;
+    }
+
+    /**
+     * Sets whether downloaded artifacts are kept in a cache shared by every build on the host, so that an artifact
+     * that has not changed since it was last downloaded is copied from the cache after a conditional GET
+     *
+     * @param contentCache {@code true} to enable the cache
+     */
+    public void setContentCache(boolean contentCache) {
+        this.contentCacheEnabled = contentCache;
+    }
+
+    /**
+     * Sets the directory of the content cache
+     *
+     * @param contentCacheDirectory The path of the directory; blank for the default
+     */
+    public void setContentCacheDirectory(String contentCacheDirectory) {
+        this.contentCacheDirectory = isNotBlank(contentCacheDirectory) ? Paths.get(contentCacheDirectory)
+                : ContentCache.DEFAULT_DIRECTORY;
+    }
+
+    /**
+     * Sets the size above which the least recently used artifacts are evicted from the content cache
+     *
+     * @param contentCacheSize The size in bytes
+     */
+    public void setContentCacheSize(long contentCacheSize) {
+        this.contentCacheSize = Math.max(0, contentCacheSize);
+    }
+
+    /**
+     * Sets the maximum number of open HTTP connections per client
+     *
+     * @param maxConnections The maximum number of connections
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = Math.max(1, maxConnections);
+    }
+
+    /**
+     * Sets how long a request waits for a connection from the pool
+     *
+     * @param connectionAcquisitionTimeout The timeout in milliseconds; {@code 0} keeps the SDK default
+     */
+    public void setConnectionAcquisitionTimeout(long connectionAcquisitionTimeout) {
+        this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+    }
+
+    /**
+     * Sets how long a pooled connection may be reused before it is closed, e.g. to follow DNS changes
+     *
+     * @param connectionTimeToLive The time-to-live in milliseconds; {@code 0} keeps connections indefinitely
+     */
+    public void setConnectionTimeToLive(long connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+    }
+
+    /**
+     * Sets how long a pooled connection may stay idle before it is closed
+     *
+     * @param connectionMaxIdleTime The idle time in milliseconds; {@code 0} keeps the SDK default
+     */
+    public void setConnectionMaxIdleTime(long connectionMaxIdleTime) {
+        this.connectionMaxIdleTime = connectionMaxIdleTime;
+    }
+
+    /**
+     * Sets whether idle connections are closed in the background
+     *
+     * @param useIdleConnectionReaper {@code false} to only close idle connections when they are next leased
+     */
+    public void setUseIdleConnectionReaper(boolean useIdleConnectionReaper) {
+        this.useIdleConnectionReaper = useIdleConnectionReaper;
+    }
+
+    /**
+     * Sets whether uploads wait for <code>100 Continue</code> before sending their body
+     *
+     * @param expectContinueEnabled {@code false} to send bodies immediately, saving a round trip per upload
+     */
+    public void setExpectContinueEnabled(boolean expectContinueEnabled) {
+        this.expectContinueEnabled = expectContinueEnabled;
+    }
+
+    /**
+     * Sets how long a request may take in total, including retries
+     *
+     * @param apiCallTimeout The timeout in milliseconds; {@code 0} for no limit
+     */
+    public void setApiCallTimeout(long apiCallTimeout) {
+        this.apiCallTimeout = apiCallTimeout;
+    }
+
+    /**
+     * Sets how long a single attempt of a request may take
+     *
+     * @param apiCallAttemptTimeout The timeout in milliseconds; {@code 0} for no limit
+     */
+    public void setApiCallAttemptTimeout(long apiCallAttemptTimeout) {
+        this.apiCallAttemptTimeout = apiCallAttemptTimeout;
+    }
+
+    /**
+     * Sets whether a summary of the S3 operations is logged at info level when the wagon disconnects
+     *
+     * @param metricsSummary {@code true} to log the summary at info instead of debug level
+     */
+    public void setMetricsSummary(boolean metricsSummary) {
+        this.metricsSummary = metricsSummary;
+    }
+
+    /**
+     * Returns the metrics of the operations performed since the wagon connected
+     *
+     * @return The metrics of this session; they roll up into the metrics of the bucket
+     */
+    public S3Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets how often a failed request is retried, as far as the retry budget of the client allows
+     *
+     * @param maxRetries The maximum number of retries of a single request
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Sets whether requests to a bucket are slowed down after S3 responds with a throttling error
+     *
+     * @param adaptiveThrottling {@code false} to send requests as fast as they are made
+     */
+    public void setAdaptiveThrottling(boolean adaptiveThrottling) {
+        this.adaptiveThrottling = adaptiveThrottling;
+    }
+
+    private HttpTransportConfiguration getTransportConfiguration() {
+        return HttpTransportConfiguration.builder()
+                .maxConnections(this.maxConnections)
+                .connectionTimeout(Duration.ofMillis(getTimeout()))
+                .socketTimeout(Duration.ofMillis(getReadTimeout()))
+                .connectionAcquisitionTimeout(Duration.ofMillis(this.connectionAcquisitionTimeout))
+                .connectionTimeToLive(Duration.ofMillis(this.connectionTimeToLive))
+                .connectionMaxIdleTime(Duration.ofMillis(this.connectionMaxIdleTime))
+                .useIdleConnectionReaper(this.useIdleConnectionReaper)
+                .expectContinueEnabled(this.expectContinueEnabled)
+                .apiCallTimeout(Duration.ofMillis(this.apiCallTimeout))
+                .apiCallAttemptTimeout(Duration.ofMillis(this.apiCallAttemptTimeout))
+                .maxRetries(this.maxRetries)
+                .adaptiveThrottling(this.adaptiveThrottling)
+                .build();
+    }
+
+    /**
+     * Sets how long the results of existence and timestamp checks are reused for
+     *
+     * @param metadataCacheTtl The time-to-live in milliseconds; {@code 0} disables the cache
+     */
+    public void setMetadataCacheTtl(long metadataCacheTtl) {
+        this.metadataCacheTtl = metadataCacheTtl;
+        this.metadataCache.setTtl(metadataCacheTtl);
+    }
+
+    /**
+     * Sets whether the first existence or timestamp check in a directory lists the directory, so that checks of its
+     * other files are answered from the listing for as long as the metadata cache keeps results
+     *
+     * @param directorySnapshots {@code true} to list directories instead of issuing a HEAD per file
+     */
+    public void setDirectorySnapshots(boolean directorySnapshots) {
+        this.directorySnapshotsEnabled = directorySnapshots;
+    }
+
+    /**
+     * Sets whether downloading a POM starts background downloads of the files Maven usually requests next: the POM's
+     * checksum, the JAR and the JAR's checksum
+     *
+     * @param prefetch {@code true} to prefetch siblings of POMs
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetchEnabled = prefetch;
+    }
+
+    /**
+     * Sets how many siblings are prefetched concurrently
+     *
+     * @param prefetchConcurrency The number of background downloads
+     */
+    public void setPrefetchConcurrency(int prefetchConcurrency) {
+        this.prefetchConcurrency = prefetchConcurrency;
+    }
+
+    /**
+     * Sets how many bytes of prefetched files may be staged at once; larger files are not prefetched
+     *
+     * @param prefetchBudget The budget in bytes
+     */
+    public void setPrefetchBudget(long prefetchBudget) {
+        this.prefetchBudget = prefetchBudget;
     }
 
-    private static List<String> getResourceNames(ListObjectsResponse objectListing, Pattern pattern) {
-        List<String> resourceNames = new ArrayList<>();
+    /**
+     * Sets further buckets holding copies of the repository. Reads go to whichever of them and the repository's own
+     * bucket has been answering fastest and fail over to the others; writes always go to the repository's own bucket.
+     *
+     * @param readReplicas A comma-separated list of <code>bucket</code> or <code>bucket@endpoint</code> entries;
+     *                     entries without an endpoint use the configured endpoint
+     */
+    public void setReadReplicas(String readReplicas) {
+        this.readReplicas = readReplicas;
+    }
+
+    /**
+     * Sets which resources are stored gzip-compressed. Their <code>Content-Encoding</code> is recorded with the object,
+     * and compressed objects are decompressed while they are downloaded whether or not they match.
+     *
+     * @param compressPatterns A comma-separated list of glob patterns, e.g. <code>*.pom,*.xml,*.html</code>
+     */
+    public void setCompressPatterns(String compressPatterns) {
+        this.compressPatterns = CompressionUtils.compilePatterns(compressPatterns);
+    }
+
+    private HeadObjectResponse getObjectMetadata(String resourceName) throws ResourceDoesNotExistException {
+        String key = getKey(this.baseDirectory, resourceName);
+        try {
+            DirectorySnapshot snapshot = getDirectorySnapshot(key);
+            if (snapshot != null) {
+                HeadObjectResponse metadata = snapshot.get(key.substring(key.lastIndexOf('/') + 1));
+                if (metadata != null) {
+                    return metadata;
+                } else if (snapshot.isComplete()) {
+                    throw new ResourceDoesNotExistException(String.format("'%s' does not exist", resourceName));
+                }
+            }
+
+            HeadObjectResponse metadata = this.metadataCache.get(key, () -> headObject(key, true));
+            if (metadata == null) {
+                throw new ResourceDoesNotExistException(String.format("'%s' does not exist", resourceName));
+            }
+            return metadata;
+        } catch (AwsServiceException e) {
+            throw new ResourceDoesNotExistException(String.format("'%s' does not exist", resourceName), e);
+        }
+    }
 
-        for (CommonPrefix commonPrefix : objectListing.commonPrefixes()) {
-            resourceNames.add(getResourceName(commonPrefix.prefix(), pattern));
+    // the size of an object is known without a request if it has recently been listed or looked up
+    private long getKnownSize(String key) {
+        if (this.replicaRouter == null) {
+            return -1;
         }
+        DirectorySnapshotCache directorySnapshots = this.directorySnapshots;
+        DirectorySnapshot snapshot = directorySnapshots != null
+                ? directorySnapshots.peek(DirectorySnapshotCache.getDirectory(key)) : null;
+        HeadObjectResponse metadata = snapshot != null ? snapshot.get(key.substring(key.lastIndexOf('/') + 1)) : null;
+        if (metadata == null) {
+            metadata = this.metadataCache.peek(key);
+        }
+        return metadata != null && metadata.contentLength() != null ? metadata.contentLength() : -1;
+    }
 
-        for (S3Object s3ObjectSummary : objectListing.contents()) {
-            resourceNames.add(getResourceName(s3ObjectSummary.key(), pattern));
+    private DirectorySnapshot getDirectorySnapshot(String key) {
+        DirectorySnapshotCache directorySnapshots = this.directorySnapshots;
+        if (directorySnapshots == null) {
+            return null;
         }
+        String directory = DirectorySnapshotCache.getDirectory(key);
+        try {
+            return directorySnapshots.get(directory, () -> listDirectorySnapshot(directory));
+        } catch (AwsServiceException e) {
+            if (e.statusCode() == FORBIDDEN) {
+                // reading does not require s3:ListBucket, so fall back to HEADs for the rest of the session
+                LOGGER.debug("Cannot list s3://{}/{}, disabling directory snapshots", this.bucketName, directory, e);
+                this.directorySnapshots = null;
+            }
+            return null;
+        }
+    }
 
-        return resourceNames;
+    private DirectorySnapshot listDirectorySnapshot(String directory) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            DirectorySnapshot snapshot = read((client, bucketName) -> DirectorySnapshot.of(directory,
+                    new DirectoryListing(client, bucketName, directory).pages().iterator().next()), null);
+            success = true;
+            return snapshot;
+        } finally {
+            this.metrics.record(Operation.LIST, System.nanoTime() - start, 0, success);
+        }
     }
 
-    private static String getResourceName(String key, Pattern pattern) {
-        Matcher matcher = pattern.matcher(key);
-        if (matcher.find()) {
-            return matcher.group(1);
+    private HeadObjectResponse headObject(String key, boolean anyReplica) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            ReplicaRead<HeadObjectResponse, RuntimeException> head = (client, bucketName) -> client.headObject(
+                    HeadObjectRequest.builder().bucket(bucketName).key(key).build());
+            HeadObjectResponse metadata = anyReplica ? read(head, null) : head.read(this.amazonS3, this.bucketName);
+            success = true;
+            return metadata;
+        } finally {
+            this.metrics.record(Operation.HEAD, System.nanoTime() - start, 0, success);
         }
-        return key;
     }
 
-    private static void mkdirs(S3Client amazonS3, String bucketName, String path, int index) throws TransferFailedException {
-        int directoryIndex = path.indexOf('/', index) + 1;
+    /**
+     * Runs a read against the replicas in the order the router chooses, failing over to the next replica when one
+     * cannot be reached or errs. Without replicas the read goes to the repository's bucket.
+     *
+     * @param read      The read
+     * @param delivered How many bytes the read has passed on so far, or {@code null} if it passes none on; once a read
+     *                  has passed bytes on it is not started over on another replica
+     * @return The result of the read
+     */
+    private <T, E extends Exception> T read(ReplicaRead<T, E> read, LongSupplier delivered) throws E {
+        return read(read, delivered, -1);
+    }
 
-        if (directoryIndex != 0) {
-            String directory = path.substring(0, directoryIndex);
+    /**
+     * Runs a read of an object of known size, which lets large objects go to the replica with the highest throughput
+     *
+     * @param read      The read
+     * @param delivered How many bytes the read has passed on so far, or {@code null} if it passes none on
+     * @param size      The size of the object, or {@code -1} if it is not known
+     * @return The result of the read
+     */
+    private <T, E extends Exception> T read(ReplicaRead<T, E> read, LongSupplier delivered, long size) throws E {
+        ReplicaRouter router = this.replicaRouter;
+        if (router == null) {
+            return read.read(this.amazonS3, this.bucketName);
+        }
+
+        Exception failure = null;
+        boolean missing = false;
+        for (Replica replica : router.candidates(size)) {
+            if (missing && !replica.isPrimary()) {
+                continue;
+            }
+            long start = System.nanoTime();
             try {
-                amazonS3.putObject(PutObjectRequest.builder().bucket(bucketName)
-                        .key(directory).build(), RequestBody
-                        .fromByteBuffer(getRandomByteBuffer(10_000)));
-            } catch (AwsServiceException | IOException e) {
-                throw new TransferFailedException(String.format("Cannot write directory '%s'", directory), e);
+                T result = read.read(replica.getClient(), replica.getBucketName());
+                router.recordSuccess(replica, System.nanoTime() - start, delivered != null ? delivered.getAsLong() : 0);
+                return result;
+            } catch (Exception e) {
+                if (!(e instanceof SdkException || e instanceof IOException || e instanceof UncheckedIOException)) {
+                    throw AmazonS3Wagon.<E>propagate(e);
+                }
+                int statusCode = e instanceof AwsServiceException ? ((AwsServiceException) e).statusCode() : 0;
+                if (statusCode == NOT_MODIFIED || statusCode == NOT_FOUND) {
+                    router.recordSuccess(replica, System.nanoTime() - start, 0);
+                    if (statusCode == NOT_MODIFIED || replica.isPrimary()) {
+                        throw AmazonS3Wagon.<E>propagate(e);
+                    }
+                    // the object may not have been replicated yet, so only the repository's own bucket is believed
+                    missing = true;
+                } else {
+                    router.recordFailure(replica);
+                    if (delivered != null && delivered.getAsLong() > 0) {
+                        throw AmazonS3Wagon.<E>propagate(e);
+                    }
+                    LOGGER.debug("Cannot read from {}, trying the next replica", replica, e);
+                }
+                failure = e;
             }
+        }
+        throw AmazonS3Wagon.<E>propagate(failure);
+    }
 
-            mkdirs(amazonS3, bucketName, path, directoryIndex);
+    // only exceptions thrown by a read reach here, so a checked one is an E
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> E propagate(Exception e) {
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
         }
+        return (E) e;
     }
 
-    private static ByteBuffer getRandomByteBuffer(int size) throws IOException {
-        byte[] b = new byte[size];
-        new Random().nextBytes(b);
-        return ByteBuffer.wrap(b);
+    private static String getKey(String baseDirectory, String resourceName) {
+        return String.format(KEY_FORMAT, baseDirectory, resourceName);
     }
 
-    private static String getBucketRegion(AwsCredentialsProvider credentialsProvider, ApacheHttpClient.Builder httpClientBuilder, String bucketName) {
-        return S3Client.builder()
-                // TODO: overrideClientConfiguration
-                .credentialsProvider(credentialsProvider)
-                .httpClientBuilder(httpClientBuilder).build().getBucketLocation(
-                        GetBucketLocationRequest.builder().bucket(bucketName)
-                                .build())
-                .locationConstraintAsString();
+    private void mkdirs(String key) throws TransferFailedException {
+        if (!this.createDirectoryMarkers) {
+            return;
+        }
+
+        int end = key.lastIndexOf('/') + 1;
+        int start = end;
+        while (start > 0 && !this.directories.contains(key.substring(0, start))) {
+            start = key.lastIndexOf('/', start - 2) + 1;
+        }
+
+        for (int index = key.indexOf('/', start) + 1; index != 0 && index <= end; index = key.indexOf('/', index) + 1) {
+            String directory = key.substring(0, index);
+            long started = System.nanoTime();
+            boolean success = false;
+            try {
+                this.amazonS3.putObject(PutObjectRequest.builder().bucket(this.bucketName)
+                        .key(directory).build(), RequestBody.empty());
+                success = true;
+            } catch (AwsServiceException e) {
+                throw new TransferFailedException(String.format("Cannot write directory '%s'", directory), e);
+            } finally {
+                this.metrics.record(Operation.MARKER, System.nanoTime() - started, 0, success);
+            }
+            this.directories.add(directory);
+        }
     }
 
     @Override
     protected void connectToRepository(Repository repository, AuthenticationInfo authenticationInfo,
                                        ProxyInfoProvider proxyInfoProvider) throws AuthenticationException {
         if (this.amazonS3 == null) {
-            AwsCredentialsProvider credentialsProvider = DefaultCredentialsProvider.create();
             this.bucketName = S3Utils.getBucketName(repository);
             this.baseDirectory = S3Utils.getBaseDirectory(repository);
-            this.amazonS3 = S3Client.builder()
-                    .credentialsProvider(credentialsProvider)
-                    // TODO:
-                    .region(Region.US_EAST_1)
-                    .build();
+
+            ProxyInfo proxyInfo = S3Utils.getProxyInfo(proxyInfoProvider);
+            String credentialsIdentity = getCredentialsIdentity(authenticationInfo);
+            String proxy = getProxyIdentity(proxyInfo);
+            HttpTransportConfiguration transport = getTransportConfiguration();
+            S3ClientRegistry registry = S3ClientRegistry.getInstance();
+
+            BiFunction<String, String, S3ClientKey> keys = (bucketRegion, endpoint) -> new S3ClientKey(bucketRegion,
+                    endpoint, this.pathStyleAccess, credentialsIdentity, proxy, transport, this.verifyChecksums);
+            Function<S3ClientKey, S3Client> clients = key -> createClient(key, authenticationInfo, proxyInfoProvider);
+
+            Replica primary = connectReplica(registry, this.bucketName, this.endpoint, this.region, true, keys,
+                    clients);
+            S3ClientKey key = primary.getClientKey();
+            this.amazonS3 = primary.getClient();
+            this.clientKey = key;
+            this.metrics = new S3Metrics(S3MetricsRegistry.getInstance().getBucketMetrics(this.bucketName));
+            this.directorySnapshots = this.directorySnapshotsEnabled && this.metadataCacheTtl > 0
+                    ? new DirectorySnapshotCache(this.metadataCacheTtl, DIRECTORY_SNAPSHOT_CACHE_SIZE) : null;
+            this.contentCache = this.contentCacheEnabled
+                    ? new ContentCache(this.contentCacheDirectory, this.contentCacheSize) : null;
+            this.prefetcher = this.prefetchEnabled ? createPrefetcher() : null;
+            if (this.asyncTransport && proxyInfo == null) {
+                this.amazonS3Async = registry.acquireAsync(key, () -> createAsyncClient(key, authenticationInfo));
+            }
+
+            List<ReplicaLocation> locations = Replica.parse(this.readReplicas, this.endpoint);
+            if (!locations.isEmpty()) {
+                List<Replica> replicas = new ArrayList<>();
+                replicas.add(primary);
+                for (ReplicaLocation location : locations) {
+                    replicas.add(connectReplica(registry, location.getBucketName(), location.getEndpoint(), null,
+                            false, keys, clients));
+                }
+                this.replicaRouter = new ReplicaRouter(replicas);
+                probe(this.replicaRouter);
+            }
+        }
+    }
+
+    private Replica connectReplica(S3ClientRegistry registry, String bucketName, String endpoint, String region,
+                                   boolean primary, BiFunction<String, String, S3ClientKey> keys,
+                                   Function<S3ClientKey, S3Client> clients) {
+        String bucketRegion = region != null ? region
+                : BucketRegionResolver.getInstance().getRegion(endpoint, bucketName, this.regionCacheFile);
+        S3ClientKey probeKey = null;
+        try {
+            if (bucketRegion == null) {
+                // any region can tell where a bucket lives
+                probeKey = keys.apply(Region.US_EAST_1.id(), endpoint);
+                S3ClientKey key = probeKey;
+                S3Client probe = registry.acquire(key, () -> clients.apply(key));
+                bucketRegion = BucketRegionResolver.lookupRegion(probe, bucketName);
+                if (bucketRegion != null) {
+                    BucketRegionResolver.getInstance().putRegion(endpoint, bucketName, bucketRegion,
+                            this.regionCacheFile);
+                } else {
+                    bucketRegion = Region.US_EAST_1.id();
+                }
+            }
+
+            S3ClientKey key = keys.apply(bucketRegion, endpoint);
+            return new Replica(bucketName, endpoint, key, registry.acquire(key, () -> clients.apply(key)), primary);
+        } finally {
+            if (probeKey != null) {
+                // released after the real client was acquired, so a probe in the same region is reused
+                registry.release(probeKey);
+            }
+        }
+    }
+
+    /**
+     * Measures the round trip to every replica with a one-key listing, so that the first reads already go to the
+     * fastest one
+     */
+    private void probe(ReplicaRouter router) {
+        String prefix = this.baseDirectory;
+        CompletableFuture<?>[] probes = router.getReplicas().stream()
+                .map(replica -> CompletableFuture.runAsync(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        replica.getClient().listObjectsV2(ListObjectsV2Request.builder()
+                                .bucket(replica.getBucketName()).prefix(prefix).maxKeys(1).build());
+                        router.recordSuccess(replica, System.nanoTime() - start, 0);
+                    } catch (AwsServiceException e) {
+                        // a refusal measures the round trip just as well
+                        router.recordSuccess(replica, System.nanoTime() - start, 0);
+                    } catch (SdkException e) {
+                        LOGGER.debug("Cannot reach {}", replica, e);
+                        router.recordFailure(replica);
+                    }
+                }, getExecutorService()))
+                .toArray(CompletableFuture<?>[]::new);
+        CompletableFuture.allOf(probes).join();
+    }
+
+    private Prefetcher createPrefetcher() {
+        try {
+            return new Prefetcher(this.prefetchConcurrency, this.prefetchBudget);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot create a staging directory, not prefetching", e);
+            return null;
+        }
+    }
+
+    private static S3Client createClient(S3ClientKey key, AuthenticationInfo authenticationInfo,
+                                         ProxyInfoProvider proxyInfoProvider) {
+        S3ClientBuilder builder = S3Client.builder()
+                .credentialsProvider(getCredentialsProvider(authenticationInfo))
+                .httpClientBuilder(S3Utils.getApacheHttpClientBuilder(proxyInfoProvider, key.getTransport()))
+                .overrideConfiguration(getOverrideConfiguration(key.getTransport(), true))
+                .region(Region.of(key.getRegion()))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(key.isPathStyleAccess())
+                        .checksumValidationEnabled(key.isChecksumValidation()).build());
+        if (key.getEndpoint() != null) {
+            builder.endpointOverride(URI.create(key.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    private static S3AsyncClient createAsyncClient(S3ClientKey key, AuthenticationInfo authenticationInfo) {
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .credentialsProvider(getCredentialsProvider(authenticationInfo))
+                .httpClientBuilder(S3Utils.getNettyHttpClientBuilder(key.getTransport()))
+                // the event loop must not wait, so the asynchronous transfers pace their requests themselves
+                .overrideConfiguration(getOverrideConfiguration(key.getTransport(), false))
+                .region(Region.of(key.getRegion()))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(key.isPathStyleAccess())
+                        .checksumValidationEnabled(key.isChecksumValidation()).build());
+        if (key.getEndpoint() != null) {
+            builder.endpointOverride(URI.create(key.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    private static ClientOverrideConfiguration getOverrideConfiguration(HttpTransportConfiguration transport,
+                                                                        boolean pacing) {
+        // a shared client outlives single wagons, so the retry budget is spent across every wagon using it
+        RetryBudget retryBudget = new RetryBudget(RetryCondition.defaultRetryCondition());
+        ClientOverrideConfiguration.Builder builder = ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.builder()
+                        .numRetries(transport.getMaxRetries())
+                        .backoffStrategy(new DecorrelatedJitterBackoffStrategy(RETRY_BASE_DELAY,
+                                MAX_RETRY_BACKOFF))
+                        .throttlingBackoffStrategy(new DecorrelatedJitterBackoffStrategy(
+                                THROTTLED_RETRY_BASE_DELAY, MAX_RETRY_BACKOFF))
+                        .retryCondition(retryBudget)
+                        .build())
+                // paced before the metrics start timing the attempt
+                .addExecutionInterceptor(new ThrottlingInterceptor(retryBudget, transport.isAdaptiveThrottling(),
+                        pacing))
+                .addExecutionInterceptor(new MetricsInterceptor());
+        if (transport.getApiCallTimeout() != null) {
+            builder.apiCallTimeout(transport.getApiCallTimeout());
+        }
+        if (transport.getApiCallAttemptTimeout() != null) {
+            builder.apiCallAttemptTimeout(transport.getApiCallAttemptTimeout());
+        }
+        return builder.build();
+    }
+
+    // the interceptors of the asynchronous client do not pace, see getOverrideConfiguration
+    private AdaptiveRateLimiter getAsyncRateLimiter(String bucketName) {
+        return this.clientKey.getTransport().isAdaptiveThrottling() ? ThrottlingInterceptor.getRateLimiter(bucketName)
+                : null;
+    }
+
+    private static boolean hasCredentials(AuthenticationInfo authenticationInfo) {
+        return authenticationInfo != null && isNotBlank(authenticationInfo.getUserName());
+    }
+
+    private static AwsCredentialsProvider getCredentialsProvider(AuthenticationInfo authenticationInfo) {
+        return hasCredentials(authenticationInfo) ? new AWSMavenCredentialsProvider(authenticationInfo)
+                : DefaultCredentialsProvider.create();
+    }
+
+    private static String getCredentialsIdentity(AuthenticationInfo authenticationInfo) {
+        return hasCredentials(authenticationInfo)
+                ? authenticationInfo.getUserName() + ":" + getSecretIdentity(authenticationInfo.getPassword())
+                : null;
+    }
+
+    private static String getProxyIdentity(ProxyInfo proxyInfo) {
+        if (proxyInfo == null) {
+            return null;
         }
+        String address = proxyInfo.getHost() + ":" + proxyInfo.getPort();
+        return isNotBlank(proxyInfo.getUserName())
+                ? proxyInfo.getUserName() + ":" + getSecretIdentity(proxyInfo.getPassword()) + "@" + address
+                : address;
+    }
+
+    private static String getSecretIdentity(String secret) {
+        return secret != null ? DigestUtils.sha256(secret) : "";
+    }
+
+    private synchronized ExecutorService getExecutorService() {
+        if (this.executorService == null) {
+            this.executorService = Executors.newFixedThreadPool(this.maxConcurrency,
+                    new DaemonThreadFactory("aws-maven-transfer"));
+        }
+        return this.executorService;
     }
 
     @Override
     protected void disconnectFromRepository() {
+        synchronized (this) {
+            if (this.executorService != null) {
+                this.executorService.shutdown();
+                this.executorService = null;
+            }
+        }
+        Prefetcher prefetcher = this.prefetcher;
+        this.prefetcher = null;
+        if (prefetcher != null) {
+            try {
+                // before the clients are released, as in-flight prefetches use them
+                prefetcher.close();
+            } catch (IOException e) {
+                LOGGER.debug("Cannot delete the prefetch staging directory", e);
+            }
+        }
+        this.directories.clear();
+        this.metadataCache.clear();
+        logMetricsSummary();
+        ReplicaRouter replicaRouter = this.replicaRouter;
+        this.replicaRouter = null;
+        if (replicaRouter != null) {
+            LOGGER.debug("Read replicas: {}", replicaRouter.getReplicas());
+            for (Replica replica : replicaRouter.getReplicas()) {
+                if (!replica.isPrimary()) {
+                    S3ClientRegistry.getInstance().release(replica.getClientKey());
+                }
+            }
+        }
+        if (this.clientKey != null) {
+            if (this.amazonS3Async != null) {
+                S3ClientRegistry.getInstance().releaseAsync(this.clientKey);
+            }
+            S3ClientRegistry.getInstance().release(this.clientKey);
+            this.clientKey = null;
+        }
         this.amazonS3 = null;
+        this.amazonS3Async = null;
+        this.contentCache = null;
+        this.directorySnapshots = null;
         this.bucketName = null;
         this.baseDirectory = null;
     }
 
+    private void logMetricsSummary() {
+        String summary = this.metrics.summary();
+        if (summary.isEmpty() || !(this.metricsSummary ? LOGGER.isInfoEnabled() : LOGGER.isDebugEnabled())) {
+            return;
+        }
+        S3Metrics bucket = this.metrics.getParent();
+        if (bucket != null) {
+            summary += String.format("; %d requests, %d retries, %d throttled, peak %d concurrent (bucket totals)",
+                    bucket.getRequests(), bucket.getRetries(), bucket.getThrottledResponses(),
+                    bucket.getPeakConcurrentRequests());
+        }
+        String message = String.format("s3://%s: %s", this.bucketName, summary);
+        if (this.metricsSummary) {
+            LOGGER.info(message);
+        } else {
+            LOGGER.debug(message);
+        }
+    }
+
     @Override
     protected boolean doesRemoteResourceExist(String resourceName) {
         try {
-            getObjectMetadata(this.amazonS3, this.bucketName, this.baseDirectory, resourceName);
+            getObjectMetadata(resourceName);
             return true;
-        } catch (AwsServiceException e) {
+        } catch (ResourceDoesNotExistException e) {
             return false;
         }
     }
 
     @Override
     protected boolean isRemoteResourceNewer(String resourceName, long timestamp) throws ResourceDoesNotExistException {
-        try {
-            Instant lastModified = getObjectMetadata(this.amazonS3, this.bucketName, this.baseDirectory, resourceName).lastModified();
-            return lastModified == null || Date.from(lastModified).getTime() > timestamp;
-        } catch (AwsServiceException e) {
-            throw new ResourceDoesNotExistException(String.format("'%s' does not exist", resourceName), e);
-        }
+        Instant lastModified = getObjectMetadata(resourceName).lastModified();
+        return lastModified == null || Date.from(lastModified).getTime() > timestamp;
     }
 
     @Override
     protected List<String> listDirectory(String directory) throws ResourceDoesNotExistException {
         List<String> directoryContents = new ArrayList<>();
 
+        long start = System.nanoTime();
+        boolean success = false;
         try {
             String prefix = getKey(this.baseDirectory, directory);
-            Pattern pattern = Pattern.compile(String.format(RESOURCE_FORMAT, prefix));
-            ListObjectsResponse objectListing = this.amazonS3.listObjects(
-                    ListObjectsRequest.builder().bucket(bucketName)
-                            .prefix(prefix).delimiter("/").build());
-            directoryContents.addAll(getResourceNames(objectListing, pattern));
-
-            if (objectListing.isTruncated() != null) {
-                while (objectListing.isTruncated()) {
-                    objectListing = this.amazonS3.listObjects(
-                            ListObjectsRequest.builder().bucket(bucketName)
-                                    .prefix(prefix).delimiter("/").build());
-                    directoryContents
-                            .addAll(getResourceNames(objectListing, pattern));
-                }
+            try {
+                directoryContents.addAll(read((client, bucketName) -> {
+                    List<String> names = new ArrayList<>();
+                    for (String name : new DirectoryListing(client, bucketName, prefix)) {
+                        names.add(name);
+                    }
+                    return names;
+                }, null));
+                success = true;
+            } finally {
+                this.metrics.record(Operation.LIST, System.nanoTime() - start, 0, success);
             }
 
-            if (CollectionUtils.isNullOrEmpty(directoryContents)) {
+            if (directoryContents.isEmpty()) {
                 throw AwsServiceException.builder()
                         .message(directory + " not found.").build();
             }
@@ -240,17 +1173,171 @@ public final class AmazonS3Wagon extends AbstractWagon {
     @Override
     protected void getResource(String resourceName, File destination, TransferProgress transferProgress)
             throws TransferFailedException, ResourceDoesNotExistException {
-        try (ResponseInputStream<GetObjectResponse> s3Object = this.amazonS3
-                .getObject(GetObjectRequest.builder().bucket(bucketName)
-                        .key(getKey(this.baseDirectory, resourceName)).build());
-             OutputStream out = new TransferProgressFileOutputStream(destination, transferProgress)) {
-            IOUtils.copy(s3Object, out);
+        getResource(resourceName, destination, null, transferProgress);
+    }
+
+    @Override
+    protected boolean getResourceIfNewer(String resourceName, File destination, long timestamp,
+                                         TransferProgress transferProgress) throws TransferFailedException,
+            ResourceDoesNotExistException {
+        // a single conditional GET instead of a HEAD followed by a GET
+        return getResource(resourceName, destination, timestamp > 0 ? Instant.ofEpochMilli(timestamp) : null,
+                transferProgress);
+    }
+
+    private boolean getResource(String resourceName, File destination, Instant ifModifiedSince,
+                                TransferProgress transferProgress) throws TransferFailedException,
+            ResourceDoesNotExistException {
+        String key = getKey(this.baseDirectory, resourceName);
+        ContentCache contentCache = this.contentCache;
+        Prefetcher prefetcher = this.prefetcher;
+        if (prefetcher != null && ifModifiedSince == null) {
+            if (resourceName.endsWith(POM_EXTENSION)) {
+                prefetchSiblings(prefetcher, key);
+            } else if (getPrefetched(prefetcher, resourceName, key, destination, transferProgress)) {
+                return true;
+            }
+        }
+
+        boolean existed = destination.exists();
+        long start = System.nanoTime();
+        long bytes = 0;
+        boolean success = false;
+
+        // S3 lets If-None-Match override If-Modified-Since, so only plain gets revalidate the content cache
+        try (ContentCache.Entry cached = contentCache != null && ifModifiedSince == null
+                ? contentCache.get(this.endpoint, this.bucketName, key) : null) {
+            String ifNoneMatch = cached != null ? cached.getETag() : null;
+            CountingTransferProgress delivered = new CountingTransferProgress(transferProgress);
+            String eTag;
+            try {
+                eTag = read((client, bucketName) -> download(client, bucketName, key, ifNoneMatch, ifModifiedSince,
+                        destination, delivered), delivered::getCount, getKnownSize(key));
+            } catch (AwsServiceException e) {
+                if (e.statusCode() != NOT_MODIFIED) {
+                    throw e;
+                }
+                success = true;
+                if (cached != null) {
+                    cached.copyTo(destination, new byte[this.transferBufferSize], transferProgress);
+                    return true;
+                }
+                if (!existed) {
+                    Files.deleteIfExists(destination.toPath());
+                }
+                return false;
+            }
+            // only bytes that crossed the network count towards the throughput
+            bytes = destination.length();
+            success = true;
+            if (contentCache != null && eTag != null) {
+                contentCache.put(this.endpoint, this.bucketName, key, eTag, destination.toPath());
+            }
+            return true;
         } catch (AwsServiceException e) {
             throw new ResourceDoesNotExistException(String.format("'%s' does not exist", resourceName), e);
-        } catch (FileNotFoundException e) {
+        } catch (SdkException e) {
+            // timeouts and other client-side failures
+            throw new TransferFailedException(String.format("Cannot read from '%s' and write to '%s'", resourceName, destination), e);
+        } catch (FileNotFoundException | NoSuchFileException e) {
             throw new TransferFailedException(String.format("Cannot write file to '%s'", destination), e);
         } catch (IOException e) {
             throw new TransferFailedException(String.format("Cannot read from '%s' and write to '%s'", resourceName, destination), e);
+        } finally {
+            this.metrics.record(Operation.GET, System.nanoTime() - start, bytes, success);
+        }
+    }
+
+    private void prefetchSiblings(Prefetcher prefetcher, String pomKey) {
+        String base = pomKey.substring(0, pomKey.length() - POM_EXTENSION.length());
+        for (String suffix : PREFETCH_SUFFIXES) {
+            prefetcher.prefetch(base + suffix, this::prefetch);
+        }
+    }
+
+    private String prefetch(String key, Path file, LongPredicate budget) throws IOException {
+        long start = System.nanoTime();
+        long bytes = 0;
+        boolean success = false;
+        try (ResponseInputStream<GetObjectResponse> s3Object = read((client, bucketName) -> client.getObject(
+                GetObjectRequest.builder().bucket(bucketName).key(key).build()), null)) {
+            success = true;
+            Long contentLength = s3Object.response().contentLength();
+            if (contentLength == null || !budget.test(contentLength)) {
+                // closing would drain the rest of the body into the connection
+                s3Object.abort();
+                return null;
+            }
+            // the budget is checked against the stored size, which understates compressed objects
+            try (InputStream in = CompressionUtils.decode(s3Object, s3Object.response().contentEncoding(),
+                    this.transferBufferSize);
+                 FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                bytes = IOUtils.copy(in, out, 0, Long.MAX_VALUE, new byte[this.transferBufferSize], null);
+            }
+            return s3Object.response().eTag();
+        } catch (AwsServiceException e) {
+            if (e.statusCode() == NOT_FOUND) {
+                success = true;
+                throw new FileNotFoundException(key);
+            }
+            throw e;
+        } finally {
+            this.metrics.record(Operation.GET, System.nanoTime() - start, bytes, success);
+        }
+    }
+
+    private boolean getPrefetched(Prefetcher prefetcher, String resourceName, String key, File destination,
+                                  TransferProgress transferProgress) throws TransferFailedException,
+            ResourceDoesNotExistException {
+        try (Prefetcher.Entry prefetched = prefetcher.take(key)) {
+            if (prefetched == null) {
+                return false;
+            } else if (prefetched.isMissing()) {
+                throw new ResourceDoesNotExistException(String.format("'%s' does not exist", resourceName));
+            }
+            prefetched.copyTo(destination, new byte[this.transferBufferSize], transferProgress);
+            ContentCache contentCache = this.contentCache;
+            if (contentCache != null && prefetched.getETag() != null) {
+                contentCache.put(this.endpoint, this.bucketName, key, prefetched.getETag(), destination.toPath());
+            }
+            return true;
+        } catch (IOException e) {
+            throw new TransferFailedException(String.format("Cannot write file to '%s'", destination), e);
+        }
+    }
+
+    private String download(S3Client client, String bucketName, String key, String ifNoneMatch,
+                            Instant ifModifiedSince, File destination, TransferProgress transferProgress)
+            throws IOException {
+        // replicas in the region and at the endpoint of the repository's bucket share its clients, the asynchronous
+        // one included
+        if (this.amazonS3Async != null && client == this.amazonS3) {
+            return FutureUtils.await(new AsyncDownload(this.amazonS3Async, this.downloadPartSize, this.maxConcurrency,
+                    this.transferBufferSize, this.preallocate, getAsyncRateLimiter(bucketName))
+                    .download(bucketName, key, ifNoneMatch, ifModifiedSince, destination, transferProgress));
+        } else if (this.downloadPartSize > 0) {
+            return new RangedDownload(client, getExecutorService(), this.downloadPartSize,
+                    this.transferBufferSize, this.preallocate)
+                    .download(bucketName, key, ifNoneMatch, ifModifiedSince, destination, transferProgress);
+        }
+
+        // the destination is only opened once the preconditions have passed
+        try (ResponseInputStream<GetObjectResponse> s3Object = client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName).key(key).ifNoneMatch(ifNoneMatch).ifModifiedSince(ifModifiedSince).build());
+             InputStream in = CompressionUtils.decode(s3Object, s3Object.response().contentEncoding(),
+                     this.transferBufferSize);
+             FileChannel out = FileChannel.open(destination.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Long contentLength = s3Object.response().contentLength();
+            // the stored size of a compressed object says little about its decompressed size
+            if (this.preallocate && contentLength != null
+                    && !CompressionUtils.isGzip(s3Object.response().contentEncoding())) {
+                IOUtils.preallocate(out, contentLength);
+            }
+            long copied = IOUtils.copy(in, out, 0, Long.MAX_VALUE, new byte[this.transferBufferSize],
+                    transferProgress);
+            out.truncate(copied);
+            return s3Object.response().eTag();
         }
     }
 
@@ -258,20 +1345,147 @@ public final class AmazonS3Wagon extends AbstractWagon {
     protected void putResource(File source, String destination, TransferProgress transferProgress) throws TransferFailedException,
             ResourceDoesNotExistException {
         String key = getKey(this.baseDirectory, destination);
+        long start = System.nanoTime();
+        long bytes = 0;
+        boolean success = false;
 
-        mkdirs(amazonS3, this.bucketName, key, 0);
+        try {
+            // larger files keep the multipart and asynchronous uploads
+            if (source.length() <= this.multipartThreshold
+                    && CompressionUtils.matches(this.compressPatterns, destination)) {
+                bytes = putCompressed(source, key, transferProgress);
+                success = true;
+                return;
+            }
 
-        try (InputStream in = new TransferProgressFileInputStream(source, transferProgress)) {
-            this.amazonS3.putObject(
-                    PutObjectRequest.builder().bucket(bucketName).key(key)
-                            .build(),
-                    RequestBody.fromInputStream(in, source.length()));
-        } catch (AwsServiceException e) {
+            if (this.skipUnchanged && isUnchanged(source, key)) {
+                // still reported, as Maven computes checksums from the progress notifications
+                try (InputStream in = new TransferProgressFileInputStream(source, transferProgress)) {
+                    byte[] buffer = new byte[this.transferBufferSize];
+                    while (in.read(buffer) != -1) {
+                        // only the notifications are needed
+                    }
+                }
+                success = true;
+                return;
+            }
+
+            mkdirs(key);
+
+            long contentLength = source.length();
+            if (this.amazonS3Async != null) {
+                FutureUtils.await(new AsyncUpload(this.amazonS3Async, this.multipartThreshold, this.multipartPartSize,
+                        this.maxConcurrency, this.transferBufferSize, this.verifyChecksums, this.memoryMappedUploads,
+                        getAsyncRateLimiter(this.bucketName))
+                        .upload(this.bucketName, key, source, transferProgress));
+            } else if (contentLength > this.multipartThreshold) {
+                new MultipartUpload(this.amazonS3, getExecutorService(), this.multipartPartSize, this.verifyChecksums)
+                        .upload(this.bucketName, key, source, transferProgress);
+            } else {
+                putObject(source, key, null, transferProgress);
+            }
+            bytes = contentLength;
+            success = true;
+        } catch (SdkException e) {
+            // service errors as well as timeouts and other client-side failures
             throw new TransferFailedException(String.format("Cannot write file to '%s'", destination), e);
-        } catch (FileNotFoundException e) {
+        } catch (FileNotFoundException | NoSuchFileException e) {
             throw new ResourceDoesNotExistException(String.format("Cannot read file from '%s'", source), e);
         } catch (IOException e) {
             throw new TransferFailedException(String.format("Cannot write file to '%s'", destination), e);
+        } finally {
+            this.metadataCache.invalidate(key);
+            DirectorySnapshotCache directorySnapshots = this.directorySnapshots;
+            if (directorySnapshots != null) {
+                directorySnapshots.invalidate(key);
+            }
+            Prefetcher prefetcher = this.prefetcher;
+            if (prefetcher != null) {
+                prefetcher.discard(key);
+            }
+            this.metrics.record(Operation.PUT, System.nanoTime() - start, bytes, success);
         }
     }
+
+    private void putObject(File source, String key, String contentEncoding, TransferProgress transferProgress)
+            throws IOException {
+        long contentLength = source.length();
+        // a positional, markable stream lets the SDK retry without buffering the body
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             InputStream in = new FileRegionInputStream(channel, 0, contentLength, transferProgress)) {
+            // the SDK checks the MD5 of a single PUT against its ETag when the client validates checksums
+            this.amazonS3.putObject(
+                    PutObjectRequest.builder().bucket(this.bucketName).key(key).contentEncoding(contentEncoding)
+                            .build(),
+                    RequestBody.fromInputStream(in, contentLength));
+        } catch (SdkClientException e) {
+            if (!DigestUtils.isChecksumMismatch(e)) {
+                throw e;
+            }
+            IOException mismatch = new IOException(String.format("Checksum mismatch: S3 stored different content "
+                    + "for '%s' than was sent", key), e);
+            // the PUT has replaced the object already, so the corrupt copy must not be left in its place
+            try {
+                this.amazonS3.deleteObject(DeleteObjectRequest.builder().bucket(this.bucketName).key(key).build());
+            } catch (SdkException deleteFailure) {
+                mismatch.addSuppressed(deleteFailure);
+            }
+            throw mismatch;
+        }
+    }
+
+    private long putCompressed(File source, String key, TransferProgress transferProgress) throws IOException,
+            TransferFailedException {
+        Path compressed = Files.createTempFile("aws-maven-", ".gz");
+        try {
+            // the original bytes are reported while compressing, as Maven computes the checksums from them
+            long compressedLength = CompressionUtils.gzip(source.toPath(), compressed,
+                    new byte[this.transferBufferSize], transferProgress);
+            // content that does not compress is stored as it is
+            boolean smaller = compressedLength < source.length();
+            File body = smaller ? compressed.toFile() : source;
+            if (this.skipUnchanged && isUnchanged(body, key)) {
+                return 0;
+            }
+
+            mkdirs(key);
+            putObject(body, key, smaller ? CompressionUtils.GZIP : null, NO_PROGRESS);
+            return body.length();
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    private boolean isUnchanged(File source, String key) throws IOException {
+        HeadObjectResponse metadata;
+        try {
+            // replicas may still hold an older version of the object
+            metadata = this.replicaRouter != null ? headObject(key, false)
+                    : this.metadataCache.get(key, () -> headObject(key, true));
+        } catch (AwsServiceException e) {
+            // the upload decides whether the object can be written
+            return false;
+        }
+        if (metadata == null || metadata.eTag() == null || metadata.contentLength() == null
+                || metadata.contentLength() != source.length()) {
+            return false;
+        }
+
+        String eTag = DigestUtils.unquote(metadata.eTag());
+        int parts = DigestUtils.getPartCount(eTag);
+        if (parts == 0) {
+            return eTag.equals(DigestUtils.eTag(source.toPath()));
+        }
+        // only objects uploaded with the configured part size can be compared
+        long partSize = MultipartUpload.getPartSize(source.length(), this.multipartPartSize);
+        if ((source.length() + partSize - 1) / partSize != parts) {
+            return false;
+        }
+        return eTag.equals(DigestUtils.multipartETag(source.toPath(), partSize));
+    }
+
+    private interface ReplicaRead<T, E extends Exception> {
+
+        T read(S3Client client, String bucketName) throws E;
+    }
 }
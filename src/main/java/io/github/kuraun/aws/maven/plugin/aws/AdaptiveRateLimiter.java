@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import io.github.kuraun.aws.maven.plugin.util.DaemonThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Client-side rate limit of the requests sent to one bucket. The limiter lets everything through until S3 first
+ * responds with a throttling error; from then on requests are paced by a token bucket whose rate is cut
+ * multiplicatively on every throttling response and raised additively on every success, until it is well above the
+ * rate that was first throttled and the limit is lifted again.
+ * <p>
+ * Synchronous requests wait in {@link #acquire()}. Asynchronous requests must not block the threads of their client,
+ * so they are sent from a timer once {@link #acquireAsync()} lets them through.
+ */
+public final class AdaptiveRateLimiter {
+
+    static final double MIN_RATE = 0.5;
+
+    private static final double DECREASE_FACTOR = 0.7;
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("aws-maven-throttle"));
+
+    private double rate = Double.POSITIVE_INFINITY;
+
+    private double ceiling;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    private long lastDecrease;
+
+    private long windowStart;
+
+    private int windowCount;
+
+    private int lastWindowCount;
+
+    AdaptiveRateLimiter() {
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Waits until a request may be sent
+     *
+     * @return The {@link System#nanoTime()} at which the request may be sent, to be passed to {@link #onThrottled}
+     */
+    public long acquire() {
+        long now = System.nanoTime();
+        long wait = reserve(now);
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return now + wait;
+    }
+
+    /**
+     * Returns a future that completes once a request may be sent, without blocking the calling thread
+     *
+     * @return A future of the {@link System#nanoTime()} at which the request may be sent
+     */
+    public CompletableFuture<Long> acquireAsync() {
+        long now = System.nanoTime();
+        long wait = reserve(now);
+        if (wait <= 0) {
+            return CompletableFuture.completedFuture(now);
+        }
+        CompletableFuture<Long> acquired = new CompletableFuture<>();
+        SCHEDULER.schedule(() -> acquired.complete(now + wait), wait, TimeUnit.NANOSECONDS);
+        return acquired;
+    }
+
+    /**
+     * Sends an asynchronous request once a rate limiter lets it through
+     *
+     * @param rateLimiter The rate limiter, or {@code null} to send the request right away
+     * @param request     Sends the request
+     * @param <T>         The type of the response
+     * @return The future of the response
+     */
+    public static <T> CompletableFuture<T> paced(AdaptiveRateLimiter rateLimiter,
+                                                 Supplier<CompletableFuture<T>> request) {
+        if (rateLimiter == null) {
+            return request.get();
+        }
+        return rateLimiter.acquireAsync().thenCompose(sentAt -> request.get());
+    }
+
+    /**
+     * Lowers the rate after a throttling response
+     *
+     * @param sentAt The time returned by {@link #acquire()} for the throttled request
+     */
+    public void onThrottled(long sentAt) {
+        onThrottled(sentAt, System.nanoTime());
+    }
+
+    /**
+     * Raises the rate after a response that was not throttled
+     */
+    public void onSuccess() {
+        onSuccess(System.nanoTime());
+    }
+
+    public synchronized double getRate() {
+        return this.rate;
+    }
+
+    synchronized long reserve(long now) {
+        count(now);
+        if (this.rate == Double.POSITIVE_INFINITY) {
+            return 0;
+        }
+        refill(now);
+        // tokens may go negative; each waiting request owes one more interval
+        this.tokens -= 1;
+        return this.tokens >= 0 ? 0 : (long) (-this.tokens / this.rate * SECOND);
+    }
+
+    synchronized void onThrottled(long sentAt, long now) {
+        boolean unlimited = this.rate == Double.POSITIVE_INFINITY;
+        if (!unlimited && sentAt - this.lastDecrease < 0) {
+            // sent before the last decrease took effect, so already accounted for
+            return;
+        }
+        double current;
+        if (unlimited) {
+            current = Math.max(1, Math.max(this.lastWindowCount, this.windowCount));
+            this.ceiling = current;
+            this.tokens = 0;
+        } else {
+            refill(now);
+            current = this.rate;
+        }
+        this.rate = Math.max(MIN_RATE, current * DECREASE_FACTOR);
+        this.lastRefill = now;
+        this.lastDecrease = now;
+    }
+
+    synchronized void onSuccess(long now) {
+        if (this.rate == Double.POSITIVE_INFINITY) {
+            return;
+        }
+        refill(now);
+        // roughly one more request per second for every second spent at the current rate
+        this.rate += 1 / this.rate;
+        if (this.rate > this.ceiling * 2) {
+            this.rate = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private void count(long now) {
+        long elapsed = now - this.windowStart;
+        if (elapsed >= SECOND) {
+            this.lastWindowCount = elapsed < 2 * SECOND ? this.windowCount : 0;
+            this.windowStart = now;
+            this.windowCount = 0;
+        }
+        this.windowCount++;
+    }
+
+    private void refill(long now) {
+        this.tokens = Math.min(Math.max(1, this.rate), this.tokens + (now - this.lastRefill) * this.rate / SECOND);
+        this.lastRefill = now;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetBucketLocationRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves and remembers the home region of buckets, so that clients can be built against the right region instead
+ * of being redirected on every request. Regions are cached in memory for the lifetime of the JVM and, optionally, in a
+ * properties file shared by every Maven process on the host. The file is read and written under a {@link FileLock},
+ * and a file that cannot be read or written only disables the persistent cache.
+ */
+public final class BucketRegionResolver {
+
+    public static final Path DEFAULT_CACHE_FILE = Paths.get(System.getProperty("user.home"), ".m2", "aws-maven",
+            "bucket-regions.properties");
+
+    private static final BucketRegionResolver INSTANCE = new BucketRegionResolver();
+
+    private static final String REGION_HEADER = "x-amz-bucket-region";
+
+    private final Map<String, String> regions = new ConcurrentHashMap<>();
+
+    BucketRegionResolver() {
+    }
+
+    public static BucketRegionResolver getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached region of a bucket, looking in memory first and then in the cache file
+     *
+     * @param endpoint   The endpoint the bucket is addressed through, or {@code null} for Amazon S3
+     * @param bucketName The name of the bucket
+     * @param cacheFile  The persistent cache, or {@code null} to only use the memory cache
+     * @return The region, or {@code null} if it has not been resolved yet
+     */
+    public String getRegion(String endpoint, String bucketName, Path cacheFile) {
+        String key = getKey(endpoint, bucketName);
+        String region = this.regions.get(key);
+        if (region == null && cacheFile != null) {
+            region = load(cacheFile).getProperty(key);
+            if (region != null) {
+                this.regions.put(key, region);
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Remembers the region of a bucket in memory and in the cache file
+     *
+     * @param endpoint   The endpoint the bucket is addressed through, or {@code null} for Amazon S3
+     * @param bucketName The name of the bucket
+     * @param region     The region of the bucket
+     * @param cacheFile  The persistent cache, or {@code null} to only use the memory cache
+     */
+    public void putRegion(String endpoint, String bucketName, String region, Path cacheFile) {
+        String key = getKey(endpoint, bucketName);
+        this.regions.put(key, region);
+        if (cacheFile != null) {
+            store(cacheFile, key, region);
+        }
+    }
+
+    /**
+     * Asks S3 for the region of a bucket. The <code>x-amz-bucket-region</code> header of a HEAD request is used if
+     * present, also when S3 answers with a redirect or an error, otherwise the bucket's location constraint.
+     *
+     * @param amazonS3   A client for any region
+     * @param bucketName The name of the bucket
+     * @return The region, or {@code null} if neither request revealed it
+     */
+    public static String lookupRegion(S3Client amazonS3, String bucketName) {
+        try {
+            String region = amazonS3.headBucket(HeadBucketRequest.builder().bucket(bucketName).build())
+                    .sdkHttpResponse().firstMatchingHeader(REGION_HEADER).orElse(null);
+            if (region != null) {
+                return region;
+            }
+        } catch (AwsServiceException e) {
+            // buckets in other regions answer with a 301 that still names their region
+            String region = e.awsErrorDetails() != null && e.awsErrorDetails().sdkHttpResponse() != null
+                    ? e.awsErrorDetails().sdkHttpResponse().firstMatchingHeader(REGION_HEADER).orElse(null) : null;
+            if (region != null) {
+                return region;
+            }
+            // otherwise fall back to the location constraint
+        } catch (SdkException e) {
+            // the location constraint may still be readable
+        }
+
+        try {
+            return toRegion(amazonS3.getBucketLocation(GetBucketLocationRequest.builder().bucket(bucketName)
+                    .build()).locationConstraintAsString());
+        } catch (SdkException e) {
+            return null;
+        }
+    }
+
+    static String toRegion(String locationConstraint) {
+        if (locationConstraint == null || locationConstraint.isEmpty()) {
+            // buckets in us-east-1 have no location constraint
+            return Region.US_EAST_1.id();
+        }
+        if ("EU".equals(locationConstraint)) {
+            return Region.EU_WEST_1.id();
+        }
+        return locationConstraint;
+    }
+
+    private static String getKey(String endpoint, String bucketName) {
+        return endpoint != null ? endpoint + "|" + bucketName : bucketName;
+    }
+
+    private static Properties load(Path cacheFile) {
+        Properties properties = new Properties();
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            // released when the channel is closed
+            channel.lock(0, Long.MAX_VALUE, true);
+            properties.load(Channels.newInputStream(channel));
+        } catch (NoSuchFileException e) {
+            // nothing has been cached yet
+        } catch (IOException e) {
+            // an unreadable cache only costs a lookup
+        }
+        return properties;
+    }
+
+    private static void store(Path cacheFile, String key, String region) {
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // released when the channel is closed
+                channel.lock();
+                // merge with entries written by other processes since this one last read the file
+                Properties properties = new Properties();
+                InputStream in = Channels.newInputStream(channel);
+                properties.load(in);
+                if (region.equals(properties.getProperty(key))) {
+                    return;
+                }
+                properties.setProperty(key, region);
+
+                channel.truncate(0);
+                channel.position(0);
+                OutputStream out = Channels.newOutputStream(channel);
+                properties.store(out, "Bucket regions resolved by aws-maven");
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the region stays cached in memory
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Backoff that draws each delay between the base delay and three times the previous delay, capped at a maximum.
+ * Unlike exponential backoff with full jitter, clients that failed together drift apart after the first retry instead
+ * of retrying in synchronized waves.
+ */
+public final class DecorrelatedJitterBackoffStrategy implements BackoffStrategy {
+
+    private final long baseDelay;
+
+    private final long maxBackoff;
+
+    public DecorrelatedJitterBackoffStrategy(Duration baseDelay, Duration maxBackoff) {
+        this.baseDelay = Math.max(1, baseDelay.toMillis());
+        this.maxBackoff = Math.max(this.baseDelay, maxBackoff.toMillis());
+    }
+
+    @Override
+    public Duration computeDelayBeforeNextRetry(RetryPolicyContext context) {
+        return Duration.ofMillis(delay(context.retriesAttempted(), ThreadLocalRandom.current()));
+    }
+
+    long delay(int retriesAttempted, Random random) {
+        // the policy only knows the attempt number, so the walk is replayed up to it
+        long delay = this.baseDelay;
+        for (int i = 0; i <= retriesAttempted; i++) {
+            long upper = Math.min(this.maxBackoff, delay * 3);
+            delay = this.baseDelay + (long) (random.nextDouble() * (upper - this.baseDelay));
+        }
+        return delay;
+    }
+}
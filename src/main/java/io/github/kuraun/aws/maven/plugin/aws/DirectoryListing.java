@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * A lazy listing of the immediate children of an S3 "directory". Pages are requested with ListObjectsV2 continuation
+ * tokens only as the iteration reaches them, so only one page is held in memory at a time regardless of the size of
+ * the directory.
+ * <p>
+ * Names are relative to the listed prefix; sub-directories end with a <code>/</code> and the directory's own marker
+ * object is skipped.
+ */
+public final class DirectoryListing implements Iterable<String> {
+
+    private static final String DELIMITER = "/";
+
+    private final S3Client amazonS3;
+
+    private final String bucketName;
+
+    private final String prefix;
+
+    public DirectoryListing(S3Client amazonS3, String bucketName, String prefix) {
+        this.amazonS3 = amazonS3;
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Returns the raw ListObjectsV2 pages of this listing; each iteration issues its own requests
+     *
+     * @return The pages of this listing
+     */
+    public Iterable<ListObjectsV2Response> pages() {
+        return PageIterator::new;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new NameIterator(pages().iterator());
+    }
+
+    private String getName(String key) {
+        return key.startsWith(this.prefix) ? key.substring(this.prefix.length()) : key;
+    }
+
+    private final class PageIterator implements Iterator<ListObjectsV2Response> {
+
+        private String continuationToken;
+
+        private boolean last;
+
+        @Override
+        public boolean hasNext() {
+            return !this.last;
+        }
+
+        @Override
+        public ListObjectsV2Response next() {
+            if (this.last) {
+                throw new NoSuchElementException();
+            }
+
+            ListObjectsV2Response page = amazonS3.listObjectsV2(ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(prefix)
+                    .delimiter(DELIMITER)
+                    .continuationToken(this.continuationToken)
+                    .build());
+            this.continuationToken = page.nextContinuationToken();
+            this.last = !Boolean.TRUE.equals(page.isTruncated()) || this.continuationToken == null;
+            return page;
+        }
+    }
+
+    private final class NameIterator implements Iterator<String> {
+
+        private final Iterator<ListObjectsV2Response> pages;
+
+        private Iterator<String> names = Collections.emptyIterator();
+
+        private String next;
+
+        private NameIterator(Iterator<ListObjectsV2Response> pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.next == null) {
+                if (this.names.hasNext()) {
+                    String name = this.names.next();
+                    if (!name.isEmpty()) {
+                        this.next = name;
+                    }
+                } else if (this.pages.hasNext()) {
+                    ListObjectsV2Response page = this.pages.next();
+                    this.names = Stream.concat(
+                            page.commonPrefixes().stream().map(CommonPrefix::prefix),
+                            page.contents().stream().map(S3Object::key))
+                            .map(DirectoryListing.this::getName)
+                            .iterator();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String name = this.next;
+            this.next = null;
+            return name;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The HTTP settings an S3 client is built with. Durations of {@code null} leave the SDK default in place. The
+ * configuration is part of the {@link S3ClientKey}, so wagons with different settings never share a client.
+ */
+public final class HttpTransportConfiguration {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 50;
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    private static final HttpTransportConfiguration DEFAULTS = builder().build();
+
+    private final int maxConnections;
+
+    private final Duration connectionTimeout;
+
+    private final Duration socketTimeout;
+
+    private final Duration connectionAcquisitionTimeout;
+
+    private final Duration connectionTimeToLive;
+
+    private final Duration connectionMaxIdleTime;
+
+    private final boolean useIdleConnectionReaper;
+
+    private final boolean expectContinueEnabled;
+
+    private final Duration apiCallTimeout;
+
+    private final Duration apiCallAttemptTimeout;
+
+    private final int maxRetries;
+
+    private final boolean adaptiveThrottling;
+
+    private HttpTransportConfiguration(Builder builder) {
+        this.maxConnections = builder.maxConnections;
+        this.connectionTimeout = builder.connectionTimeout;
+        this.socketTimeout = builder.socketTimeout;
+        this.connectionAcquisitionTimeout = builder.connectionAcquisitionTimeout;
+        this.connectionTimeToLive = builder.connectionTimeToLive;
+        this.connectionMaxIdleTime = builder.connectionMaxIdleTime;
+        this.useIdleConnectionReaper = builder.useIdleConnectionReaper;
+        this.expectContinueEnabled = builder.expectContinueEnabled;
+        this.apiCallTimeout = builder.apiCallTimeout;
+        this.apiCallAttemptTimeout = builder.apiCallAttemptTimeout;
+        this.maxRetries = builder.maxRetries;
+        this.adaptiveThrottling = builder.adaptiveThrottling;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static HttpTransportConfiguration defaults() {
+        return DEFAULTS;
+    }
+
+    public int getMaxConnections() {
+        return this.maxConnections;
+    }
+
+    public Duration getConnectionTimeout() {
+        return this.connectionTimeout;
+    }
+
+    public Duration getSocketTimeout() {
+        return this.socketTimeout;
+    }
+
+    public Duration getConnectionAcquisitionTimeout() {
+        return this.connectionAcquisitionTimeout;
+    }
+
+    public Duration getConnectionTimeToLive() {
+        return this.connectionTimeToLive;
+    }
+
+    public Duration getConnectionMaxIdleTime() {
+        return this.connectionMaxIdleTime;
+    }
+
+    public boolean isUseIdleConnectionReaper() {
+        return this.useIdleConnectionReaper;
+    }
+
+    public boolean isExpectContinueEnabled() {
+        return this.expectContinueEnabled;
+    }
+
+    public Duration getApiCallTimeout() {
+        return this.apiCallTimeout;
+    }
+
+    public Duration getApiCallAttemptTimeout() {
+        return this.apiCallAttemptTimeout;
+    }
+
+    public int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    public boolean isAdaptiveThrottling() {
+        return this.adaptiveThrottling;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HttpTransportConfiguration other = (HttpTransportConfiguration) o;
+        return this.maxConnections == other.maxConnections
+                && this.useIdleConnectionReaper == other.useIdleConnectionReaper
+                && this.expectContinueEnabled == other.expectContinueEnabled
+                && this.maxRetries == other.maxRetries
+                && this.adaptiveThrottling == other.adaptiveThrottling
+                && Objects.equals(this.connectionTimeout, other.connectionTimeout)
+                && Objects.equals(this.socketTimeout, other.socketTimeout)
+                && Objects.equals(this.connectionAcquisitionTimeout, other.connectionAcquisitionTimeout)
+                && Objects.equals(this.connectionTimeToLive, other.connectionTimeToLive)
+                && Objects.equals(this.connectionMaxIdleTime, other.connectionMaxIdleTime)
+                && Objects.equals(this.apiCallTimeout, other.apiCallTimeout)
+                && Objects.equals(this.apiCallAttemptTimeout, other.apiCallAttemptTimeout);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.maxConnections, this.connectionTimeout, this.socketTimeout,
+                this.connectionAcquisitionTimeout, this.connectionTimeToLive, this.connectionMaxIdleTime,
+                this.useIdleConnectionReaper, this.expectContinueEnabled, this.apiCallTimeout,
+                this.apiCallAttemptTimeout, this.maxRetries, this.adaptiveThrottling);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HttpTransportConfiguration[maxConnections=%d, connectionTimeout=%s, socketTimeout=%s, "
+                        + "connectionAcquisitionTimeout=%s, connectionTimeToLive=%s, connectionMaxIdleTime=%s, "
+                        + "useIdleConnectionReaper=%s, expectContinueEnabled=%s, apiCallTimeout=%s, "
+                        + "apiCallAttemptTimeout=%s, maxRetries=%d, adaptiveThrottling=%s]", this.maxConnections, this.connectionTimeout,
+                this.socketTimeout, this.connectionAcquisitionTimeout, this.connectionTimeToLive,
+                this.connectionMaxIdleTime, this.useIdleConnectionReaper, this.expectContinueEnabled,
+                this.apiCallTimeout, this.apiCallAttemptTimeout, this.maxRetries, this.adaptiveThrottling);
+    }
+
+    public static final class Builder {
+
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+        private Duration connectionTimeout;
+
+        private Duration socketTimeout;
+
+        private Duration connectionAcquisitionTimeout;
+
+        private Duration connectionTimeToLive;
+
+        private Duration connectionMaxIdleTime;
+
+        private boolean useIdleConnectionReaper = true;
+
+        private boolean expectContinueEnabled = true;
+
+        private Duration apiCallTimeout;
+
+        private Duration apiCallAttemptTimeout;
+
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+
+        private boolean adaptiveThrottling = true;
+
+        private Builder() {
+        }
+
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = Math.max(1, maxConnections);
+            return this;
+        }
+
+        public Builder connectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = positive(connectionTimeout);
+            return this;
+        }
+
+        public Builder socketTimeout(Duration socketTimeout) {
+            this.socketTimeout = positive(socketTimeout);
+            return this;
+        }
+
+        public Builder connectionAcquisitionTimeout(Duration connectionAcquisitionTimeout) {
+            this.connectionAcquisitionTimeout = positive(connectionAcquisitionTimeout);
+            return this;
+        }
+
+        public Builder connectionTimeToLive(Duration connectionTimeToLive) {
+            this.connectionTimeToLive = positive(connectionTimeToLive);
+            return this;
+        }
+
+        public Builder connectionMaxIdleTime(Duration connectionMaxIdleTime) {
+            this.connectionMaxIdleTime = positive(connectionMaxIdleTime);
+            return this;
+        }
+
+        public Builder useIdleConnectionReaper(boolean useIdleConnectionReaper) {
+            this.useIdleConnectionReaper = useIdleConnectionReaper;
+            return this;
+        }
+
+        public Builder expectContinueEnabled(boolean expectContinueEnabled) {
+            this.expectContinueEnabled = expectContinueEnabled;
+            return this;
+        }
+
+        public Builder apiCallTimeout(Duration apiCallTimeout) {
+            this.apiCallTimeout = positive(apiCallTimeout);
+            return this;
+        }
+
+        public Builder apiCallAttemptTimeout(Duration apiCallAttemptTimeout) {
+            this.apiCallAttemptTimeout = positive(apiCallAttemptTimeout);
+            return this;
+        }
+
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = Math.max(0, maxRetries);
+            return this;
+        }
+
+        public Builder adaptiveThrottling(boolean adaptiveThrottling) {
+            this.adaptiveThrottling = adaptiveThrottling;
+            return this;
+        }
+
+        public HttpTransportConfiguration build() {
+            return new HttpTransportConfiguration(this);
+        }
+
+        private static Duration positive(Duration duration) {
+            // zero or negative values mean "no override", as for Maven's own timeouts
+            return duration != null && !duration.isZero() && !duration.isNegative() ? duration : null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A bucket holding a copy of the repository, together with the client that reads it and what has been observed about
+ * its latency, throughput and health
+ */
+public final class Replica {
+
+    private final String bucketName;
+
+    private final String endpoint;
+
+    private final S3ClientKey clientKey;
+
+    private final S3Client client;
+
+    private final boolean primary;
+
+    double latencyNanos = Double.NaN;
+
+    double bytesPerSecond = Double.NaN;
+
+    long lastMeasured = Long.MIN_VALUE;
+
+    int consecutiveFailures;
+
+    long unhealthyUntil;
+
+    public Replica(String bucketName, String endpoint, S3ClientKey clientKey, S3Client client, boolean primary) {
+        this.bucketName = bucketName;
+        this.endpoint = endpoint;
+        this.clientKey = clientKey;
+        this.client = client;
+        this.primary = primary;
+    }
+
+    /**
+     * Parses a comma-separated list of replicas
+     *
+     * @param replicas        Entries of the form <code>bucket</code> or <code>bucket@endpoint</code>
+     * @param defaultEndpoint The endpoint of entries without one
+     * @return The location of each entry
+     */
+    public static List<ReplicaLocation> parse(String replicas, String defaultEndpoint) {
+        if (replicas == null || replicas.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ReplicaLocation> locations = new ArrayList<>();
+        for (String entry : replicas.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.startsWith("s3://")) {
+                trimmed = trimmed.substring("s3://".length());
+            }
+            int separator = trimmed.indexOf('@');
+            String bucketName = separator < 0 ? trimmed : trimmed.substring(0, separator);
+            if (bucketName.endsWith("/")) {
+                bucketName = bucketName.substring(0, bucketName.length() - 1);
+            }
+            if (!bucketName.isEmpty()) {
+                locations.add(new ReplicaLocation(bucketName, separator < 0 ? defaultEndpoint
+                        : trimmed.substring(separator + 1)));
+            }
+        }
+        return locations;
+    }
+
+    public String getBucketName() {
+        return this.bucketName;
+    }
+
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    public S3ClientKey getClientKey() {
+        return this.clientKey;
+    }
+
+    public S3Client getClient() {
+        return this.client;
+    }
+
+    public boolean isPrimary() {
+        return this.primary;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("s3://%s%s (%s ms, %s KiB/s%s)", this.bucketName,
+                this.endpoint != null ? " at " + this.endpoint : "",
+                Double.isNaN(this.latencyNanos) ? "?" : String.format("%.1f", this.latencyNanos / 1e6),
+                Double.isNaN(this.bytesPerSecond) ? "?" : String.format("%.0f", this.bytesPerSecond / 1024),
+                this.consecutiveFailures > 0 ? ", " + this.consecutiveFailures + " failures" : "");
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import java.util.Objects;
+
+/**
+ * Where a replica of the repository is kept, as configured before any client has been connected to it
+ */
+public final class ReplicaLocation {
+
+    private final String bucketName;
+
+    private final String endpoint;
+
+    public ReplicaLocation(String bucketName, String endpoint) {
+        this.bucketName = bucketName;
+        this.endpoint = endpoint;
+    }
+
+    public String getBucketName() {
+        return this.bucketName;
+    }
+
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ReplicaLocation other = (ReplicaLocation) o;
+        return Objects.equals(this.bucketName, other.bucketName) && Objects.equals(this.endpoint, other.endpoint);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.bucketName, this.endpoint);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("s3://%s%s", this.bucketName, this.endpoint != null ? " at " + this.endpoint : "");
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses which of the replicas of a repository serves a read. Healthy replicas are tried in order of their measured
+ * latency, or of their measured throughput for reads of objects known to be large; replicas that recently failed are
+ * tried last and only after a backoff, and every so often a read is sent to the replica that has gone longest without
+ * a measurement so that the ranking follows changes in the network.
+ */
+public final class ReplicaRouter {
+
+    /**
+     * Transfers of at least this size measure, and are ranked by, throughput rather than latency
+     */
+    static final long THROUGHPUT_THRESHOLD = 64 * 1024;
+
+    static final int EXPLORATION_INTERVAL = 20;
+
+    static final long MIN_BACKOFF = TimeUnit.SECONDS.toNanos(1);
+
+    static final long MAX_BACKOFF = TimeUnit.MINUTES.toNanos(5);
+
+    private static final double SMOOTHING = 0.3;
+
+    private static final Comparator<Replica> BY_LATENCY = Comparator.comparingDouble(ReplicaRouter::rankByLatency);
+
+    private static final Comparator<Replica> BY_THROUGHPUT =
+            Comparator.comparingDouble(ReplicaRouter::rankByThroughput);
+
+    private final List<Replica> replicas;
+
+    private final LongSupplier clock;
+
+    private long selections;
+
+    public ReplicaRouter(List<Replica> replicas) {
+        this(replicas, System::nanoTime);
+    }
+
+    ReplicaRouter(List<Replica> replicas, LongSupplier clock) {
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.clock = clock;
+    }
+
+    public List<Replica> getReplicas() {
+        return this.replicas;
+    }
+
+    /**
+     * Returns the replicas in the order in which a read of unknown size should try them
+     *
+     * @return The healthy replicas, lowest latency first, followed by those that are backing off after failures
+     */
+    public List<Replica> candidates() {
+        return candidates(-1);
+    }
+
+    /**
+     * Returns the replicas in the order in which a read should try them
+     *
+     * @param size The size of the object to read, or {@code -1} if it is not known
+     * @return The healthy replicas, fastest first, followed by those that are backing off after failures
+     */
+    public synchronized List<Replica> candidates(long size) {
+        long now = this.clock.getAsLong();
+        List<Replica> healthy = new ArrayList<>();
+        List<Replica> unhealthy = new ArrayList<>();
+        for (Replica replica : this.replicas) {
+            if (replica.consecutiveFailures > 0 && now - replica.unhealthyUntil < 0) {
+                unhealthy.add(replica);
+            } else {
+                healthy.add(replica);
+            }
+        }
+        healthy.sort(size >= THROUGHPUT_THRESHOLD ? BY_THROUGHPUT : BY_LATENCY);
+        unhealthy.sort(Comparator.comparingLong(replica -> replica.unhealthyUntil - now));
+
+        if (++this.selections % EXPLORATION_INTERVAL == 0 && healthy.size() > 1) {
+            Replica stalest = Collections.min(healthy, Comparator.comparingLong(replica -> replica.lastMeasured));
+            healthy.remove(stalest);
+            healthy.add(0, stalest);
+        }
+
+        healthy.addAll(unhealthy);
+        return healthy;
+    }
+
+    /**
+     * Records a read that a replica served
+     *
+     * @param replica The replica
+     * @param nanos   How long the read took
+     * @param bytes   How many bytes it transferred
+     */
+    public synchronized void recordSuccess(Replica replica, long nanos, long bytes) {
+        if (bytes >= THROUGHPUT_THRESHOLD) {
+            double bytesPerSecond = bytes * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+            replica.bytesPerSecond = smooth(replica.bytesPerSecond, bytesPerSecond);
+        } else {
+            replica.latencyNanos = smooth(replica.latencyNanos, nanos);
+        }
+        replica.lastMeasured = this.clock.getAsLong();
+        replica.consecutiveFailures = 0;
+    }
+
+    /**
+     * Records a read that a replica failed, taking it out of rotation for a backoff that doubles with every
+     * consecutive failure
+     *
+     * @param replica The replica
+     */
+    public synchronized void recordFailure(Replica replica) {
+        long now = this.clock.getAsLong();
+        int failures = ++replica.consecutiveFailures;
+        long backoff = MIN_BACKOFF << Math.min(failures - 1, 20);
+        replica.unhealthyUntil = now + Math.min(backoff, MAX_BACKOFF);
+        replica.lastMeasured = now;
+    }
+
+    private static double rankByLatency(Replica replica) {
+        // Unmeasured replicas sort first so that each of them gets measured
+        return Double.isNaN(replica.latencyNanos) ? Double.NEGATIVE_INFINITY : replica.latencyNanos;
+    }
+
+    private static double rankByThroughput(Replica replica) {
+        return Double.isNaN(replica.bytesPerSecond) ? Double.NEGATIVE_INFINITY : -replica.bytesPerSecond;
+    }
+
+    private static double smooth(double average, double sample) {
+        return Double.isNaN(average) ? sample : average + SMOOTHING * (sample - average);
+    }
+}
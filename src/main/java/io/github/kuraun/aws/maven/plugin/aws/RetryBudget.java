@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+
+/**
+ * Limits the retries of a client to a fraction of its requests. Every request deposits a tenth of a retry, every
+ * retry withdraws a whole one, and a retry the budget cannot pay for is not attempted. During an outage the retries
+ * therefore stop multiplying the load once the reserve is spent, while isolated failures are still retried.
+ */
+public final class RetryBudget implements RetryCondition {
+
+    static final double INITIAL_BALANCE = 10;
+
+    static final double MAX_BALANCE = 100;
+
+    private static final double DEPOSIT = 0.1;
+
+    private final RetryCondition retryCondition;
+
+    private double balance = INITIAL_BALANCE;
+
+    public RetryBudget(RetryCondition retryCondition) {
+        this.retryCondition = retryCondition;
+    }
+
+    @Override
+    public boolean shouldRetry(RetryPolicyContext context) {
+        return this.retryCondition.shouldRetry(context) && withdraw();
+    }
+
+    public synchronized void deposit() {
+        this.balance = Math.min(MAX_BALANCE, this.balance + DEPOSIT);
+    }
+
+    public synchronized double getBalance() {
+        return this.balance;
+    }
+
+    synchronized boolean withdraw() {
+        if (this.balance < 1) {
+            return false;
+        }
+        this.balance -= 1;
+        return true;
+    }
+}
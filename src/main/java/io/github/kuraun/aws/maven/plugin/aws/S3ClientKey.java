@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import java.util.Objects;
+
+/**
+ * Identifies the configuration an {@link software.amazon.awssdk.services.s3.S3Client} was built with, so that wagons
+ * with identical settings can share one client and its connection pool.
+ */
+public final class S3ClientKey {
+
+    private final String region;
+
+    private final String endpoint;
+
+    private final boolean pathStyleAccess;
+
+    private final String credentialsIdentity;
+
+    private final String proxy;
+
+    private final HttpTransportConfiguration transport;
+
+    private final boolean checksumValidation;
+
+    public S3ClientKey(String region, String endpoint, boolean pathStyleAccess, String credentialsIdentity,
+                       String proxy) {
+        this(region, endpoint, pathStyleAccess, credentialsIdentity, proxy, HttpTransportConfiguration.defaults());
+    }
+
+    public S3ClientKey(String region, String endpoint, boolean pathStyleAccess, String credentialsIdentity,
+                       String proxy, HttpTransportConfiguration transport) {
+        this(region, endpoint, pathStyleAccess, credentialsIdentity, proxy, transport, true);
+    }
+
+    public S3ClientKey(String region, String endpoint, boolean pathStyleAccess, String credentialsIdentity,
+                       String proxy, HttpTransportConfiguration transport, boolean checksumValidation) {
+        this.region = region;
+        this.endpoint = endpoint;
+        this.pathStyleAccess = pathStyleAccess;
+        this.credentialsIdentity = credentialsIdentity;
+        this.proxy = proxy;
+        this.transport = transport;
+        this.checksumValidation = checksumValidation;
+    }
+
+    public String getRegion() {
+        return this.region;
+    }
+
+    public String getEndpoint() {
+        return this.endpoint;
+    }
+
+    public boolean isPathStyleAccess() {
+        return this.pathStyleAccess;
+    }
+
+    public HttpTransportConfiguration getTransport() {
+        return this.transport;
+    }
+
+    public boolean isChecksumValidation() {
+        return this.checksumValidation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        S3ClientKey other = (S3ClientKey) o;
+        return this.pathStyleAccess == other.pathStyleAccess
+                && this.checksumValidation == other.checksumValidation
+                && Objects.equals(this.region, other.region)
+                && Objects.equals(this.endpoint, other.endpoint)
+                && Objects.equals(this.credentialsIdentity, other.credentialsIdentity)
+                && Objects.equals(this.proxy, other.proxy)
+                && Objects.equals(this.transport, other.transport);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.region, this.endpoint, this.pathStyleAccess, this.credentialsIdentity, this.proxy,
+                this.transport, this.checksumValidation);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("S3ClientKey[region=%s, endpoint=%s, pathStyleAccess=%s, proxy=%s, transport=%s, "
+                        + "checksumValidation=%s]", this.region, this.endpoint, this.pathStyleAccess, this.proxy,
+                this.transport, this.checksumValidation);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A process-wide, reference-counted registry of {@link S3Client}s and {@link S3AsyncClient}s. Maven looks wagons up per use, so without sharing
+ * every module of a reactor build would pay for a new connection pool and new TLS handshakes. A client is closed when
+ * the last wagon using it releases it.
+ */
+public final class S3ClientRegistry {
+
+    private static final S3ClientRegistry INSTANCE = new S3ClientRegistry();
+
+    private final Map<S3ClientKey, Entry<S3Client>> clients = new HashMap<>();
+
+    private final Map<S3ClientKey, Entry<S3AsyncClient>> asyncClients = new HashMap<>();
+
+    S3ClientRegistry() {
+    }
+
+    public static S3ClientRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the client registered for a key, creating it if necessary, and takes a reference to it
+     *
+     * @param key     The configuration the client is built with
+     * @param factory Creates the client if none is registered for the key
+     * @return The shared client
+     */
+    public S3Client acquire(S3ClientKey key, Supplier<S3Client> factory) {
+        return acquire(this.clients, key, factory);
+    }
+
+    /**
+     * Returns the asynchronous client registered for a key, creating it if necessary, and takes a reference to it
+     *
+     * @param key     The configuration the client is built with
+     * @param factory Creates the client if none is registered for the key
+     * @return The shared client
+     */
+    public S3AsyncClient acquireAsync(S3ClientKey key, Supplier<S3AsyncClient> factory) {
+        return acquire(this.asyncClients, key, factory);
+    }
+
+    /**
+     * Gives up a reference taken by {@link #acquire(S3ClientKey, Supplier)}, closing the client if it was the last one
+     *
+     * @param key The configuration the client was acquired with
+     */
+    public void release(S3ClientKey key) {
+        release(this.clients, key);
+    }
+
+    /**
+     * Gives up a reference taken by {@link #acquireAsync(S3ClientKey, Supplier)}, closing the client if it was the
+     * last one
+     *
+     * @param key The configuration the client was acquired with
+     */
+    public void releaseAsync(S3ClientKey key) {
+        release(this.asyncClients, key);
+    }
+
+    private synchronized <T extends SdkAutoCloseable> T acquire(Map<S3ClientKey, Entry<T>> registered,
+                                                                S3ClientKey key, Supplier<T> factory) {
+        Entry<T> entry = registered.get(key);
+        if (entry == null) {
+            entry = new Entry<>(factory.get());
+            registered.put(key, entry);
+        }
+        entry.references++;
+        return entry.client;
+    }
+
+    private <T extends SdkAutoCloseable> void release(Map<S3ClientKey, Entry<T>> registered, S3ClientKey key) {
+        T unused = null;
+        synchronized (this) {
+            Entry<T> entry = registered.get(key);
+            if (entry != null && --entry.references == 0) {
+                registered.remove(key);
+                unused = entry.client;
+            }
+        }
+        if (unused != null) {
+            unused.close();
+        }
+    }
+
+    synchronized int size() {
+        return this.clients.size() + this.asyncClients.size();
+    }
+
+    private static final class Entry<T extends SdkAutoCloseable> {
+
+        private final T client;
+
+        private int references;
+
+        private Entry(T client) {
+            this.client = client;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Paces every attempt of a request through the {@link AdaptiveRateLimiter} of its bucket, which is shared by all
+ * clients in the process, and feeds the responses back into it. Each execution also deposits into the
+ * {@link RetryBudget} of the client, if any.
+ * <p>
+ * Interceptors of asynchronous clients run on the threads that serve every request in flight, so there the
+ * interceptor only feeds the responses back, and the requests are paced with
+ * {@link AdaptiveRateLimiter#acquireAsync()} before they are made.
+ */
+public final class ThrottlingInterceptor implements ExecutionInterceptor {
+
+    private static final ConcurrentMap<String, AdaptiveRateLimiter> RATE_LIMITERS = new ConcurrentHashMap<>();
+
+    private static final ExecutionAttribute<AdaptiveRateLimiter> RATE_LIMITER =
+            new ExecutionAttribute<>("AdaptiveRateLimiter");
+
+    private static final ExecutionAttribute<Long> SENT_AT = new ExecutionAttribute<>("AdaptiveRateLimiterSentAt");
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final RetryBudget retryBudget;
+
+    private final boolean adaptive;
+
+    private final boolean pacing;
+
+    public ThrottlingInterceptor(RetryBudget retryBudget, boolean adaptive) {
+        this(retryBudget, adaptive, true);
+    }
+
+    public ThrottlingInterceptor(RetryBudget retryBudget, boolean adaptive, boolean pacing) {
+        this.retryBudget = retryBudget;
+        this.adaptive = adaptive;
+        this.pacing = pacing;
+    }
+
+    public static AdaptiveRateLimiter getRateLimiter(String bucketName) {
+        return RATE_LIMITERS.computeIfAbsent(bucketName, name -> new AdaptiveRateLimiter());
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        if (this.retryBudget != null) {
+            this.retryBudget.deposit();
+        }
+        if (this.adaptive) {
+            context.request().getValueForField("Bucket", String.class).ifPresent(bucketName ->
+                    executionAttributes.putAttribute(RATE_LIMITER, getRateLimiter(bucketName)));
+        }
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        AdaptiveRateLimiter rateLimiter = executionAttributes.getAttribute(RATE_LIMITER);
+        if (rateLimiter != null) {
+            executionAttributes.putAttribute(SENT_AT, this.pacing ? rateLimiter.acquire() : System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        AdaptiveRateLimiter rateLimiter = executionAttributes.getAttribute(RATE_LIMITER);
+        if (rateLimiter != null) {
+            int statusCode = context.httpResponse().statusCode();
+            if (statusCode == SERVICE_UNAVAILABLE || statusCode == TOO_MANY_REQUESTS) {
+                rateLimiter.onThrottled(executionAttributes.getAttribute(SENT_AT));
+            } else {
+                rateLimiter.onSuccess();
+            }
+        }
+    }
+}
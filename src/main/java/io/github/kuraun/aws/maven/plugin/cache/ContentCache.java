@@ -0,0 +1,283 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.util.IOUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A size-bounded cache of downloaded objects on disk, shared by every Maven process on the host. An index file per
+ * object records the ETag it was last downloaded with, and the content is stored once per ETag, so the same artifact
+ * deployed to several repositories is only kept once. Cached copies are revalidated with <code>If-None-Match</code>
+ * before they are used.
+ * <p>
+ * Files only ever appear through atomic moves, so concurrent processes never see a partial entry. When the content
+ * exceeds the maximum size, the least recently used entries are evicted by whichever process holds the eviction lock;
+ * an index whose content has been evicted is treated as a miss. Any I/O failure of the cache itself only results in a
+ * miss.
+ */
+public final class ContentCache {
+
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".m2", "aws-maven",
+            "content-cache");
+
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+
+    private static final long STALE_TEMPORARY_FILE_AGE = TimeUnit.HOURS.toMillis(1);
+
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    private final Path indexDirectory;
+
+    private final Path contentDirectory;
+
+    private final Path lockFile;
+
+    private final long maxSize;
+
+    public ContentCache(Path directory, long maxSize) {
+        this.indexDirectory = directory.resolve("index");
+        this.contentDirectory = directory.resolve("content");
+        this.lockFile = directory.resolve("eviction.lock");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Opens the cached copy of an object
+     *
+     * @param endpoint   The endpoint the bucket is addressed through, or {@code null} for Amazon S3
+     * @param bucketName The bucket of the object
+     * @param key        The key of the object
+     * @return The cached copy, which must be closed, or {@code null} if there is none
+     */
+    public Entry get(String endpoint, String bucketName, String key) {
+        try {
+            Path index = this.indexDirectory.resolve(hash(getName(endpoint, bucketName, key)));
+            String eTag = new String(Files.readAllBytes(index), StandardCharsets.UTF_8);
+            Path content = this.contentDirectory.resolve(hash(getName(endpoint, eTag)));
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(content, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // the content has been evicted
+                Files.deleteIfExists(index);
+                return null;
+            }
+            try {
+                Files.setLastModifiedTime(content, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                // only affects the eviction order
+            }
+            return new Entry(eTag, channel);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores a downloaded object, evicting the least recently used content if the cache has grown too large
+     *
+     * @param endpoint   The endpoint the bucket is addressed through, or {@code null} for Amazon S3
+     * @param bucketName The bucket of the object
+     * @param key        The key of the object
+     * @param eTag       The ETag the object was downloaded with
+     * @param file       The downloaded object
+     */
+    public void put(String endpoint, String bucketName, String key, String eTag, Path file) {
+        try {
+            Files.createDirectories(this.indexDirectory);
+            Files.createDirectories(this.contentDirectory);
+
+            Path content = this.contentDirectory.resolve(hash(getName(endpoint, eTag)));
+            if (!Files.exists(content)) {
+                Path temporary = Files.createTempFile(this.contentDirectory, null, TEMPORARY_FILE_SUFFIX);
+                try {
+                    Files.copy(file, temporary, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(temporary, content, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+            }
+
+            Path index = this.indexDirectory.resolve(hash(getName(endpoint, bucketName, key)));
+            Path temporary = Files.createTempFile(this.indexDirectory, null, TEMPORARY_FILE_SUFFIX);
+            try {
+                Files.write(temporary, eTag.getBytes(StandardCharsets.UTF_8));
+                Files.move(temporary, index, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+
+            evict();
+        } catch (IOException e) {
+            // the object is simply not cached
+        }
+    }
+
+    void evict() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.lockFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) {
+            if (lock == null) {
+                // another process is already evicting
+                return;
+            }
+
+            List<Content> contents = new ArrayList<>();
+            long total = 0;
+            long now = System.currentTimeMillis();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(this.contentDirectory)) {
+                for (Path file : files) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (file.getFileName().toString().endsWith(TEMPORARY_FILE_SUFFIX)) {
+                        // left behind by a process that died while storing
+                        if (now - attributes.lastModifiedTime().toMillis() > STALE_TEMPORARY_FILE_AGE) {
+                            Files.deleteIfExists(file);
+                        }
+                        continue;
+                    }
+                    contents.add(new Content(file, attributes));
+                    total += attributes.size();
+                }
+            }
+            if (total <= this.maxSize) {
+                return;
+            }
+
+            contents.sort(Comparator.comparing(content -> content.accessed));
+            for (Content content : contents) {
+                if (total <= this.maxSize) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(content.path);
+                    total -= content.size;
+                } catch (IOException e) {
+                    // still open by a reader on a platform that does not allow that
+                }
+            }
+        }
+    }
+
+    private static String getName(String endpoint, String... parts) {
+        StringBuilder name = new StringBuilder(endpoint != null ? endpoint : "");
+        for (String part : parts) {
+            name.append('|').append(part);
+        }
+        return name.toString();
+    }
+
+    private static String hash(String name) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static final class Content {
+
+        private final Path path;
+
+        private final FileTime accessed;
+
+        private final long size;
+
+        private Content(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.accessed = attributes.lastModifiedTime();
+            this.size = attributes.size();
+        }
+    }
+
+    /**
+     * The cached copy of an object, held open so that it cannot be evicted while it is being read on platforms that
+     * do not allow open files to be deleted
+     */
+    public static final class Entry implements Closeable {
+
+        private final String eTag;
+
+        private final FileChannel channel;
+
+        private Entry(String eTag, FileChannel channel) {
+            this.eTag = eTag;
+            this.channel = channel;
+        }
+
+        public String getETag() {
+            return this.eTag;
+        }
+
+        /**
+         * Copies the cached copy to a file
+         *
+         * @param destination      The file to write; it is replaced
+         * @param buffer           The buffer to copy through
+         * @param transferProgress Receives every byte in order, may be {@code null}
+         * @throws IOException if the cached copy cannot be read or the destination cannot be written
+         */
+        public void copyTo(File destination, byte[] buffer, TransferProgress transferProgress) throws IOException {
+            try (FileChannel out = FileChannel.open(destination.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                this.channel.position(0);
+                // not closed here; closing the stream would close the channel
+                InputStream in = Channels.newInputStream(this.channel);
+                IOUtils.copy(in, out, 0, Long.MAX_VALUE, buffer, transferProgress);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The objects directly inside an S3 "directory" as returned by one ListObjectsV2 page, held as parallel arrays sorted
+ * by name. A complete snapshot can tell that an object does not exist; a snapshot of a truncated listing can only
+ * answer for the objects it contains.
+ */
+public final class DirectorySnapshot {
+
+    private final String[] names;
+
+    private final long[] sizes;
+
+    private final long[] lastModified;
+
+    private final String[] eTags;
+
+    private final boolean complete;
+
+    private DirectorySnapshot(List<S3Object> objects, int prefixLength, boolean complete) {
+        int count = objects.size();
+        this.names = new String[count];
+        this.sizes = new long[count];
+        this.lastModified = new long[count];
+        this.eTags = new String[count];
+        for (int i = 0; i < count; i++) {
+            S3Object object = objects.get(i);
+            this.names[i] = object.key().substring(prefixLength);
+            this.sizes[i] = object.size() != null ? object.size() : -1;
+            this.lastModified[i] = object.lastModified() != null ? object.lastModified().toEpochMilli() : -1;
+            this.eTags[i] = object.eTag();
+        }
+        this.complete = complete;
+    }
+
+    /**
+     * Creates a snapshot from a page of a delimited listing
+     *
+     * @param prefix The listed prefix, ending with a <code>/</code>
+     * @param page   The first page of the listing
+     * @return The snapshot of the objects in the page
+     */
+    public static DirectorySnapshot of(String prefix, ListObjectsV2Response page) {
+        List<S3Object> objects = new ArrayList<>(page.contents().size());
+        for (S3Object object : page.contents()) {
+            String key = object.key();
+            // the directory's own marker and anything not directly inside it
+            if (key.length() > prefix.length() && key.startsWith(prefix) && key.indexOf('/', prefix.length()) < 0) {
+                objects.add(object);
+            }
+        }
+        objects.sort(Comparator.comparing(S3Object::key));
+        return new DirectorySnapshot(objects, prefix.length(), !Boolean.TRUE.equals(page.isTruncated()));
+    }
+
+    /**
+     * Returns the metadata of an object as far as the listing reported it
+     *
+     * @param name The name of the object relative to the directory
+     * @return The size, ETag and last-modified time of the object, or {@code null} if it is not in the snapshot
+     */
+    public HeadObjectResponse get(String name) {
+        int index = Arrays.binarySearch(this.names, name);
+        if (index < 0) {
+            return null;
+        }
+        return HeadObjectResponse.builder()
+                .contentLength(this.sizes[index] >= 0 ? this.sizes[index] : null)
+                .lastModified(this.lastModified[index] >= 0 ? Instant.ofEpochMilli(this.lastModified[index]) : null)
+                .eTag(this.eTags[index])
+                .build();
+    }
+
+    /**
+     * Returns whether the listing fit into one page, so that objects missing from the snapshot do not exist
+     *
+     * @return {@code true} if the snapshot holds every object of the directory
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    public int size() {
+        return this.names.length;
+    }
+}
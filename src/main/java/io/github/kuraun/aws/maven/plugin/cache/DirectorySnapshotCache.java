@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, least-recently-used cache of {@link DirectorySnapshot}s keyed by directory prefix. Snapshots expire after
+ * a time-to-live and are invalidated when an object in their directory is written.
+ */
+public final class DirectorySnapshotCache {
+
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> entries;
+
+    private final long ttlNanos;
+
+    private long generation;
+
+    public DirectorySnapshotCache(long ttlMillis, int maxDirectories) {
+        this(ttlMillis, maxDirectories, System::nanoTime);
+    }
+
+    DirectorySnapshotCache(long ttlMillis, int maxDirectories, LongSupplier clock) {
+        this.clock = clock;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+        this.entries = new LruMap(maxDirectories);
+    }
+
+    /**
+     * Returns the cached snapshot of a directory, listing it if it is not cached or has expired
+     *
+     * @param directory The prefix of the directory
+     * @param loader    Lists the directory
+     * @return The snapshot
+     */
+    public DirectorySnapshot get(String directory, Supplier<DirectorySnapshot> loader) {
+        long generation;
+        synchronized (this) {
+            Entry entry = this.entries.get(directory);
+            if (entry != null && this.clock.getAsLong() - entry.loaded < this.ttlNanos) {
+                return entry.snapshot;
+            }
+            generation = this.generation;
+        }
+
+        long loaded = this.clock.getAsLong();
+        DirectorySnapshot snapshot = loader.get();
+        synchronized (this) {
+            // a write while the listing was in flight may have made it stale
+            if (generation == this.generation) {
+                this.entries.put(directory, new Entry(snapshot, loaded));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the cached snapshot of a directory without listing it
+     *
+     * @param directory The prefix of the directory
+     * @return The snapshot, or {@code null} if it is not cached or has expired
+     */
+    public synchronized DirectorySnapshot peek(String directory) {
+        Entry entry = this.entries.get(directory);
+        return entry != null && this.clock.getAsLong() - entry.loaded < this.ttlNanos ? entry.snapshot : null;
+    }
+
+    /**
+     * Removes the snapshot of the directory an object is written to
+     *
+     * @param key The key of the object
+     */
+    public synchronized void invalidate(String key) {
+        this.entries.remove(getDirectory(key));
+        this.generation++;
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.generation++;
+    }
+
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the prefix of the directory that contains an object
+     *
+     * @param key The key of the object
+     * @return The key up to and including its last <code>/</code>
+     */
+    public static String getDirectory(String key) {
+        return key.substring(0, key.lastIndexOf('/') + 1);
+    }
+
+    private static final class Entry {
+
+        private final DirectorySnapshot snapshot;
+
+        private final long loaded;
+
+        private Entry(DirectorySnapshot snapshot, long loaded) {
+            this.snapshot = snapshot;
+            this.loaded = loaded;
+        }
+    }
+
+    private static final class LruMap extends LinkedHashMap<String, Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > this.maxSize;
+        }
+    }
+}
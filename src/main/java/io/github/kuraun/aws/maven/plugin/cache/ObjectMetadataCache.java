@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, least-recently-used cache of HEAD results keyed by object key. Objects that do not exist (404) are cached
+ * as negative entries; any other failure is passed through uncached. Entries expire after a time-to-live, and a TTL of
+ * zero disables caching.
+ */
+public final class ObjectMetadataCache {
+
+    private static final int NOT_FOUND = 404;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> entries;
+
+    private volatile long ttlNanos;
+
+    private long generation;
+
+    public ObjectMetadataCache(long ttlMillis, int maxEntries) {
+        this(ttlMillis, maxEntries, System::nanoTime);
+    }
+
+    ObjectMetadataCache(long ttlMillis, int maxEntries, LongSupplier clock) {
+        this.clock = clock;
+        this.entries = new LruMap(maxEntries);
+        setTtl(ttlMillis);
+    }
+
+    /**
+     * Sets how long results are cached for
+     *
+     * @param ttlMillis The time-to-live in milliseconds; {@code 0} disables caching
+     */
+    public void setTtl(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+        if (this.ttlNanos == 0) {
+            clear();
+        }
+    }
+
+    /**
+     * Returns the cached metadata of an object, loading it if it is not cached or has expired
+     *
+     * @param key    The key of the object
+     * @param loader Issues the HEAD request
+     * @return The metadata, or {@code null} if the object does not exist
+     * @throws AwsServiceException if the request fails for any reason other than the object not existing
+     */
+    public HeadObjectResponse get(String key, Supplier<HeadObjectResponse> loader) {
+        long ttl = this.ttlNanos;
+        if (ttl == 0) {
+            return load(loader);
+        }
+
+        long generation;
+        synchronized (this) {
+            Entry entry = this.entries.get(key);
+            if (entry != null && this.clock.getAsLong() - entry.loaded < ttl) {
+                return entry.metadata;
+            }
+            generation = this.generation;
+        }
+
+        long loaded = this.clock.getAsLong();
+        HeadObjectResponse metadata = load(loader);
+        synchronized (this) {
+            // an invalidation while the request was in flight may have made the result stale
+            if (generation == this.generation) {
+                this.entries.put(key, new Entry(metadata, loaded));
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Returns the cached metadata of an object without loading it
+     *
+     * @param key The key of the object
+     * @return The metadata, or {@code null} if it is not cached, has expired or the object does not exist
+     */
+    public synchronized HeadObjectResponse peek(String key) {
+        Entry entry = this.entries.get(key);
+        return entry != null && this.clock.getAsLong() - entry.loaded < this.ttlNanos ? entry.metadata : null;
+    }
+
+    /**
+     * Removes an object from the cache, e.g. because it has just been written
+     *
+     * @param key The key of the object
+     */
+    public synchronized void invalidate(String key) {
+        this.entries.remove(key);
+        this.generation++;
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.generation++;
+    }
+
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    private static HeadObjectResponse load(Supplier<HeadObjectResponse> loader) {
+        try {
+            return loader.get();
+        } catch (AwsServiceException e) {
+            if (e.statusCode() == NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+
+        private final HeadObjectResponse metadata;
+
+        private final long loaded;
+
+        private Entry(HeadObjectResponse metadata, long loaded) {
+            this.metadata = metadata;
+            this.loaded = loaded;
+        }
+    }
+
+    private static final class LruMap extends LinkedHashMap<String, Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > this.maxSize;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.util.DaemonThreadFactory;
+import io.github.kuraun.aws.maven.plugin.util.IOUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Downloads objects that are likely to be requested next into a private staging directory in the background. A later
+ * request takes the staged file, waiting for the download if it is still in flight. The staged bytes are limited by a
+ * budget; unused files are evicted oldest first when the budget runs out and deleted when the prefetcher is closed.
+ */
+public final class Prefetcher implements Closeable {
+
+    private static final long SHUTDOWN_TIMEOUT = 5;
+
+    private final Path directory;
+
+    private final ExecutorService executorService;
+
+    private final long maxBytes;
+
+    private final Map<String, CompletableFuture<Entry>> entries = new LinkedHashMap<>();
+
+    private long reservedBytes;
+
+    private boolean closed;
+
+    public Prefetcher(int concurrency, long maxBytes) throws IOException {
+        this.directory = Files.createTempDirectory("aws-maven-prefetch");
+        this.executorService = Executors.newFixedThreadPool(Math.max(1, concurrency),
+                new DaemonThreadFactory("aws-maven-prefetch"));
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Starts downloading an object unless it is already staged or in flight
+     *
+     * @param key    The key of the object
+     * @param loader Downloads the object
+     */
+    public synchronized void prefetch(String key, Loader loader) {
+        if (this.closed || this.entries.containsKey(key)) {
+            return;
+        }
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        this.entries.put(key, future);
+        try {
+            this.executorService.execute(() -> load(key, loader, future));
+        } catch (RejectedExecutionException e) {
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Takes the staged download of an object, waiting for it if it is still in flight
+     *
+     * @param key The key of the object
+     * @return The staged object, to be closed once it has been copied, or {@code null} if the object was not
+     * prefetched or its download failed
+     */
+    public Entry take(String key) {
+        CompletableFuture<Entry> future;
+        synchronized (this) {
+            future = this.entries.remove(key);
+        }
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.thenAccept(IOUtils::closeQuietly);
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Drops the staged download of an object, e.g. because the object has just been written
+     *
+     * @param key The key of the object
+     */
+    public void discard(String key) {
+        CompletableFuture<Entry> future;
+        synchronized (this) {
+            future = this.entries.remove(key);
+        }
+        if (future != null) {
+            future.thenAccept(IOUtils::closeQuietly);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        List<CompletableFuture<Entry>> futures;
+        synchronized (this) {
+            this.closed = true;
+            futures = new ArrayList<>(this.entries.values());
+            this.entries.clear();
+        }
+        this.executorService.shutdownNow();
+        try {
+            this.executorService.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (CompletableFuture<Entry> future : futures) {
+            future.thenAccept(IOUtils::closeQuietly);
+        }
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Iterator<Path> iterator = files.iterator(); iterator.hasNext(); ) {
+                Files.deleteIfExists(iterator.next());
+            }
+        }
+        Files.deleteIfExists(this.directory);
+    }
+
+    synchronized long getReservedBytes() {
+        return this.reservedBytes;
+    }
+
+    private void load(String key, Loader loader, CompletableFuture<Entry> future) {
+        Reservation reservation = new Reservation();
+        Path file = null;
+        Entry entry = null;
+        try {
+            file = Files.createTempFile(this.directory, "prefetch-", null);
+            String eTag = loader.load(key, file, reservation);
+            if (reservation.bytes >= 0) {
+                entry = new Entry(file, reservation.bytes, eTag, false);
+            }
+        } catch (FileNotFoundException e) {
+            entry = new Entry(null, 0, null, true);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            if (entry == null || entry.file == null) {
+                release(reservation.bytes);
+                if (file != null) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        // removed with the directory at the latest
+                    }
+                }
+            }
+        }
+        future.complete(entry);
+    }
+
+    private synchronized boolean reserve(long bytes) {
+        if (this.closed || bytes > this.maxBytes) {
+            return false;
+        }
+        // staged files nobody asked for make room for new ones, oldest first
+        Iterator<CompletableFuture<Entry>> iterator = this.entries.values().iterator();
+        while (this.reservedBytes + bytes > this.maxBytes && iterator.hasNext()) {
+            CompletableFuture<Entry> future = iterator.next();
+            Entry entry = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+            if (entry != null && entry.file != null) {
+                iterator.remove();
+                IOUtils.closeQuietly(entry);
+            }
+        }
+        if (this.reservedBytes + bytes > this.maxBytes) {
+            return false;
+        }
+        this.reservedBytes += bytes;
+        return true;
+    }
+
+    private synchronized void release(long bytes) {
+        if (bytes > 0) {
+            this.reservedBytes -= bytes;
+        }
+    }
+
+    /**
+     * Downloads an object into a staging file
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Downloads an object into a staging file, provided the budget has room for it
+         *
+         * @param key    The key of the object
+         * @param file   The staging file to write
+         * @param budget Reserves the size of the object; the object must not be written if this returns {@code false}
+         * @return The ETag of the object
+         * @throws FileNotFoundException if the object does not exist
+         * @throws IOException           if the download fails
+         */
+        String load(String key, Path file, LongPredicate budget) throws IOException;
+    }
+
+    /**
+     * A staged object, or the knowledge that the object does not exist
+     */
+    public final class Entry implements Closeable {
+
+        private final Path file;
+
+        private final long size;
+
+        private final String eTag;
+
+        private final boolean missing;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Entry(Path file, long size, String eTag, boolean missing) {
+            this.file = file;
+            this.size = size;
+            this.eTag = eTag;
+            this.missing = missing;
+        }
+
+        public boolean isMissing() {
+            return this.missing;
+        }
+
+        public String getETag() {
+            return this.eTag;
+        }
+
+        /**
+         * Copies the staged object to its destination, reporting every byte as progress
+         *
+         * @param destination      The file to write
+         * @param buffer           The buffer to copy through
+         * @param transferProgress Notified of the bytes copied
+         * @throws IOException if the copy fails
+         */
+        public void copyTo(File destination, byte[] buffer, TransferProgress transferProgress) throws IOException {
+            try (InputStream in = Files.newInputStream(this.file);
+                 FileChannel out = FileChannel.open(destination.toPath(), StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                IOUtils.copy(in, out, 0, Long.MAX_VALUE, buffer, transferProgress);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.file != null && this.closed.compareAndSet(false, true)) {
+                release(this.size);
+                Files.deleteIfExists(this.file);
+            }
+        }
+    }
+
+    private final class Reservation implements LongPredicate {
+
+        private long bytes = -1;
+
+        @Override
+        public boolean test(long bytes) {
+            if (this.bytes < 0 && reserve(bytes)) {
+                this.bytes = bytes;
+                return true;
+            }
+            return false;
+        }
+    }
+}
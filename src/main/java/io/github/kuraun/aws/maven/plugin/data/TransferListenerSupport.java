@@ -45,6 +45,14 @@ public interface TransferListenerSupport {
      */
     boolean hasTransferListener(TransferListener transferListener);
 
+    /**
+     * Returns whether any {@link TransferListener}s are registered, so that callers can skip preparing events nobody
+     * will receive
+     *
+     * @return {@code true} if at least one {@link TransferListener} is registered, otherwise {@code false}
+     */
+    boolean hasTransferListeners();
+
     /**
      * Notify {@link TransferListener}s that a transfer is being initiated
      *
@@ -19,10 +19,27 @@ package io.github.kuraun.aws.maven.plugin.data;
 public interface TransferProgress {
 
     /**
-     * Notify that transfer progress has occurred
+     * Notify that transfer progress has occurred. The buffer is only valid for the duration of the call.
      *
      * @param buffer The bytes transferred
+     * @param offset The offset of the first transferred byte in the buffer
+     * @param length The length of the bytes transferred
+     */
+    void notify(byte[] buffer, int offset, int length);
+
+    /**
+     * Notify that transfer progress has occurred
+     *
+     * @param buffer The bytes transferred, starting at offset 0
      * @param length The length of the bytes transferred
      */
-    void notify(byte[] buffer, int length);
+    default void notify(byte[] buffer, int length) {
+        notify(buffer, 0, length);
+    }
+
+    /**
+     * Deliver any progress that has been held back for coalescing
+     */
+    default void flush() {
+    }
 }
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.aws.AdaptiveRateLimiter;
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.util.CompressionUtils;
+import io.github.kuraun.aws.maven.plugin.util.IOUtils;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads an object with an {@link S3AsyncClient}, writing through an {@link AsynchronousFileChannel}. It follows
+ * the same scheme as {@link RangedDownload}: the first range reveals the object size, and the remaining ranges are
+ * fetched with up to <code>maxConcurrency</code> requests in flight. Each range continues from the completion of the
+ * previous one, so no thread waits for the network or the disk while the download runs.
+ * <p>
+ * Only the first range is reported as it arrives; the other ranges are read back from the destination, in file order,
+ * once the whole object has been written. If any request fails, no further ranges are started and the future fails
+ * once the requests in flight have settled. An {@link AdaptiveRateLimiter} can pace the requests.
+ * <p>
+ * Whether an object is gzip-encoded is decided from the <code>Content-Encoding</code> of the first response. The
+ * stored bytes of such an object are downloaded the same way and then decoded in the destination, and only the
+ * decoded bytes are reported.
+ */
+public final class AsyncDownload {
+
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
+    private final S3AsyncClient amazonS3;
+
+    private final long partSize;
+
+    private final int maxConcurrency;
+
+    private final int bufferSize;
+
+    private final boolean preallocate;
+
+    private final AdaptiveRateLimiter rateLimiter;
+
+    public AsyncDownload(S3AsyncClient amazonS3, long partSize, int maxConcurrency, int bufferSize,
+                         boolean preallocate) {
+        this(amazonS3, partSize, maxConcurrency, bufferSize, preallocate, null);
+    }
+
+    public AsyncDownload(S3AsyncClient amazonS3, long partSize, int maxConcurrency, int bufferSize,
+                         boolean preallocate, AdaptiveRateLimiter rateLimiter) {
+        this.amazonS3 = amazonS3;
+        this.partSize = partSize;
+        this.maxConcurrency = maxConcurrency;
+        this.bufferSize = bufferSize;
+        this.preallocate = preallocate;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Starts downloading an object into a file
+     *
+     * @param bucketName       The bucket of the object
+     * @param key              The key of the object
+     * @param destination      The file to write; it is replaced
+     * @param transferProgress Receives every byte of the object in order
+     * @return A future that completes once the whole object has been written and reported
+     * @throws IOException If the destination cannot be opened
+     */
+    public CompletableFuture<Void> download(String bucketName, String key, File destination,
+                                            TransferProgress transferProgress) throws IOException {
+        return download(bucketName, key, null, null, destination, transferProgress).thenApply(eTag -> null);
+    }
+
+    /**
+     * Starts downloading an object into a file unless it still has a known ETag or has not been modified since a point
+     * in time. The destination is only truncated once the object has been downloaded, so it is left untouched if a
+     * precondition prevents the download, and it is deleted again if this call created it and the download fails.
+     *
+     * @param bucketName       The bucket of the object
+     * @param key              The key of the object
+     * @param ifNoneMatch      The ETag of a copy that is already available, or {@code null}
+     * @param ifModifiedSince  The time of a copy that is already available, or {@code null}
+     * @param destination      The file to write; it is replaced
+     * @param transferProgress Receives every byte of the object in order
+     * @return A future of the ETag of the object, or of {@code null} if it is empty; it fails with a status 304
+     * {@link AwsServiceException} if a precondition prevented the download
+     * @throws IOException If the destination cannot be opened
+     */
+    public CompletableFuture<String> download(String bucketName, String key, String ifNoneMatch,
+                                              Instant ifModifiedSince, File destination,
+                                              TransferProgress transferProgress) throws IOException {
+        // the channel is opened before the request is sent, so a destination it creates is removed on failure
+        boolean existed = destination.exists();
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(destination.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucketName).key(key)
+                .ifNoneMatch(ifNoneMatch).ifModifiedSince(ifModifiedSince);
+        if (this.partSize > 0) {
+            request.range(range(0, this.partSize));
+        }
+        PlainTransferProgress firstProgress = new PlainTransferProgress(transferProgress);
+        FileChannelResponseTransformer<GetObjectResponse> first = new FileChannelResponseTransformer<>(channel, 0,
+                firstProgress);
+        firstProgress.response = first.response();
+        CompletableFuture<GetObjectResponse> firstBody = AdaptiveRateLimiter.paced(this.rateLimiter,
+                () -> this.amazonS3.getObject(request.build(), first));
+        firstBody.whenComplete((response, failure) -> {
+            if (failure != null) {
+                // a failed request may never deliver headers
+                first.response().completeExceptionally(failure);
+            }
+        });
+
+        // the remaining ranges start as soon as the headers of the first one arrive
+        CompletableFuture<Long> remaining = first.response().thenCompose(response -> {
+            long total = RangedDownload.getTotalLength(response.contentRange());
+            if (total == -1 || total <= this.partSize) {
+                return CompletableFuture.completedFuture(total);
+            }
+            return preallocate(channel, total)
+                    .thenCompose(ignored -> downloadRanges(bucketName, key, response.eTag(), channel, total,
+                            firstBody))
+                    .thenApply(ignored -> total);
+        });
+
+        // completes with the length of the content once it is in the destination
+        CompletableFuture<Long> download = CompletableFuture.allOf(firstBody, remaining).thenCompose(ignored -> {
+            long total = remaining.join();
+            long expected = total == -1 ? first.getBytesWritten() : Math.min(this.partSize, total);
+            if (first.getBytesWritten() < expected) {
+                throw new CompletionException(new EOFException(String.format(
+                        "Expected %d bytes at offset 0 but received %d", expected, first.getBytesWritten())));
+            }
+            long length = total == -1 ? first.getBytesWritten() : total;
+            if (CompressionUtils.isGzip(first.response().join().contentEncoding())) {
+                return decode(destination, length, transferProgress);
+            }
+            if (total <= this.partSize) {
+                return CompletableFuture.completedFuture(length);
+            }
+            return replay(channel, this.partSize, total, new byte[this.bufferSize], transferProgress)
+                    .thenApply(replayed -> length);
+        });
+
+        return download.handle((result, failure) -> {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            // S3 rejects every range of an empty object
+            boolean empty = cause instanceof AwsServiceException
+                    && ((AwsServiceException) cause).statusCode() == RANGE_NOT_SATISFIABLE;
+            if (cause == null || empty) {
+                try {
+                    channel.truncate(empty ? 0 : result);
+                } catch (IOException e) {
+                    cause = e;
+                    empty = false;
+                }
+            }
+            closeQuietly(channel, cause);
+            if (empty) {
+                return null;
+            }
+            if (cause != null) {
+                if (!existed) {
+                    deleteQuietly(destination, cause);
+                }
+                throw new CompletionException(cause);
+            }
+            return first.response().join().eTag();
+        });
+    }
+
+    /**
+     * Replaces the gzip-encoded content at the start of the destination with the decoded content, reporting the
+     * decoded bytes. Inflating blocks, so it runs on the common pool rather than on the threads that complete requests.
+     */
+    private CompletableFuture<Long> decode(File destination, long length, TransferProgress transferProgress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Path decoded = Files.createTempFile("aws-maven-", null);
+                try {
+                    byte[] buffer = new byte[this.bufferSize];
+                    // only the decoded bytes are reported
+                    TransferProgress unreported = (bytes, offset, count) -> { };
+                    long decodedLength;
+                    try (FileChannel in = FileChannel.open(destination.toPath(), StandardOpenOption.READ);
+                         InputStream encoded = CompressionUtils.decode(new FileRegionInputStream(in, 0, length,
+                                 unreported), CompressionUtils.GZIP, this.bufferSize);
+                         FileChannel out = FileChannel.open(decoded, StandardOpenOption.WRITE)) {
+                        decodedLength = IOUtils.copy(encoded, out, 0, Long.MAX_VALUE, buffer, transferProgress);
+                    }
+                    try (InputStream in = Files.newInputStream(decoded);
+                         FileChannel out = FileChannel.open(destination.toPath(), StandardOpenOption.WRITE)) {
+                        IOUtils.copy(in, out, 0, Long.MAX_VALUE, buffer, null);
+                    }
+                    return decodedLength;
+                } finally {
+                    Files.deleteIfExists(decoded);
+                }
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private CompletableFuture<Void> preallocate(AsynchronousFileChannel channel, long total) {
+        if (!this.preallocate) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Integer> write = new CompletableFuture<>();
+        channel.write(ByteBuffer.wrap(new byte[1]), total - 1, null, completing(write));
+        return write.thenApply(count -> null);
+    }
+
+    private CompletableFuture<Void> downloadRanges(String bucketName, String key, String eTag,
+                                                   AsynchronousFileChannel channel, long total,
+                                                   CompletableFuture<?> first) {
+        AtomicLong next = new AtomicLong(this.partSize);
+        long ranges = (total - 1) / this.partSize;
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[(int) Math.min(this.maxConcurrency, ranges)];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = downloadNext(bucketName, key, eTag, channel, total, next, first)
+                    .whenComplete((result, failure) -> {
+                        if (failure != null) {
+                            // stop the other lanes from starting further ranges
+                            next.set(total);
+                        }
+                    });
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    private CompletableFuture<Void> downloadNext(String bucketName, String key, String eTag,
+                                                 AsynchronousFileChannel channel, long total, AtomicLong next,
+                                                 CompletableFuture<?> first) {
+        long start = next.getAndAdd(this.partSize);
+        if (start >= total || first.isCompletedExceptionally()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long length = Math.min(this.partSize, total - start);
+        FileChannelResponseTransformer<GetObjectResponse> transformer = new FileChannelResponseTransformer<>(channel,
+                start, null);
+        return AdaptiveRateLimiter.paced(this.rateLimiter, () -> this.amazonS3.getObject(GetObjectRequest.builder()
+                .bucket(bucketName).key(key).range(range(start, length)).ifMatch(eTag).build(), transformer))
+                .thenCompose(response -> {
+                    if (transformer.getBytesWritten() < length) {
+                        throw new CompletionException(new EOFException(String.format(
+                                "Expected %d bytes at offset %d but received %d", length, start,
+                                transformer.getBytesWritten())));
+                    }
+                    return downloadNext(bucketName, key, eTag, channel, total, next, first);
+                });
+    }
+
+    private CompletableFuture<Void> replay(AsynchronousFileChannel channel, long position, long end, byte[] buffer,
+                                           TransferProgress transferProgress) {
+        if (position >= end) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Integer> read = new CompletableFuture<>();
+        channel.read(ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, end - position)), position, null,
+                completing(read));
+        return read.thenCompose(count -> {
+            if (count == -1) {
+                throw new CompletionException(new EOFException(String.format("Destination ended at offset %d",
+                        position)));
+            }
+            transferProgress.notify(buffer, 0, count);
+            return replay(channel, position + count, end, buffer, transferProgress);
+        });
+    }
+
+    /**
+     * Passes the bytes of the first range on as they arrive unless the object is gzip-encoded, as those are only
+     * reported once they have been decoded. Bytes only arrive after the headers, so the response is known by then.
+     */
+    private static final class PlainTransferProgress implements TransferProgress {
+
+        private final TransferProgress transferProgress;
+
+        private volatile CompletableFuture<GetObjectResponse> response;
+
+        private PlainTransferProgress(TransferProgress transferProgress) {
+            this.transferProgress = transferProgress;
+        }
+
+        @Override
+        public void notify(byte[] buffer, int offset, int length) {
+            if (!CompressionUtils.isGzip(this.response.join().contentEncoding())) {
+                this.transferProgress.notify(buffer, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() {
+            this.transferProgress.flush();
+        }
+    }
+
+    private static CompletionHandler<Integer, Void> completing(CompletableFuture<Integer> future) {
+        return new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer result, Void attachment) {
+                future.complete(result);
+            }
+
+            @Override
+            public void failed(Throwable exception, Void attachment) {
+                future.completeExceptionally(exception);
+            }
+        };
+    }
+
+    private static String range(long start, long length) {
+        return String.format("bytes=%d-%d", start, start + length - 1);
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel, Throwable failure) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (failure != null) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private static void deleteQuietly(File file, Throwable failure) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.aws.AdaptiveRateLimiter;
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.util.DigestUtils;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.ServerSideEncryption;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Uploads a file with an {@link S3AsyncClient}, reading it through an {@link AsynchronousFileChannel}. Files above the
+ * multipart threshold are uploaded in parts with up to <code>maxConcurrency</code> parts in flight; each part starts
+ * from the completion of the previous one, so no thread waits while the upload runs. If any part fails, no further
+ * parts are started and the upload is aborted once the parts in flight have settled. The MD5 digest of every part can
+ * be computed while it is streamed and checked against the ETag S3 returns for it; a file sent with a single request
+ * is checked by the SDK, and deleted if S3 stored different content.
+ * <p>
+ * Like {@link AsyncDownload}, only the first part is reported as it is streamed. The other parts are read back from
+ * the file and reported in file order once every part has been uploaded.
+ * <p>
+ * Optionally the file is memory-mapped instead, and each request body publishes slices of the mapping of its part
+ * rather than reading the file onto the heap. An {@link AdaptiveRateLimiter} can pace the requests that carry the file.
+ */
+public final class AsyncUpload {
+
+    private static final TransferProgress UNREPORTED = (buffer, offset, length) -> {
+    };
+
+    private final S3AsyncClient amazonS3;
+
+    private final long multipartThreshold;
+
+    private final long partSize;
+
+    private final int maxConcurrency;
+
+    private final int bufferSize;
+
+    private final boolean verifyChecksums;
+
+    private final boolean memoryMapped;
+
+    private final AdaptiveRateLimiter rateLimiter;
+
+    public AsyncUpload(S3AsyncClient amazonS3, long multipartThreshold, long partSize, int maxConcurrency,
+                       int bufferSize) {
+        this(amazonS3, multipartThreshold, partSize, maxConcurrency, bufferSize, false);
+    }
+
+    public AsyncUpload(S3AsyncClient amazonS3, long multipartThreshold, long partSize, int maxConcurrency,
+                       int bufferSize, boolean verifyChecksums) {
+        this(amazonS3, multipartThreshold, partSize, maxConcurrency, bufferSize, verifyChecksums, false);
+    }
+
+    public AsyncUpload(S3AsyncClient amazonS3, long multipartThreshold, long partSize, int maxConcurrency,
+                       int bufferSize, boolean verifyChecksums, boolean memoryMapped) {
+        this(amazonS3, multipartThreshold, partSize, maxConcurrency, bufferSize, verifyChecksums, memoryMapped, null);
+    }
+
+    public AsyncUpload(S3AsyncClient amazonS3, long multipartThreshold, long partSize, int maxConcurrency,
+                       int bufferSize, boolean verifyChecksums, boolean memoryMapped,
+                       AdaptiveRateLimiter rateLimiter) {
+        this.amazonS3 = amazonS3;
+        this.multipartThreshold = multipartThreshold;
+        this.partSize = partSize;
+        this.maxConcurrency = maxConcurrency;
+        this.bufferSize = bufferSize;
+        this.verifyChecksums = verifyChecksums;
+        this.memoryMapped = memoryMapped;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Starts uploading a file
+     *
+     * @param bucketName       The bucket to upload to
+     * @param key              The key to upload to
+     * @param source           The file to upload
+     * @param transferProgress Receives every byte of the file in order
+     * @return A future that completes once the object has been written
+     * @throws IOException If the source cannot be opened
+     */
+    public CompletableFuture<Void> upload(String bucketName, String key, File source,
+                                          TransferProgress transferProgress) throws IOException {
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(source.toPath(), StandardOpenOption.READ);
+        FileChannel mappable;
+        try {
+            mappable = this.memoryMapped ? FileChannel.open(source.toPath(), StandardOpenOption.READ) : null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        long contentLength = channel.size();
+
+        CompletableFuture<Void> upload;
+        if (contentLength > this.multipartThreshold) {
+            upload = uploadMultipart(bucketName, key, channel, mappable, contentLength, transferProgress);
+        } else {
+            // the SDK checks the MD5 of a single PUT against its ETag when the client validates checksums
+            upload = AdaptiveRateLimiter.paced(this.rateLimiter, () -> this.amazonS3.putObject(
+                    PutObjectRequest.builder().bucket(bucketName).key(key).build(),
+                    body(channel, mappable, 0, contentLength, transferProgress)))
+                    .handle((response, failure) -> failure)
+                    .thenCompose(failure -> failure == null ? CompletableFuture.<Void>completedFuture(null)
+                            : delete(bucketName, key, failure));
+        }
+
+        return upload.whenComplete((result, failure) -> {
+            try {
+                channel.close();
+                if (mappable != null) {
+                    // mappings stay valid until they are garbage collected
+                    mappable.close();
+                }
+            } catch (IOException e) {
+                if (failure != null) {
+                    failure.addSuppressed(e);
+                }
+            }
+        });
+    }
+
+    private AsyncRequestBody body(AsynchronousFileChannel channel, FileChannel mappable, long start, long length,
+                                  TransferProgress transferProgress) {
+        if (mappable != null && length <= Integer.MAX_VALUE) {
+            try {
+                return new MappedRegionAsyncRequestBody(mappable, start, length, this.bufferSize, transferProgress);
+            } catch (IOException e) {
+                // e.g. out of address space; positional reads work regardless
+            }
+        }
+        return new FileRegionAsyncRequestBody(channel, start, length, this.bufferSize, transferProgress);
+    }
+
+    private CompletableFuture<Void> uploadMultipart(String bucketName, String key, AsynchronousFileChannel channel,
+                                                    FileChannel mappable, long contentLength,
+                                                    TransferProgress transferProgress) {
+        long size = MultipartUpload.getPartSize(contentLength, this.partSize);
+        int parts = (int) ((contentLength + size - 1) / size);
+
+        return this.amazonS3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName).key(key).build()).thenCompose(created -> {
+                    String uploadId = created.uploadId();
+                    AtomicInteger next = new AtomicInteger(1);
+                    AtomicReferenceArray<CompletedPart> completed = new AtomicReferenceArray<>(parts);
+                    CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(this.maxConcurrency, parts)];
+                    for (int i = 0; i < lanes.length; i++) {
+                        lanes[i] = uploadNext(bucketName, key, uploadId, channel, mappable, contentLength, size,
+                                next, completed, transferProgress).whenComplete((result, failure) -> {
+                                    if (failure != null) {
+                                        // stop the other lanes from starting further parts
+                                        next.set(parts + 1);
+                                    }
+                                });
+                    }
+
+                    return CompletableFuture.allOf(lanes)
+                            .thenCompose(ignored -> replay(channel, size, contentLength, new byte[this.bufferSize],
+                                    transferProgress))
+                            .thenCompose(ignored -> {
+                                CompletedPart[] list = new CompletedPart[parts];
+                                for (int i = 0; i < parts; i++) {
+                                    list[i] = completed.get(i);
+                                }
+                                return this.amazonS3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                                        .bucket(bucketName).key(key).uploadId(uploadId)
+                                        .multipartUpload(CompletedMultipartUpload.builder().parts(list).build())
+                                        .build());
+                            })
+                            .handle((response, failure) -> failure)
+                            .thenCompose(failure -> failure == null ? CompletableFuture.<Void>completedFuture(null)
+                                    : abort(bucketName, key, uploadId, failure));
+                });
+    }
+
+    private CompletableFuture<Void> uploadNext(String bucketName, String key, String uploadId,
+                                               AsynchronousFileChannel channel, FileChannel mappable,
+                                               long contentLength, long size, AtomicInteger next,
+                                               AtomicReferenceArray<CompletedPart> completed,
+                                               TransferProgress transferProgress) {
+        int partNumber = next.getAndIncrement();
+        if (partNumber > completed.length()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = (partNumber - 1) * size;
+        long length = Math.min(size, contentLength - start);
+        TransferProgress progress = partNumber == 1 ? transferProgress : UNREPORTED;
+        DigestTransferProgress digest = this.verifyChecksums ? new DigestTransferProgress(progress) : null;
+        return AdaptiveRateLimiter.paced(this.rateLimiter, () -> this.amazonS3.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucketName).key(key).uploadId(uploadId).partNumber(partNumber).contentLength(length)
+                        .build(), body(channel, mappable, start, length, digest != null ? digest : progress)))
+                .thenCompose(response -> {
+                    if (digest != null) {
+                        verify(digest, response.eTag(), response.serverSideEncryption(),
+                                response.sseCustomerAlgorithm());
+                    }
+                    completed.set(partNumber - 1, CompletedPart.builder().partNumber(partNumber)
+                            .eTag(response.eTag()).build());
+                    return uploadNext(bucketName, key, uploadId, channel, mappable, contentLength, size, next,
+                            completed, transferProgress);
+                });
+    }
+
+    private static CompletableFuture<Void> replay(AsynchronousFileChannel channel, long position, long end,
+                                                  byte[] buffer, TransferProgress transferProgress) {
+        if (position >= end) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Integer> read = new CompletableFuture<>();
+        channel.read(ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, end - position)), position, null,
+                new CompletionHandler<Integer, Void>() {
+                    @Override
+                    public void completed(Integer result, Void attachment) {
+                        read.complete(result);
+                    }
+
+                    @Override
+                    public void failed(Throwable exception, Void attachment) {
+                        read.completeExceptionally(exception);
+                    }
+                });
+        return read.thenCompose(count -> {
+            if (count == -1) {
+                throw new CompletionException(new EOFException(String.format("Source ended at offset %d",
+                        position)));
+            }
+            transferProgress.notify(buffer, 0, count);
+            return replay(channel, position + count, end, buffer, transferProgress);
+        });
+    }
+
+    private static void verify(DigestTransferProgress digest, String eTag, ServerSideEncryption serverSideEncryption,
+                               String sseCustomerAlgorithm) {
+        try {
+            digest.verify(eTag, serverSideEncryption, sseCustomerAlgorithm);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    // the PUT has replaced the object already, so the corrupt copy must not be left in its place
+    private CompletableFuture<Void> delete(String bucketName, String key, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (!DigestUtils.isChecksumMismatch(cause)) {
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(cause);
+            return failed;
+        }
+        IOException mismatch = new IOException(String.format("Checksum mismatch: S3 stored different content for "
+                + "'%s' than was sent", key), cause);
+        return this.amazonS3.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(key).build())
+                .handle((response, deleteFailure) -> {
+                    if (deleteFailure != null) {
+                        mismatch.addSuppressed(deleteFailure);
+                    }
+                    throw new CompletionException(mismatch);
+                });
+    }
+
+    private CompletableFuture<Void> abort(String bucketName, String key, String uploadId, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        return this.amazonS3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucketName).key(key).uploadId(uploadId).build())
+                .handle((response, abortFailure) -> {
+                    if (abortFailure != null) {
+                        cause.addSuppressed(abortFailure);
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+}
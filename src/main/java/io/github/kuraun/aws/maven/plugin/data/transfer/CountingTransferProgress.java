@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes reported to a {@link TransferProgress}, so that a download knows whether it has already passed
+ * anything on and can no longer be started over elsewhere
+ */
+public final class CountingTransferProgress implements TransferProgress {
+
+    private final TransferProgress transferProgress;
+
+    private final AtomicLong count = new AtomicLong();
+
+    public CountingTransferProgress(TransferProgress transferProgress) {
+        this.transferProgress = transferProgress;
+    }
+
+    @Override
+    public void notify(byte[] buffer, int offset, int length) {
+        this.count.addAndGet(length);
+        this.transferProgress.notify(buffer, offset, length);
+    }
+
+    @Override
+    public void flush() {
+        this.transferProgress.flush();
+    }
+
+    public long getCount() {
+        return this.count.get();
+    }
+}
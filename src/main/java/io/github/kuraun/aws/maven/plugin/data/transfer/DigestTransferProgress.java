@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.util.DigestUtils;
+import software.amazon.awssdk.services.s3.model.ServerSideEncryption;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+
+/**
+ * Computes the MD5 digest of an upload from its progress notifications, i.e. in the same pass that streams the bytes
+ * to S3, and checks it against the ETag S3 returns. This relies on the request bodies reporting every byte exactly
+ * once and in order, which {@link FileRegionInputStream} and {@link FileRegionAsyncRequestBody} guarantee even when
+ * the SDK replays them on retry.
+ */
+public final class DigestTransferProgress implements TransferProgress {
+
+    private final TransferProgress transferProgress;
+
+    private final MessageDigest digest = DigestUtils.newMd5();
+
+    public DigestTransferProgress(TransferProgress transferProgress) {
+        this.transferProgress = transferProgress;
+    }
+
+    @Override
+    public void notify(byte[] buffer, int offset, int length) {
+        this.digest.update(buffer, offset, length);
+        this.transferProgress.notify(buffer, offset, length);
+    }
+
+    @Override
+    public void flush() {
+        this.transferProgress.flush();
+    }
+
+    /**
+     * Checks the bytes that have been reported against the ETag S3 returned for them
+     *
+     * @param eTag                 The ETag of the object or part
+     * @param serverSideEncryption The encryption of the object; ETags of objects encrypted with KMS are no digests
+     * @param sseCustomerAlgorithm The algorithm of a customer-provided key, whose ETags are no digests either
+     * @throws IOException if the ETag is a digest and differs from the digest of the reported bytes
+     */
+    public void verify(String eTag, ServerSideEncryption serverSideEncryption, String sseCustomerAlgorithm)
+            throws IOException {
+        if (eTag == null || serverSideEncryption == ServerSideEncryption.AWS_KMS || sseCustomerAlgorithm != null) {
+            return;
+        }
+        String expected = DigestUtils.toHex(this.digest.digest());
+        String actual = DigestUtils.unquote(eTag);
+        if (!expected.equalsIgnoreCase(actual)) {
+            throw new IOException(String.format("Checksum mismatch: sent content with MD5 %s but S3 stored %s",
+                    expected, actual));
+        }
+    }
+}
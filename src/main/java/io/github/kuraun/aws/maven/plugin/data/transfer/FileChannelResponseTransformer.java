@@ -0,0 +1,215 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes a response body into an {@link AsynchronousFileChannel} starting at a given offset. One chunk is requested
+ * at a time, and the next only once the previous one has been written, so a slow disk applies back-pressure to the
+ * connection instead of buffering the body on the heap. The future completes with the response once every byte has
+ * been written; {@link #response()} completes as soon as the headers arrive.
+ * <p>
+ * Chunks are reported to the {@link TransferProgress}, if any, in order as they arrive. If the SDK retries the
+ * request, bytes that were already reported are not reported again.
+ *
+ * @param <ResponseT> The type of the response
+ */
+public final class FileChannelResponseTransformer<ResponseT> implements AsyncResponseTransformer<ResponseT, ResponseT> {
+
+    private final AsynchronousFileChannel channel;
+
+    private final long start;
+
+    private final TransferProgress transferProgress;
+
+    private final CompletableFuture<ResponseT> response = new CompletableFuture<>();
+
+    private volatile CompletableFuture<ResponseT> future;
+
+    private volatile ResponseT received;
+
+    private volatile long written;
+
+    private long reported;
+
+    private byte[] scratch;
+
+    public FileChannelResponseTransformer(AsynchronousFileChannel channel, long start,
+                                          TransferProgress transferProgress) {
+        this.channel = channel;
+        this.start = start;
+        this.transferProgress = transferProgress;
+    }
+
+    /**
+     * Returns a future that completes with the response as soon as its headers have been received
+     *
+     * @return The response future
+     */
+    public CompletableFuture<ResponseT> response() {
+        return this.response;
+    }
+
+    /**
+     * Returns the number of bytes written by the latest attempt
+     *
+     * @return The number of bytes written
+     */
+    public long getBytesWritten() {
+        return this.written;
+    }
+
+    @Override
+    public CompletableFuture<ResponseT> prepare() {
+        this.future = new CompletableFuture<>();
+        this.written = 0;
+        return this.future;
+    }
+
+    @Override
+    public void onResponse(ResponseT response) {
+        this.received = response;
+        this.response.complete(response);
+    }
+
+    @Override
+    public void onStream(SdkPublisher<ByteBuffer> publisher) {
+        publisher.subscribe(new WritingSubscriber(this.future));
+    }
+
+    @Override
+    public void exceptionOccurred(Throwable throwable) {
+        this.response.completeExceptionally(throwable);
+        CompletableFuture<ResponseT> current = this.future;
+        if (current != null) {
+            current.completeExceptionally(throwable);
+        }
+    }
+
+    private void report(ByteBuffer chunk, long offset) {
+        if (this.transferProgress == null) {
+            return;
+        }
+        long end = offset + chunk.remaining();
+        if (end <= this.reported) {
+            return;
+        }
+
+        int skip = (int) Math.max(0, this.reported - offset);
+        int length = chunk.remaining() - skip;
+        if (chunk.hasArray()) {
+            this.transferProgress.notify(chunk.array(), chunk.arrayOffset() + chunk.position() + skip, length);
+        } else {
+            if (this.scratch == null || this.scratch.length < length) {
+                this.scratch = new byte[length];
+            }
+            ByteBuffer view = chunk.duplicate();
+            view.position(view.position() + skip);
+            view.get(this.scratch, 0, length);
+            this.transferProgress.notify(this.scratch, 0, length);
+        }
+        this.reported = end;
+    }
+
+    private final class WritingSubscriber implements Subscriber<ByteBuffer>, CompletionHandler<Integer, ByteBuffer> {
+
+        private final CompletableFuture<ResponseT> future;
+
+        private Subscription subscription;
+
+        private boolean writing;
+
+        private boolean completed;
+
+        private WritingSubscriber(CompletableFuture<ResponseT> future) {
+            this.future = future;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer chunk) {
+            report(chunk, FileChannelResponseTransformer.this.written);
+            synchronized (this) {
+                this.writing = true;
+            }
+            write(chunk);
+        }
+
+        private void write(ByteBuffer chunk) {
+            FileChannelResponseTransformer.this.channel.write(chunk,
+                    FileChannelResponseTransformer.this.start + FileChannelResponseTransformer.this.written,
+                    chunk, this);
+        }
+
+        @Override
+        public void completed(Integer count, ByteBuffer chunk) {
+            FileChannelResponseTransformer.this.written += count;
+            if (chunk.hasRemaining()) {
+                write(chunk);
+                return;
+            }
+
+            boolean complete;
+            synchronized (this) {
+                this.writing = false;
+                complete = this.completed;
+            }
+            if (complete) {
+                this.future.complete(FileChannelResponseTransformer.this.received);
+            } else {
+                this.subscription.request(1);
+            }
+        }
+
+        @Override
+        public void failed(Throwable exception, ByteBuffer chunk) {
+            this.subscription.cancel();
+            this.future.completeExceptionally(exception);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.future.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            boolean complete;
+            synchronized (this) {
+                this.completed = true;
+                complete = !this.writing;
+            }
+            if (complete) {
+                this.future.complete(FileChannelResponseTransformer.this.received);
+            }
+        }
+    }
+}
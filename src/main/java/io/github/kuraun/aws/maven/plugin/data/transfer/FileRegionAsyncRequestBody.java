@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes a region of an {@link AsynchronousFileChannel} as a request body. Chunks are only read when the subscriber
+ * asks for them, and reads complete on the channel's own threads, so no thread blocks on the file. Every subscription
+ * reads the region from its start, which lets the SDK retry a request; bytes are only reported to the
+ * {@link TransferProgress} the first time they are published.
+ */
+public final class FileRegionAsyncRequestBody implements AsyncRequestBody {
+
+    private final AsynchronousFileChannel channel;
+
+    private final long start;
+
+    private final long length;
+
+    private final int chunkSize;
+
+    private final TransferProgress transferProgress;
+
+    private final AtomicLong reported;
+
+    public FileRegionAsyncRequestBody(AsynchronousFileChannel channel, long start, long length, int chunkSize,
+                                      TransferProgress transferProgress) {
+        this.channel = channel;
+        this.start = start;
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.transferProgress = transferProgress;
+        this.reported = new AtomicLong(start);
+    }
+
+    @Override
+    public Optional<Long> contentLength() {
+        return Optional.of(this.length);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new RegionSubscription(subscriber));
+    }
+
+    private void report(ByteBuffer chunk, long position) {
+        long end = position + chunk.remaining();
+        long from = this.reported.get();
+        if (end > from && this.reported.compareAndSet(from, end)) {
+            int skip = (int) Math.max(0, from - position);
+            this.transferProgress.notify(chunk.array(), chunk.arrayOffset() + chunk.position() + skip,
+                    chunk.remaining() - skip);
+        }
+    }
+
+    private final class RegionSubscription implements Subscription, CompletionHandler<Integer, ByteBuffer> {
+
+        private final Subscriber<? super ByteBuffer> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+
+        private final AtomicBoolean reading = new AtomicBoolean();
+
+        private final long end = FileRegionAsyncRequestBody.this.start + FileRegionAsyncRequestBody.this.length;
+
+        private volatile long position = FileRegionAsyncRequestBody.this.start;
+
+        private volatile boolean done;
+
+        private RegionSubscription(Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested " + n + " chunks, expected a positive number"));
+                return;
+            }
+            this.demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            readNext();
+        }
+
+        @Override
+        public void cancel() {
+            this.done = true;
+        }
+
+        private void readNext() {
+            if (this.done || this.demand.get() == 0 || !this.reading.compareAndSet(false, true)) {
+                // a read in flight picks up new demand once it has been published
+                return;
+            }
+            if (this.position >= this.end) {
+                this.done = true;
+                this.subscriber.onComplete();
+                return;
+            }
+            ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(FileRegionAsyncRequestBody.this.chunkSize,
+                    this.end - this.position));
+            FileRegionAsyncRequestBody.this.channel.read(chunk, this.position, chunk, this);
+        }
+
+        @Override
+        public void completed(Integer read, ByteBuffer chunk) {
+            if (this.done) {
+                return;
+            }
+            if (read == -1) {
+                fail(new EOFException(String.format("File ended at offset %d", this.position + chunk.position())));
+                return;
+            }
+            if (chunk.hasRemaining()) {
+                FileRegionAsyncRequestBody.this.channel.read(chunk, this.position + chunk.position(), chunk, this);
+                return;
+            }
+
+            chunk.flip();
+            long chunkPosition = this.position;
+            this.position += chunk.remaining();
+            this.demand.decrementAndGet();
+            report(chunk, chunkPosition);
+            this.subscriber.onNext(chunk);
+            this.reading.set(false);
+            readNext();
+        }
+
+        @Override
+        public void failed(Throwable exception, ByteBuffer chunk) {
+            fail(exception);
+        }
+
+        private void fail(Throwable exception) {
+            if (!this.done) {
+                this.done = true;
+                this.subscriber.onError(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a region of a {@link FileChannel} using positional reads, so that several streams can share one channel. The
+ * stream supports {@link #mark(int)} and {@link #reset()} without buffering, which lets the SDK replay a request body
+ * on retry. Bytes are only reported to the {@link TransferProgress} the first time they are read.
+ */
+public final class FileRegionInputStream extends InputStream {
+
+    private final FileChannel channel;
+
+    private final long end;
+
+    private final TransferProgress transferProgress;
+
+    private final byte[] single = new byte[1];
+
+    private long position;
+
+    private long mark;
+
+    private long reported;
+
+    public FileRegionInputStream(FileChannel channel, long start, long length, TransferProgress transferProgress) {
+        this.channel = channel;
+        this.end = start + length;
+        this.transferProgress = transferProgress;
+        this.position = start;
+        this.mark = start;
+        this.reported = start;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int count = read(this.single, 0, 1);
+        return count == -1 ? -1 : this.single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        long remaining = this.end - this.position;
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int count = this.channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), this.position);
+        if (count <= 0) {
+            return -1;
+        }
+        this.position += count;
+        report(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, this.end - this.position));
+        this.position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, this.end - this.position);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        this.mark = this.position;
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.position = this.mark;
+    }
+
+    @Override
+    public void close() {
+        // the channel is owned by the caller and shared with other regions
+    }
+
+    private void report(byte[] b, int off, int count) {
+        long fresh = this.position - Math.max(this.position - count, this.reported);
+        if (fresh <= 0) {
+            return;
+        }
+        this.reported = this.position;
+
+        this.transferProgress.notify(b, off + count - (int) fresh, (int) fresh);
+    }
+}
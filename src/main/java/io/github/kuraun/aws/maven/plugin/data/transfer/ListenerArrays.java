@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-write operations on listener arrays. Callers publish the returned array through a volatile field and
+ * serialize their updates, so events can be fired from any thread by iterating a snapshot without locking.
+ */
+abstract class ListenerArrays {
+
+    static <T> boolean contains(T[] listeners, Object listener) {
+        return indexOf(listeners, listener) >= 0;
+    }
+
+    static <T> T[] add(T[] listeners, T listener) {
+        if (listener == null || contains(listeners, listener)) {
+            return listeners;
+        }
+        T[] added = Arrays.copyOf(listeners, listeners.length + 1);
+        added[listeners.length] = listener;
+        return added;
+    }
+
+    static <T> T[] remove(T[] listeners, Object listener) {
+        int index = indexOf(listeners, listener);
+        if (index < 0) {
+            return listeners;
+        }
+        T[] removed = Arrays.copyOf(listeners, listeners.length - 1);
+        System.arraycopy(listeners, index + 1, removed, index, listeners.length - index - 1);
+        return removed;
+    }
+
+    private static int indexOf(Object[] listeners, Object listener) {
+        if (listener != null) {
+            for (int i = 0; i < listeners.length; i++) {
+                if (listener.equals(listeners[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes a memory-mapped region of a file as a request body. The region is mapped once, and every subscription
+ * publishes read-only slices of the mapping from its start, so the SDK can retry a request and several requests can
+ * read the same file without it being copied onto the heap. Bytes are only reported to the {@link TransferProgress}
+ * the first time they are published; as progress is reported in arrays, that is the only copy made.
+ */
+public final class MappedRegionAsyncRequestBody implements AsyncRequestBody {
+
+    private final ByteBuffer region;
+
+    private final int chunkSize;
+
+    private final TransferProgress transferProgress;
+
+    private long reported;
+
+    private byte[] scratch;
+
+    /**
+     * @param channel          The file to map; the mapping stays valid once the channel is closed
+     * @param start            The file position of the region
+     * @param length           The length of the region, at most {@link Integer#MAX_VALUE}
+     * @param chunkSize        The size of the published slices
+     * @param transferProgress Receives every byte of the region once, in order
+     * @throws IOException if the region cannot be mapped
+     */
+    public MappedRegionAsyncRequestBody(FileChannel channel, long start, long length, int chunkSize,
+                                        TransferProgress transferProgress) throws IOException {
+        this.region = channel.map(FileChannel.MapMode.READ_ONLY, start, length).asReadOnlyBuffer();
+        this.chunkSize = chunkSize;
+        this.transferProgress = transferProgress;
+    }
+
+    @Override
+    public Optional<Long> contentLength() {
+        return Optional.of((long) this.region.capacity());
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new SliceSubscription(subscriber));
+    }
+
+    // synchronized, as a retry may subscribe while an abandoned subscription still publishes
+    private synchronized void report(ByteBuffer chunk, long position) {
+        long end = position + chunk.remaining();
+        if (end <= this.reported) {
+            return;
+        }
+
+        int skip = (int) Math.max(0, this.reported - position);
+        int length = chunk.remaining() - skip;
+        if (this.scratch == null || this.scratch.length < length) {
+            this.scratch = new byte[length];
+        }
+        ByteBuffer view = chunk.duplicate();
+        view.position(view.position() + skip);
+        view.get(this.scratch, 0, length);
+        this.transferProgress.notify(this.scratch, 0, length);
+        this.reported = end;
+    }
+
+    private final class SliceSubscription implements Subscription {
+
+        private final Subscriber<? super ByteBuffer> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+
+        private final AtomicBoolean publishing = new AtomicBoolean();
+
+        private final int end = MappedRegionAsyncRequestBody.this.region.capacity();
+
+        private int position;
+
+        private volatile boolean done;
+
+        private SliceSubscription(Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.done = true;
+                this.subscriber.onError(new IllegalArgumentException(
+                        "Requested " + n + " chunks, expected a positive number"));
+                return;
+            }
+            this.demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            publish();
+        }
+
+        @Override
+        public void cancel() {
+            this.done = true;
+        }
+
+        private void publish() {
+            // onNext may request more, so one thread publishes at a time and picks up the demand added meanwhile
+            while (!this.done && this.demand.get() > 0 && this.publishing.compareAndSet(false, true)) {
+                try {
+                    while (!this.done && this.demand.get() > 0 && this.position < this.end) {
+                        ByteBuffer view = MappedRegionAsyncRequestBody.this.region.duplicate();
+                        view.position(this.position);
+                        view.limit(Math.min(this.position + MappedRegionAsyncRequestBody.this.chunkSize, this.end));
+                        ByteBuffer chunk = view.slice();
+                        long chunkPosition = this.position;
+                        this.position += chunk.remaining();
+                        this.demand.decrementAndGet();
+                        report(chunk, chunkPosition);
+                        this.subscriber.onNext(chunk);
+                    }
+                    if (!this.done && this.position >= this.end) {
+                        this.done = true;
+                        this.subscriber.onComplete();
+                    }
+                } finally {
+                    this.publishing.set(false);
+                }
+            }
+        }
+    }
+}
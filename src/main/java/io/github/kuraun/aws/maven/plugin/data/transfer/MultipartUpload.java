@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.util.IOUtils;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Uploads a file as an S3 multipart upload. Parts are read at independent offsets of a single shared
+ * {@link FileChannel} and uploaded concurrently on the given {@link ExecutorService}. If any part fails, the remaining
+ * parts are skipped and the upload is aborted so that no orphaned parts are left behind. The MD5 digest of every part
+ * can be computed while it is streamed and checked against the ETag S3 returns for it.
+ * <p>
+ * Like {@link RangedDownload}, only the first part is reported as it is streamed. Every other part is read back from the
+ * file and reported once it and all parts before it have been uploaded, so listeners receive the bytes in file order.
+ */
+public final class MultipartUpload {
+
+    public static final long MINIMUM_PART_SIZE = 5L * 1024 * 1024;
+
+    private static final int MAXIMUM_PARTS = 10_000;
+
+    private static final TransferProgress UNREPORTED = (buffer, offset, length) -> {
+    };
+
+    private final S3Client amazonS3;
+
+    private final ExecutorService executorService;
+
+    private final long partSize;
+
+    private final boolean verifyChecksums;
+
+    public MultipartUpload(S3Client amazonS3, ExecutorService executorService, long partSize) {
+        this(amazonS3, executorService, partSize, false);
+    }
+
+    public MultipartUpload(S3Client amazonS3, ExecutorService executorService, long partSize,
+                           boolean verifyChecksums) {
+        this.amazonS3 = amazonS3;
+        this.executorService = executorService;
+        this.partSize = partSize;
+        this.verifyChecksums = verifyChecksums;
+    }
+
+    public static long getPartSize(long contentLength, long partSize) {
+        long minimumForLength = (contentLength + MAXIMUM_PARTS - 1) / MAXIMUM_PARTS;
+        return Math.max(Math.max(partSize, MINIMUM_PART_SIZE), minimumForLength);
+    }
+
+    public void upload(String bucketName, String key, File source, TransferProgress transferProgress)
+            throws IOException {
+        long contentLength = source.length();
+        long size = getPartSize(contentLength, this.partSize);
+
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            String uploadId = this.amazonS3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucketName).key(key).build()).uploadId();
+
+            AtomicBoolean failed = new AtomicBoolean();
+            List<Future<CompletedPart>> futures = new ArrayList<>();
+            int partNumber = 1;
+            for (long position = 0; position < contentLength; position += size, partNumber++) {
+                UploadPartRequest request = UploadPartRequest.builder().bucket(bucketName).key(key)
+                        .uploadId(uploadId).partNumber(partNumber).build();
+                long start = position;
+                long length = Math.min(size, contentLength - position);
+                TransferProgress progress = position == 0 ? transferProgress : UNREPORTED;
+                futures.add(this.executorService.submit(() -> {
+                    if (failed.get()) {
+                        return null;
+                    }
+                    try {
+                        return uploadPart(request, channel, start, length, progress);
+                    } catch (IOException | RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }));
+            }
+
+            try {
+                List<CompletedPart> parts = awaitAll(futures, channel, size, contentLength, failed,
+                        transferProgress);
+                this.amazonS3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                        .bucket(bucketName).key(key).uploadId(uploadId)
+                        .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()).build());
+            } catch (IOException | RuntimeException e) {
+                abort(bucketName, key, uploadId, e);
+                throw e;
+            }
+        }
+    }
+
+    private CompletedPart uploadPart(UploadPartRequest request, FileChannel channel, long start, long length,
+                                     TransferProgress transferProgress) throws IOException {
+        DigestTransferProgress digest = this.verifyChecksums ? new DigestTransferProgress(transferProgress) : null;
+        try (FileRegionInputStream in = new FileRegionInputStream(channel, start, length,
+                digest != null ? digest : transferProgress)) {
+            UploadPartResponse response = this.amazonS3.uploadPart(request, RequestBody.fromInputStream(in, length));
+            if (digest != null) {
+                digest.verify(response.eTag(), response.serverSideEncryption(), response.sseCustomerAlgorithm());
+            }
+            return CompletedPart.builder().partNumber(request.partNumber()).eTag(response.eTag()).build();
+        }
+    }
+
+    private static List<CompletedPart> awaitAll(List<Future<CompletedPart>> futures, FileChannel channel, long size,
+                                                long contentLength, AtomicBoolean failed,
+                                                TransferProgress transferProgress) throws IOException {
+        List<CompletedPart> parts = new ArrayList<>(futures.size());
+        Throwable failure = null;
+        byte[] buffer = new byte[IOUtils.DEFAULT_TRANSFER_BUFFER_SIZE];
+        for (int index = 0; index < futures.size(); index++) {
+            try {
+                parts.add(futures.get(index).get());
+                if (failure == null && index > 0) {
+                    long start = index * size;
+                    replay(channel, start, Math.min(size, contentLength - start), buffer, transferProgress);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? e : failure;
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (IOException e) {
+                // the parts that have not started yet are skipped
+                failed.set(true);
+                failure = failure == null ? e : failure;
+            }
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof InterruptedException) {
+            throw new InterruptedIOException("Interrupted while waiting for parts to be uploaded");
+        } else if (failure != null) {
+            throw new IOException(failure);
+        }
+        return parts;
+    }
+
+    private static void replay(FileChannel channel, long start, long length, byte[] buffer,
+                               TransferProgress transferProgress) throws IOException {
+        long position = start;
+        long end = start + length;
+        while (position < end) {
+            ByteBuffer target = ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, end - position));
+            int read = channel.read(target, position);
+            if (read == -1) {
+                throw new EOFException(String.format("Source ended at offset %d", position));
+            }
+            position += read;
+            transferProgress.notify(buffer, read);
+        }
+    }
+
+    private void abort(String bucketName, String key, String uploadId, Exception cause) {
+        try {
+            this.amazonS3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName).key(key).uploadId(uploadId).build());
+        } catch (SdkException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
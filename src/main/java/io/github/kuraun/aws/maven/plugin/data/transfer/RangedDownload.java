@@ -0,0 +1,320 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+import io.github.kuraun.aws.maven.plugin.util.CompressionUtils;
+import io.github.kuraun.aws.maven.plugin.util.IOUtils;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Downloads an object using concurrent byte-range GETs. The first range is requested on the calling thread; its
+ * <code>Content-Range</code> header reveals the object size, and the remaining ranges are then fetched on the given
+ * {@link ExecutorService} and written at their own offsets of the destination {@link FileChannel}. Objects no larger
+ * than one range take a single request.
+ * <p>
+ * Maven computes checksums from the progress notifications, so bytes are always reported in file order: ranges that
+ * complete out of order are read back from the destination once every preceding range has been reported.
+ * <p>
+ * The destination is only opened once the first range has been returned and only truncated to the size of the object
+ * once it has been downloaded, so a download that fails up front, or is not performed because of a precondition,
+ * neither creates the destination nor changes an existing one.
+ * <p>
+ * Ranges of a gzip-encoded object cannot be inflated independently, so such an object is fetched with a single GET
+ * and decoded as it streams in.
+ * <p>
+ * When the download fails, every response stream that is still open is aborted rather than closed, so that the rest
+ * of its range is not read only to be thrown away.
+ */
+public final class RangedDownload {
+
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
+    private final S3Client amazonS3;
+
+    private final ExecutorService executorService;
+
+    private final long partSize;
+
+    private final int bufferSize;
+
+    private final boolean preallocate;
+
+    public RangedDownload(S3Client amazonS3, ExecutorService executorService, long partSize) {
+        this(amazonS3, executorService, partSize, IOUtils.DEFAULT_TRANSFER_BUFFER_SIZE, false);
+    }
+
+    public RangedDownload(S3Client amazonS3, ExecutorService executorService, long partSize, int bufferSize,
+                          boolean preallocate) {
+        this.amazonS3 = amazonS3;
+        this.executorService = executorService;
+        this.partSize = partSize;
+        this.bufferSize = bufferSize;
+        this.preallocate = preallocate;
+    }
+
+    static long getTotalLength(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int index = contentRange.lastIndexOf('/');
+        if (index == -1 || index == contentRange.length() - 1 || contentRange.charAt(index + 1) == '*') {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(index + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String range(long start, long length) {
+        return String.format("bytes=%d-%d", start, start + length - 1);
+    }
+
+    public void download(String bucketName, String key, File destination, TransferProgress transferProgress)
+            throws IOException {
+        download(bucketName, key, null, null, destination, transferProgress);
+    }
+
+    /**
+     * Downloads an object into a file unless it still has a known ETag or has not been modified since a point in time
+     *
+     * @param bucketName       The bucket of the object
+     * @param key              The key of the object
+     * @param ifNoneMatch      The ETag of a copy that is already available, or {@code null}
+     * @param ifModifiedSince  The time of a copy that is already available, or {@code null}
+     * @param destination      The file to write; it is replaced
+     * @param transferProgress Receives every byte of the object in order
+     * @return The ETag of the downloaded object, or {@code null} if it is empty
+     * @throws IOException         if the object cannot be read or the destination cannot be written
+     * @throws AwsServiceException with status 304 if a precondition prevented the download
+     */
+    public String download(String bucketName, String key, String ifNoneMatch, Instant ifModifiedSince,
+                           File destination, TransferProgress transferProgress) throws IOException {
+        ResponseInputStream<GetObjectResponse> first;
+        try {
+            first = this.amazonS3.getObject(GetObjectRequest.builder().bucket(bucketName).key(key)
+                    .range(range(0, this.partSize)).ifNoneMatch(ifNoneMatch).ifModifiedSince(ifModifiedSince)
+                    .build());
+        } catch (AwsServiceException e) {
+            if (e.statusCode() == RANGE_NOT_SATISFIABLE) {
+                // S3 rejects every range of an empty object
+                try (FileChannel channel = open(destination)) {
+                    channel.truncate(0);
+                }
+                return null;
+            }
+            throw e;
+        }
+
+        // the destination is only opened once the object has been found and the preconditions have passed
+        FileChannel opened;
+        try {
+            opened = open(destination);
+        } catch (IOException | RuntimeException e) {
+            first.abort();
+            throw e;
+        }
+        try (FileChannel channel = opened) {
+            GetObjectResponse response = first.response();
+            long total = getTotalLength(response.contentRange());
+            if (CompressionUtils.isGzip(response.contentEncoding())) {
+                return downloadEncoded(bucketName, key, first, total, channel, transferProgress);
+            }
+
+            AtomicBoolean failed = new AtomicBoolean();
+            Set<ResponseInputStream<GetObjectResponse>> open = ConcurrentHashMap.newKeySet();
+            List<Future<Void>> futures = new ArrayList<>();
+            try {
+                if (total == -1) {
+                    // the whole object was returned
+                    channel.truncate(IOUtils.copy(first, channel, 0, Long.MAX_VALUE, new byte[this.bufferSize],
+                            transferProgress));
+                    first.close();
+                    return response.eTag();
+                }
+                if (this.preallocate) {
+                    IOUtils.preallocate(channel, total);
+                }
+
+                long firstLength = Math.min(this.partSize, total);
+                for (long position = firstLength; position < total; position += this.partSize) {
+                    long start = position;
+                    long length = Math.min(this.partSize, total - position);
+                    GetObjectRequest request = GetObjectRequest.builder().bucket(bucketName).key(key)
+                            .range(range(start, length)).ifMatch(response.eTag()).build();
+                    futures.add(this.executorService.submit(() -> {
+                        if (!failed.get()) {
+                            fetch(request, channel, start, length, failed, open);
+                        }
+                        return null;
+                    }));
+                }
+
+                copy(first, channel, 0, firstLength, transferProgress);
+                first.close();
+                long position = firstLength;
+                for (Future<Void> future : futures) {
+                    await(future);
+                    long length = Math.min(this.partSize, total - position);
+                    replay(channel, position, length, transferProgress);
+                    position += length;
+                }
+            } catch (IOException | RuntimeException e) {
+                failed.set(true);
+                // closing would drain the rest of each range into its connection
+                first.abort();
+                open.forEach(ResponseInputStream::abort);
+                for (Future<Void> future : futures) {
+                    try {
+                        await(future);
+                    } catch (IOException | RuntimeException suppressed) {
+                        if (suppressed != e) {
+                            e.addSuppressed(suppressed);
+                        }
+                    }
+                }
+                throw e;
+            }
+            channel.truncate(total);
+            return response.eTag();
+        }
+    }
+
+    private static FileChannel open(File destination) throws IOException {
+        return FileChannel.open(destination.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ);
+    }
+
+    private String downloadEncoded(String bucketName, String key, ResponseInputStream<GetObjectResponse> first,
+                                   long total, FileChannel channel, TransferProgress transferProgress)
+            throws IOException {
+        ResponseInputStream<GetObjectResponse> whole = first;
+        if (total != -1 && total > this.partSize) {
+            // closing would drain the rest of the range into the connection
+            first.abort();
+            whole = this.amazonS3.getObject(GetObjectRequest.builder().bucket(bucketName).key(key)
+                    .ifMatch(first.response().eTag()).build());
+        }
+        InputStream in = null;
+        try {
+            in = CompressionUtils.decode(whole, whole.response().contentEncoding(), this.bufferSize);
+            channel.truncate(IOUtils.copy(in, channel, 0, Long.MAX_VALUE, new byte[this.bufferSize],
+                    transferProgress));
+            in.close();
+            return whole.response().eTag();
+        } catch (IOException | RuntimeException e) {
+            whole.abort();
+            IOUtils.closeQuietly(in);
+            throw e;
+        }
+    }
+
+    private void fetch(GetObjectRequest request, FileChannel channel, long start, long length, AtomicBoolean failed,
+                       Set<ResponseInputStream<GetObjectResponse>> open) throws IOException {
+        ResponseInputStream<GetObjectResponse> in;
+        try {
+            in = this.amazonS3.getObject(request);
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+        open.add(in);
+        try {
+            // the download may have failed while this range was requested, after its streams were aborted
+            if (failed.get()) {
+                in.abort();
+                return;
+            }
+            copy(in, channel, start, length, null);
+            in.close();
+        } catch (IOException | RuntimeException e) {
+            failed.set(true);
+            in.abort();
+            throw e;
+        } finally {
+            open.remove(in);
+        }
+    }
+
+    private void copy(InputStream in, FileChannel channel, long start, long length,
+                      TransferProgress transferProgress) throws IOException {
+        long copied = IOUtils.copy(in, channel, start, length, new byte[this.bufferSize], transferProgress);
+        if (copied < length) {
+            throw new EOFException(String.format("Expected %d bytes at offset %d but received %d", length, start,
+                    copied));
+        }
+    }
+
+    private void replay(FileChannel channel, long start, long length, TransferProgress transferProgress)
+            throws IOException {
+        byte[] buffer = new byte[this.bufferSize];
+        long position = start;
+        long end = start + length;
+        while (position < end) {
+            ByteBuffer target = ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, end - position));
+            int read = channel.read(target, position);
+            if (read == -1) {
+                throw new EOFException(String.format("Destination ended at offset %d", position));
+            }
+            position += read;
+            transferProgress.notify(buffer, read);
+        }
+    }
+
+    private static void await(Future<Void> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for ranges to be downloaded");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -21,94 +21,130 @@ import org.apache.maven.wagon.Wagon;
 import org.apache.maven.wagon.events.SessionEvent;
 import org.apache.maven.wagon.events.SessionListener;
 
-import java.util.HashSet;
-import java.util.Set;
-
+/**
+ * Keeps listeners in a copy-on-write array, so events can be fired from any thread while listeners are added or
+ * removed. Events carry the time they were fired, so each one is new, but none is created while no listener is
+ * registered.
+ */
 public final class StandardSessionListenerSupport implements SessionListenerSupport {
 
+    private static final SessionListener[] NO_LISTENERS = new SessionListener[0];
+
     private final Wagon wagon;
 
-    private final Set<SessionListener> sessionListeners = new HashSet<>();
+    private volatile SessionListener[] sessionListeners = NO_LISTENERS;
 
     public StandardSessionListenerSupport(Wagon wagon) {
         this.wagon = wagon;
     }
 
     @Override
-    public void addSessionListener(SessionListener sessionListener) {
-        this.sessionListeners.add(sessionListener);
+    public synchronized void addSessionListener(SessionListener sessionListener) {
+        this.sessionListeners = ListenerArrays.add(this.sessionListeners, sessionListener);
     }
 
     @Override
-    public void removeSessionListener(SessionListener sessionListener) {
-        this.sessionListeners.remove(sessionListener);
+    public synchronized void removeSessionListener(SessionListener sessionListener) {
+        this.sessionListeners = ListenerArrays.remove(this.sessionListeners, sessionListener);
     }
 
     @Override
     public boolean hasSessionListener(SessionListener sessionListener) {
-        return this.sessionListeners.contains(sessionListener);
+        return ListenerArrays.contains(this.sessionListeners, sessionListener);
     }
 
     @Override
     public void fireSessionOpening() {
+        SessionListener[] listeners = this.sessionListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         SessionEvent event = new SessionEvent(this.wagon, SessionEvent.SESSION_OPENING);
-        for (SessionListener sessionListener : this.sessionListeners) {
+        for (SessionListener sessionListener : listeners) {
             sessionListener.sessionOpening(event);
         }
     }
 
     @Override
     public void fireSessionOpened() {
+        SessionListener[] listeners = this.sessionListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         SessionEvent event = new SessionEvent(this.wagon, SessionEvent.SESSION_OPENED);
-        for (SessionListener sessionListener : this.sessionListeners) {
+        for (SessionListener sessionListener : listeners) {
             sessionListener.sessionOpened(event);
         }
     }
 
     @Override
     public void fireSessionDisconnecting() {
+        SessionListener[] listeners = this.sessionListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         SessionEvent event = new SessionEvent(this.wagon, SessionEvent.SESSION_DISCONNECTING);
-        for (SessionListener sessionListener : this.sessionListeners) {
+        for (SessionListener sessionListener : listeners) {
             sessionListener.sessionDisconnecting(event);
         }
     }
 
     @Override
     public void fireSessionDisconnected() {
+        SessionListener[] listeners = this.sessionListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         SessionEvent event = new SessionEvent(this.wagon, SessionEvent.SESSION_DISCONNECTED);
-        for (SessionListener sessionListener : this.sessionListeners) {
+        for (SessionListener sessionListener : listeners) {
             sessionListener.sessionDisconnected(event);
         }
     }
 
     @Override
     public void fireSessionConnectionRefused() {
+        SessionListener[] listeners = this.sessionListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         SessionEvent event = new SessionEvent(this.wagon, SessionEvent.SESSION_CONNECTION_REFUSED);
-        for (SessionListener sessionListener : this.sessionListeners) {
+        for (SessionListener sessionListener : listeners) {
             sessionListener.sessionConnectionRefused(event);
         }
     }
 
     @Override
     public void fireSessionLoggedIn() {
+        SessionListener[] listeners = this.sessionListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         SessionEvent event = new SessionEvent(this.wagon, SessionEvent.SESSION_LOGGED_IN);
-        for (SessionListener sessionListener : this.sessionListeners) {
+        for (SessionListener sessionListener : listeners) {
             sessionListener.sessionLoggedIn(event);
         }
     }
 
     @Override
     public void fireSessionLoggedOff() {
+        SessionListener[] listeners = this.sessionListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         SessionEvent event = new SessionEvent(this.wagon, SessionEvent.SESSION_LOGGED_OFF);
-        for (SessionListener sessionListener : this.sessionListeners) {
+        for (SessionListener sessionListener : listeners) {
             sessionListener.sessionLoggedOff(event);
         }
     }
 
     @Override
     public void fireSessionError(Exception exception) {
+        SessionListener[] listeners = this.sessionListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         SessionEvent event = new SessionEvent(this.wagon, exception);
-        for (SessionListener sessionListener : this.sessionListeners) {
+        for (SessionListener sessionListener : listeners) {
             sessionListener.sessionError(event);
         }
     }
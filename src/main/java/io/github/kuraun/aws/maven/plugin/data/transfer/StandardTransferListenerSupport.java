@@ -22,73 +22,114 @@ import org.apache.maven.wagon.events.TransferEvent;
 import org.apache.maven.wagon.events.TransferListener;
 import org.apache.maven.wagon.resource.Resource;
 
-import java.util.HashSet;
-import java.util.Set;
-
+/**
+ * Keeps listeners in a copy-on-write array, so events can be fired from several threads while listeners are added or
+ * removed. Nothing is allocated while no listener is registered, and consecutive progress notifications of the same
+ * transfer share one event, as they do in Maven's own wagons.
+ */
 public final class StandardTransferListenerSupport implements TransferListenerSupport {
 
+    private static final TransferListener[] NO_LISTENERS = new TransferListener[0];
+
     private final Wagon wagon;
 
-    private final Set<TransferListener> transferListeners = new HashSet<TransferListener>();
+    private volatile TransferListener[] transferListeners = NO_LISTENERS;
+
+    private volatile TransferEvent progressEvent;
 
     public StandardTransferListenerSupport(Wagon wagon) {
         this.wagon = wagon;
     }
 
     @Override
-    public void addTransferListener(TransferListener transferListener) {
-        if (transferListener != null) {
-            this.transferListeners.add(transferListener);
-        }
+    public synchronized void addTransferListener(TransferListener transferListener) {
+        this.transferListeners = ListenerArrays.add(this.transferListeners, transferListener);
     }
 
     @Override
-    public void removeTransferListener(TransferListener transferListener) {
-        this.transferListeners.remove(transferListener);
+    public synchronized void removeTransferListener(TransferListener transferListener) {
+        this.transferListeners = ListenerArrays.remove(this.transferListeners, transferListener);
     }
 
     @Override
     public boolean hasTransferListener(TransferListener transferListener) {
-        return this.transferListeners.contains(transferListener);
+        return ListenerArrays.contains(this.transferListeners, transferListener);
+    }
+
+    @Override
+    public boolean hasTransferListeners() {
+        return this.transferListeners.length > 0;
     }
 
     @Override
     public void fireTransferInitiated(Resource resource, int requestType) {
+        TransferListener[] listeners = this.transferListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         TransferEvent event = new TransferEvent(this.wagon, resource, TransferEvent.TRANSFER_INITIATED, requestType);
-        for (TransferListener transferListener : this.transferListeners) {
+        for (TransferListener transferListener : listeners) {
             transferListener.transferInitiated(event);
         }
     }
 
     @Override
     public void fireTransferStarted(Resource resource, int requestType) {
+        TransferListener[] listeners = this.transferListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         TransferEvent event = new TransferEvent(this.wagon, resource, TransferEvent.TRANSFER_STARTED, requestType);
-        for (TransferListener transferListener : this.transferListeners) {
+        for (TransferListener transferListener : listeners) {
             transferListener.transferStarted(event);
         }
     }
 
     @Override
     public void fireTransferProgress(Resource resource, int requestType, byte[] buffer, int length) {
-        TransferEvent event = new TransferEvent(this.wagon, resource, TransferEvent.TRANSFER_PROGRESS, requestType);
-        for (TransferListener transferListener : this.transferListeners) {
+        TransferListener[] listeners = this.transferListeners;
+        if (listeners.length == 0) {
+            return;
+        }
+        TransferEvent event = getProgressEvent(resource, requestType);
+        for (TransferListener transferListener : listeners) {
             transferListener.transferProgress(event, buffer, length);
         }
     }
 
     @Override
     public void fireTransferCompleted(Resource resource, int requestType) {
+        TransferListener[] listeners = this.transferListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         TransferEvent event = new TransferEvent(this.wagon, resource, TransferEvent.TRANSFER_COMPLETED, requestType);
-        for (TransferListener transferListener : this.transferListeners) {
+        for (TransferListener transferListener : listeners) {
             transferListener.transferCompleted(event);
         }
     }
 
     @Override
     public void fireTransferError(Resource resource, int requestType, Exception exception) {
+        TransferListener[] listeners = this.transferListeners;
+        if (listeners.length == 0) {
+            return;
+        }
         TransferEvent event = new TransferEvent(this.wagon, resource, exception, requestType);
-        for (TransferListener transferListener : this.transferListeners) {
+        for (TransferListener transferListener : listeners) {
             transferListener.transferError(event);
         }
     }
+
+    private TransferEvent getProgressEvent(Resource resource, int requestType) {
+        TransferEvent event = this.progressEvent;
+        if (event == null || event.getResource() != resource || event.getRequestType() != requestType
+                || event.getEventType() != TransferEvent.TRANSFER_PROGRESS) {
+            event = new TransferEvent(this.wagon, resource, TransferEvent.TRANSFER_PROGRESS, requestType);
+            this.progressEvent = event;
+        } else {
+            event.setTimestamp(System.currentTimeMillis());
+        }
+        return event;
+    }
 }
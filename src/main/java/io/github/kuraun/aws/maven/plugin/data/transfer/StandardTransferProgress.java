@@ -20,23 +20,104 @@ import io.github.kuraun.aws.maven.plugin.data.TransferListenerSupport;
 import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
 import org.apache.maven.wagon.resource.Resource;
 
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Forwards progress to a {@link TransferListenerSupport}, coalescing small notifications into one reusable buffer so
+ * that an event is fired at most once per <code>granularity</code> bytes, or sooner once <code>interval</code>
+ * milliseconds have passed since the previous event. Bytes are delivered exactly once and in order, so listeners that
+ * compute checksums are unaffected. Nothing is done while no listener is registered.
+ * <p>
+ * Instances are not thread-safe; transfers that move parts concurrently report them one at a time and in order.
+ */
 public final class StandardTransferProgress implements TransferProgress {
 
+    public static final int DEFAULT_GRANULARITY = 64 * 1024;
+
+    public static final long DEFAULT_INTERVAL = 250;
+
     private final Resource resource;
 
     private final int requestType;
 
     private final TransferListenerSupport transferListenerSupport;
 
+    private final int granularity;
+
+    private final long intervalNanos;
+
+    private final LongSupplier clock;
+
+    private byte[] buffer;
+
+    private int pending;
+
+    private long lastEvent;
+
     public StandardTransferProgress(Resource resource, int requestType, TransferListenerSupport transferListenerSupport) {
+        this(resource, requestType, transferListenerSupport, DEFAULT_GRANULARITY, DEFAULT_INTERVAL);
+    }
+
+    public StandardTransferProgress(Resource resource, int requestType, TransferListenerSupport transferListenerSupport,
+                                    int granularity, long interval) {
+        this(resource, requestType, transferListenerSupport, granularity, interval, System::nanoTime);
+    }
+
+    StandardTransferProgress(Resource resource, int requestType, TransferListenerSupport transferListenerSupport,
+                             int granularity, long interval, LongSupplier clock) {
         this.resource = resource;
         this.requestType = requestType;
         this.transferListenerSupport = transferListenerSupport;
+        this.granularity = Math.max(1, granularity);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, interval));
+        this.clock = clock;
+        this.lastEvent = clock.getAsLong();
     }
 
     @Override
-    public void notify(byte[] buffer, int length) {
-        this.transferListenerSupport.fireTransferProgress(this.resource, this.requestType, buffer, length);
+    public void notify(byte[] buffer, int offset, int length) {
+        if (length <= 0 || !this.transferListenerSupport.hasTransferListeners()) {
+            return;
+        }
+
+        if (this.pending == 0 && offset == 0 && length >= this.granularity) {
+            fire(buffer, length);
+            return;
+        }
+
+        if (this.buffer == null) {
+            this.buffer = new byte[this.granularity];
+        }
+        int position = offset;
+        int end = offset + length;
+        while (position < end) {
+            int count = Math.min(end - position, this.buffer.length - this.pending);
+            System.arraycopy(buffer, position, this.buffer, this.pending, count);
+            this.pending += count;
+            position += count;
+            if (this.pending == this.buffer.length) {
+                flush();
+            }
+        }
+
+        if (this.pending > 0 && this.intervalNanos > 0
+                && this.clock.getAsLong() - this.lastEvent >= this.intervalNanos) {
+            flush();
+        }
     }
 
+    @Override
+    public void flush() {
+        if (this.pending > 0) {
+            int length = this.pending;
+            this.pending = 0;
+            fire(this.buffer, length);
+        }
+    }
+
+    private void fire(byte[] buffer, int length) {
+        this.lastEvent = this.clock.getAsLong();
+        this.transferListenerSupport.fireTransferProgress(this.resource, this.requestType, buffer, length);
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferListenerSupport;
+import org.apache.maven.wagon.events.TransferListener;
+import org.apache.maven.wagon.resource.Resource;
+
+/**
+ * Serializes events from concurrent transfers so that listeners, which are generally not thread-safe, only ever see
+ * one caller at a time
+ */
+public final class SynchronizedTransferListenerSupport implements TransferListenerSupport {
+
+    private final TransferListenerSupport transferListenerSupport;
+
+    public SynchronizedTransferListenerSupport(TransferListenerSupport transferListenerSupport) {
+        this.transferListenerSupport = transferListenerSupport;
+    }
+
+    @Override
+    public synchronized void addTransferListener(TransferListener transferListener) {
+        this.transferListenerSupport.addTransferListener(transferListener);
+    }
+
+    @Override
+    public synchronized void removeTransferListener(TransferListener transferListener) {
+        this.transferListenerSupport.removeTransferListener(transferListener);
+    }
+
+    @Override
+    public synchronized boolean hasTransferListener(TransferListener transferListener) {
+        return this.transferListenerSupport.hasTransferListener(transferListener);
+    }
+
+    @Override
+    public synchronized boolean hasTransferListeners() {
+        return this.transferListenerSupport.hasTransferListeners();
+    }
+
+    @Override
+    public synchronized void fireTransferInitiated(Resource resource, int requestType) {
+        this.transferListenerSupport.fireTransferInitiated(resource, requestType);
+    }
+
+    @Override
+    public synchronized void fireTransferStarted(Resource resource, int requestType) {
+        this.transferListenerSupport.fireTransferStarted(resource, requestType);
+    }
+
+    @Override
+    public synchronized void fireTransferProgress(Resource resource, int requestType, byte[] buffer, int length) {
+        this.transferListenerSupport.fireTransferProgress(resource, requestType, buffer, length);
+    }
+
+    @Override
+    public synchronized void fireTransferCompleted(Resource resource, int requestType) {
+        this.transferListenerSupport.fireTransferCompleted(resource, requestType);
+    }
+
+    @Override
+    public synchronized void fireTransferError(Resource resource, int requestType, Exception exception) {
+        this.transferListenerSupport.fireTransferError(resource, requestType, exception);
+    }
+}
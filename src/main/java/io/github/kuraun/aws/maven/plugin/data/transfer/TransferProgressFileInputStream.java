@@ -27,6 +27,8 @@ public final class TransferProgressFileInputStream extends FileInputStream {
 
     private final TransferProgress transferProgress;
 
+    private final byte[] single = new byte[1];
+
     public TransferProgressFileInputStream(File file, TransferProgress transferProgress) throws FileNotFoundException {
         super(file);
         this.transferProgress = transferProgress;
@@ -35,26 +37,23 @@ public final class TransferProgressFileInputStream extends FileInputStream {
     @Override
     public int read() throws IOException {
         int b = super.read();
-        this.transferProgress.notify(new byte[]{(byte) b}, 1);
+        if (b != -1) {
+            this.single[0] = (byte) b;
+            this.transferProgress.notify(this.single, 0, 1);
+        }
         return b;
     }
 
     @Override
     public int read(byte b[]) throws IOException {
-        int count = super.read(b);
-        this.transferProgress.notify(b, b.length);
-        return count;
+        return read(b, 0, b.length);
     }
 
     @Override
     public int read(byte b[], int off, int len) throws IOException {
         int count = super.read(b, off, len);
-        if (off == 0) {
-            this.transferProgress.notify(b, len);
-        } else {
-            byte[] bytes = new byte[len];
-            System.arraycopy(b, off, bytes, 0, len);
-            this.transferProgress.notify(bytes, len);
+        if (count > 0) {
+            this.transferProgress.notify(b, off, count);
         }
         return count;
     }
@@ -22,10 +22,13 @@ import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
 import io.github.kuraun.aws.maven.plugin.data.transfer.StandardSessionListenerSupport;
 import io.github.kuraun.aws.maven.plugin.data.transfer.StandardTransferListenerSupport;
 import io.github.kuraun.aws.maven.plugin.data.transfer.StandardTransferProgress;
+import io.github.kuraun.aws.maven.plugin.data.transfer.SynchronizedTransferListenerSupport;
+import io.github.kuraun.aws.maven.plugin.util.DaemonThreadFactory;
 import org.apache.maven.wagon.ConnectionException;
 import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.apache.maven.wagon.TransferFailedException;
 import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.WagonException;
 import org.apache.maven.wagon.authentication.AuthenticationException;
 import org.apache.maven.wagon.authentication.AuthenticationInfo;
 import org.apache.maven.wagon.authorization.AuthorizationException;
@@ -38,10 +41,25 @@ import org.apache.maven.wagon.repository.Repository;
 import org.apache.maven.wagon.resource.Resource;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public abstract class AbstractWagon implements Wagon {
 
+    private static final int DEFAULT_DIRECTORY_CONCURRENCY = 8;
+
     private final boolean supportsDirectoryCopy;
     private final SessionListenerSupport sessionListenerSupport;
     private final TransferListenerSupport transferListenerSupport;
@@ -49,6 +67,9 @@ public abstract class AbstractWagon implements Wagon {
     private boolean interactive = false;
     private int readTimeout = DEFAULT_READ_TIMEOUT;
     private Repository repository = null;
+    private int progressGranularity = StandardTransferProgress.DEFAULT_GRANULARITY;
+    private long progressInterval = StandardTransferProgress.DEFAULT_INTERVAL;
+    private int directoryConcurrency = DEFAULT_DIRECTORY_CONCURRENCY;
 
     protected AbstractWagon(boolean supportsDirectoryCopy) {
         this.supportsDirectoryCopy = supportsDirectoryCopy;
@@ -173,8 +194,9 @@ public abstract class AbstractWagon implements Wagon {
         this.transferListenerSupport.fireTransferStarted(resource, TransferEvent.REQUEST_GET);
 
         try {
-            getResource(resourceName, destination, new StandardTransferProgress(resource, TransferEvent.REQUEST_GET,
-                    this.transferListenerSupport));
+            TransferProgress transferProgress = newTransferProgress(resource, TransferEvent.REQUEST_GET);
+            getResource(resourceName, destination, transferProgress);
+            transferProgress.flush();
             this.transferListenerSupport.fireTransferCompleted(resource, TransferEvent.REQUEST_GET);
         } catch (TransferFailedException | ResourceDoesNotExistException | AuthorizationException e) {
             this.transferListenerSupport.fireTransferError(resource, TransferEvent.REQUEST_GET, e);
@@ -198,13 +220,22 @@ public abstract class AbstractWagon implements Wagon {
     public final boolean getIfNewer(String resourceName, File destination, long timestamp)
             throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
         Resource resource = new Resource(resourceName);
+        AtomicBoolean started = new AtomicBoolean();
         try {
-            if (isRemoteResourceNewer(resourceName, timestamp)) {
-                get(resourceName, destination);
-                return true;
+            TransferProgress transferProgress = newTransferProgress(resource, TransferEvent.REQUEST_GET);
+            // the transfer only starts once the resource turns out to be newer
+            TransferProgress startingTransferProgress = (buffer, offset, length) -> {
+                fireGetStarted(resource, started);
+                transferProgress.notify(buffer, offset, length);
+            };
+            if (!getResourceIfNewer(resourceName, destination, timestamp, startingTransferProgress)) {
+                return false;
             }
 
-            return false;
+            fireGetStarted(resource, started);
+            transferProgress.flush();
+            this.transferListenerSupport.fireTransferCompleted(resource, TransferEvent.REQUEST_GET);
+            return true;
         } catch (TransferFailedException | ResourceDoesNotExistException | AuthorizationException e) {
             this.transferListenerSupport.fireTransferError(resource, TransferEvent.REQUEST_GET, e);
             throw e;
@@ -219,16 +250,23 @@ public abstract class AbstractWagon implements Wagon {
     @Override
     public final void put(File source, String destination) throws TransferFailedException,
             ResourceDoesNotExistException, AuthorizationException {
+        put(source, destination, this.transferListenerSupport);
+    }
+
+    private void put(File source, String destination, TransferListenerSupport listenerSupport)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
         Resource resource = new Resource(destination);
-        this.transferListenerSupport.fireTransferInitiated(resource, TransferEvent.REQUEST_PUT);
-        this.transferListenerSupport.fireTransferStarted(resource, TransferEvent.REQUEST_PUT);
+        listenerSupport.fireTransferInitiated(resource, TransferEvent.REQUEST_PUT);
+        listenerSupport.fireTransferStarted(resource, TransferEvent.REQUEST_PUT);
 
         try {
-            putResource(source, destination, new StandardTransferProgress(resource, TransferEvent.REQUEST_PUT,
-                    this.transferListenerSupport));
-            this.transferListenerSupport.fireTransferCompleted(resource, TransferEvent.REQUEST_PUT);
+            TransferProgress transferProgress = newTransferProgress(resource, TransferEvent.REQUEST_PUT,
+                    listenerSupport);
+            putResource(source, destination, transferProgress);
+            transferProgress.flush();
+            listenerSupport.fireTransferCompleted(resource, TransferEvent.REQUEST_PUT);
         } catch (TransferFailedException | ResourceDoesNotExistException | AuthorizationException e) {
-            this.transferListenerSupport.fireTransferError(resource, TransferEvent.REQUEST_PUT, e);
+            listenerSupport.fireTransferError(resource, TransferEvent.REQUEST_PUT, e);
             throw e;
         }
     }
@@ -236,12 +274,113 @@ public abstract class AbstractWagon implements Wagon {
     @Override
     public final void putDirectory(File sourceDirectory, String destinationDirectory) throws TransferFailedException,
             ResourceDoesNotExistException, AuthorizationException {
-        File[] files = sourceDirectory.listFiles();
-        if (files != null) {
-            for (File f : files) {
-                put(f, destinationDirectory + "/" + f.getName());
+        Path root = sourceDirectory.toPath();
+        List<Path> files = listFiles(root);
+        String prefix = getDirectoryPrefix(destinationDirectory);
+        // files are uploaded concurrently, but listeners only ever see one event at a time
+        TransferListenerSupport listenerSupport = new SynchronizedTransferListenerSupport(this.transferListenerSupport);
+
+        List<WagonException> failures = new ArrayList<>();
+        int concurrency = Math.min(this.directoryConcurrency, files.size());
+        if (concurrency <= 1) {
+            for (Path file : files) {
+                try {
+                    put(file.toFile(), prefix + getRelativePath(root, file), listenerSupport);
+                } catch (TransferFailedException | ResourceDoesNotExistException | AuthorizationException e) {
+                    failures.add(e);
+                }
+            }
+        } else {
+            ExecutorService executorService = Executors.newFixedThreadPool(concurrency,
+                    new DaemonThreadFactory("aws-maven-put-directory"));
+            try {
+                List<Future<Void>> futures = new ArrayList<>(files.size());
+                for (Path file : files) {
+                    String destination = prefix + getRelativePath(root, file);
+                    futures.add(executorService.submit(() -> {
+                        put(file.toFile(), destination, listenerSupport);
+                        return null;
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        failures.add(asWagonException(e.getCause()));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransferFailedException(
+                        String.format("Interrupted while uploading '%s'", sourceDirectory), e);
+            } finally {
+                executorService.shutdownNow();
             }
         }
+
+        throwFailures(failures, files.size(), destinationDirectory);
+    }
+
+    private static List<Path> listFiles(Path root) throws TransferFailedException {
+        if (!Files.isDirectory(root)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            throw new TransferFailedException(String.format("Cannot read directory '%s'", root), e);
+        }
+    }
+
+    private static String getDirectoryPrefix(String destinationDirectory) {
+        if (destinationDirectory == null || destinationDirectory.isEmpty() || ".".equals(destinationDirectory)) {
+            return "";
+        }
+        return destinationDirectory.endsWith("/") ? destinationDirectory : destinationDirectory + "/";
+    }
+
+    private static String getRelativePath(Path root, Path file) {
+        StringBuilder relativePath = new StringBuilder();
+        for (Path name : root.relativize(file)) {
+            if (relativePath.length() > 0) {
+                relativePath.append('/');
+            }
+            relativePath.append(name);
+        }
+        return relativePath.toString();
+    }
+
+    private static WagonException asWagonException(Throwable cause) {
+        if (cause instanceof WagonException) {
+            return (WagonException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new TransferFailedException(cause.getMessage(), cause);
+    }
+
+    private static void throwFailures(List<WagonException> failures, int total, String destinationDirectory)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        if (failures.isEmpty()) {
+            return;
+        }
+
+        WagonException first = failures.get(0);
+        if (failures.size() == 1) {
+            if (first instanceof ResourceDoesNotExistException) {
+                throw (ResourceDoesNotExistException) first;
+            } else if (first instanceof AuthorizationException) {
+                throw (AuthorizationException) first;
+            }
+            throw (TransferFailedException) first;
+        }
+
+        TransferFailedException exception = new TransferFailedException(String.format(
+                "Failed to upload %d of %d files to '%s'", failures.size(), total, destinationDirectory), first);
+        for (WagonException failure : failures.subList(1, failures.size())) {
+            exception.addSuppressed(failure);
+        }
+        throw exception;
     }
 
     @Override
@@ -279,6 +418,51 @@ public abstract class AbstractWagon implements Wagon {
         this.connectionTimeout = timeout;
     }
 
+    /**
+     * Sets the minimum number of bytes delivered by a single transfer progress event
+     *
+     * @param progressGranularity The number of bytes
+     */
+    public final void setProgressGranularity(int progressGranularity) {
+        this.progressGranularity = progressGranularity;
+    }
+
+    /**
+     * Sets the number of milliseconds after which held back progress is delivered even if less than the granularity
+     * has accumulated
+     *
+     * @param progressInterval The number of milliseconds; {@code 0} delivers progress by granularity only
+     */
+    public final void setProgressInterval(long progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Sets the number of files {@link #putDirectory(File, String)} uploads concurrently
+     *
+     * @param directoryConcurrency The number of concurrent uploads
+     */
+    public final void setDirectoryConcurrency(int directoryConcurrency) {
+        this.directoryConcurrency = Math.max(1, directoryConcurrency);
+    }
+
+    private TransferProgress newTransferProgress(Resource resource, int requestType) {
+        return newTransferProgress(resource, requestType, this.transferListenerSupport);
+    }
+
+    private void fireGetStarted(Resource resource, AtomicBoolean started) {
+        if (started.compareAndSet(false, true)) {
+            this.transferListenerSupport.fireTransferInitiated(resource, TransferEvent.REQUEST_GET);
+            this.transferListenerSupport.fireTransferStarted(resource, TransferEvent.REQUEST_GET);
+        }
+    }
+
+    private TransferProgress newTransferProgress(Resource resource, int requestType,
+                                                 TransferListenerSupport listenerSupport) {
+        return new StandardTransferProgress(resource, requestType, listenerSupport, this.progressGranularity,
+                this.progressInterval);
+    }
+
     protected abstract void connectToRepository(Repository repository, AuthenticationInfo authenticationInfo,
                                                 ProxyInfoProvider proxyInfoProvider) throws ConnectionException,
             AuthenticationException;
@@ -294,6 +478,28 @@ public abstract class AbstractWagon implements Wagon {
     protected abstract boolean isRemoteResourceNewer(String resourceName, long timestamp)
             throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException;
 
+    /**
+     * Downloads a resource if it has been modified after a point in time. This implementation checks the timestamp
+     * with {@link #isRemoteResourceNewer(String, long)} before calling
+     * {@link #getResource(String, File, TransferProgress)}; wagons that can make the download itself conditional
+     * override it to save a round trip.
+     *
+     * @param resourceName     The name of the resource
+     * @param destination      The file to write; it must be left untouched if the resource is not newer
+     * @param timestamp        The time of the local copy in milliseconds since the epoch
+     * @param transferProgress Receives every byte of the resource in order
+     * @return {@code true} if the resource was newer and has been downloaded
+     */
+    protected boolean getResourceIfNewer(String resourceName, File destination, long timestamp,
+                                         TransferProgress transferProgress) throws TransferFailedException,
+            ResourceDoesNotExistException, AuthorizationException {
+        if (!isRemoteResourceNewer(resourceName, timestamp)) {
+            return false;
+        }
+        getResource(resourceName, destination, transferProgress);
+        return true;
+    }
+
     protected abstract List<String> listDirectory(String directory) throws TransferFailedException,
             ResourceDoesNotExistException, AuthorizationException;
 
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.metrics;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+/**
+ * Records every request an S3 client sends, including retries, in the metrics of the request's bucket. The SDK calls
+ * {@link #beforeTransmission} once per attempt, so the difference between attempts and executions is the number of
+ * retries.
+ */
+public final class MetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<S3Metrics> METRICS = new ExecutionAttribute<>("S3Metrics");
+
+    private static final ExecutionAttribute<Boolean> IN_FLIGHT = new ExecutionAttribute<>("S3MetricsInFlight");
+
+    private final S3MetricsRegistry registry;
+
+    public MetricsInterceptor() {
+        this(S3MetricsRegistry.getInstance());
+    }
+
+    MetricsInterceptor(S3MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        context.request().getValueForField("Bucket", String.class).ifPresent(bucketName -> {
+            S3Metrics metrics = this.registry.getBucketMetrics(bucketName);
+            metrics.executionStarted();
+            executionAttributes.putAttribute(METRICS, metrics);
+        });
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        S3Metrics metrics = executionAttributes.getAttribute(METRICS);
+        if (metrics != null) {
+            // a previous attempt that failed without a response
+            finish(metrics, executionAttributes, 0);
+            metrics.requestStarted();
+            executionAttributes.putAttribute(IN_FLIGHT, true);
+        }
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        S3Metrics metrics = executionAttributes.getAttribute(METRICS);
+        if (metrics != null) {
+            finish(metrics, executionAttributes, context.httpResponse().statusCode());
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        S3Metrics metrics = executionAttributes.getAttribute(METRICS);
+        if (metrics != null) {
+            finish(metrics, executionAttributes, 0);
+        }
+    }
+
+    private static void finish(S3Metrics metrics, ExecutionAttributes executionAttributes, int statusCode) {
+        if (Boolean.TRUE.equals(executionAttributes.getAttribute(IN_FLIGHT))) {
+            executionAttributes.putAttribute(IN_FLIGHT, false);
+            metrics.requestFinished(statusCode);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts, byte totals and a latency histogram of one kind of operation. The histogram has power-of-two millisecond
+ * buckets, which keeps recording lock-free and allocation-free at the cost of reporting percentiles as bucket upper
+ * bounds.
+ */
+final class OperationMetrics {
+
+    private static final int BUCKETS = 24;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder bytes = new LongAdder();
+
+    private final LongAdder nanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    void record(long nanos, long bytes, boolean success) {
+        this.count.increment();
+        if (!success) {
+            this.failures.increment();
+        }
+        this.bytes.add(bytes);
+        this.nanos.add(nanos);
+        this.maxNanos.accumulateAndGet(nanos, Math::max);
+        this.histogram.incrementAndGet(bucket(nanos));
+    }
+
+    OperationSnapshot snapshot(Operation operation) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.histogram.get(i);
+            total += counts[i];
+        }
+        long max = TimeUnit.NANOSECONDS.toMillis(this.maxNanos.get());
+        return new OperationSnapshot(operation.name(), this.count.sum(), this.failures.sum(), this.bytes.sum(),
+                TimeUnit.NANOSECONDS.toMillis(this.nanos.sum()), percentile(counts, total, 0.5, max),
+                percentile(counts, total, 0.9, max), percentile(counts, total, 0.99, max), max);
+    }
+
+    void reset() {
+        this.count.reset();
+        this.failures.reset();
+        this.bytes.reset();
+        this.nanos.reset();
+        this.maxNanos.set(0);
+        for (int i = 0; i < BUCKETS; i++) {
+            this.histogram.set(i, 0);
+        }
+    }
+
+    static int bucket(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        // bucket i holds latencies below 2^i ms
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+    }
+
+    private static long percentile(long[] counts, long total, double percentile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(1L << i, max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The metrics of one kind of operation at a point in time. Latencies are in milliseconds; percentiles are the upper
+ * bounds of power-of-two buckets.
+ */
+public final class OperationSnapshot {
+
+    private final String operation;
+
+    private final long count;
+
+    private final long failures;
+
+    private final long bytes;
+
+    private final long totalMillis;
+
+    private final long p50Millis;
+
+    private final long p90Millis;
+
+    private final long p99Millis;
+
+    private final long maxMillis;
+
+    @ConstructorProperties({"operation", "count", "failures", "bytes", "totalMillis", "p50Millis", "p90Millis",
+            "p99Millis", "maxMillis"})
+    public OperationSnapshot(String operation, long count, long failures, long bytes, long totalMillis,
+                             long p50Millis, long p90Millis, long p99Millis, long maxMillis) {
+        this.operation = operation;
+        this.count = count;
+        this.failures = failures;
+        this.bytes = bytes;
+        this.totalMillis = totalMillis;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    public String getOperation() {
+        return this.operation;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public long getFailures() {
+        return this.failures;
+    }
+
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    public long getTotalMillis() {
+        return this.totalMillis;
+    }
+
+    public long getP50Millis() {
+        return this.p50Millis;
+    }
+
+    public long getP90Millis() {
+        return this.p90Millis;
+    }
+
+    public long getP99Millis() {
+        return this.p99Millis;
+    }
+
+    public long getMaxMillis() {
+        return this.maxMillis;
+    }
+
+    /**
+     * Returns the throughput while operations of this kind were running
+     *
+     * @return The bytes per second, or {@code 0} if no time has been recorded
+     */
+    public long getBytesPerSecond() {
+        return this.totalMillis > 0 ? this.bytes * 1000 / this.totalMillis : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder(this.operation).append(' ').append(this.count);
+        if (this.failures > 0) {
+            summary.append(" (").append(this.failures).append(" failed)");
+        }
+        if (this.bytes > 0) {
+            summary.append(", ").append(formatBytes(this.bytes)).append(" at ")
+                    .append(formatBytes(getBytesPerSecond())).append("/s");
+        }
+        return summary.append(", p50 ").append(this.p50Millis).append(" ms, p99 ").append(this.p99Millis)
+                .append(" ms, max ").append(this.maxMillis).append(" ms").toString();
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format("%.1f %siB", bytes / (double) (1L << (unit * 10)), "KMGTPE".charAt(unit - 1));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.metrics;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the S3 operations and requests of a wagon session or of a whole bucket. Operations are recorded by the
+ * wagon and roll up into the metrics of the bucket, if any; requests, retries and throttling responses are recorded
+ * per bucket by the {@link MetricsInterceptor} of the client.
+ */
+public final class S3Metrics implements S3MetricsMXBean {
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final S3Metrics parent;
+
+    private final Map<Operation, OperationMetrics> operations = new EnumMap<>(Operation.class);
+
+    private final LongAdder executions = new LongAdder();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder throttledResponses = new LongAdder();
+
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+
+    private final AtomicInteger peakConcurrentRequests = new AtomicInteger();
+
+    public S3Metrics() {
+        this(null);
+    }
+
+    public S3Metrics(S3Metrics parent) {
+        this.parent = parent;
+        for (Operation operation : Operation.values()) {
+            this.operations.put(operation, new OperationMetrics());
+        }
+    }
+
+    public S3Metrics getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Records a completed operation
+     *
+     * @param operation The kind of operation
+     * @param nanos     How long it took
+     * @param bytes     The number of bytes transferred
+     * @param success   {@code false} if it failed
+     */
+    public void record(Operation operation, long nanos, long bytes, boolean success) {
+        this.operations.get(operation).record(nanos, bytes, success);
+        if (this.parent != null) {
+            this.parent.record(operation, nanos, bytes, success);
+        }
+    }
+
+    void executionStarted() {
+        this.executions.increment();
+    }
+
+    void requestStarted() {
+        this.requests.increment();
+        this.peakConcurrentRequests.accumulateAndGet(this.concurrentRequests.incrementAndGet(), Math::max);
+    }
+
+    void requestFinished(int statusCode) {
+        this.concurrentRequests.decrementAndGet();
+        if (statusCode == SERVICE_UNAVAILABLE || statusCode == TOO_MANY_REQUESTS) {
+            this.throttledResponses.increment();
+        }
+    }
+
+    public OperationSnapshot getOperation(Operation operation) {
+        return this.operations.get(operation).snapshot(operation);
+    }
+
+    @Override
+    public Map<String, OperationSnapshot> getOperations() {
+        Map<String, OperationSnapshot> snapshots = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            snapshots.put(operation.name(), getOperation(operation));
+        }
+        return snapshots;
+    }
+
+    @Override
+    public long getRequests() {
+        return this.requests.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return Math.max(0, this.requests.sum() - this.executions.sum());
+    }
+
+    @Override
+    public long getThrottledResponses() {
+        return this.throttledResponses.sum();
+    }
+
+    @Override
+    public int getPeakConcurrentRequests() {
+        return this.peakConcurrentRequests.get();
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics metrics : this.operations.values()) {
+            metrics.reset();
+        }
+        this.executions.reset();
+        this.requests.reset();
+        this.throttledResponses.reset();
+        this.peakConcurrentRequests.set(this.concurrentRequests.get());
+    }
+
+    /**
+     * Returns a one-line summary of the operations that have been performed
+     *
+     * @return The summary, or an empty string if no operation has been recorded
+     */
+    public String summary() {
+        StringJoiner summary = new StringJoiner("; ");
+        for (Operation operation : Operation.values()) {
+            OperationSnapshot snapshot = getOperation(operation);
+            if (snapshot.getCount() > 0) {
+                summary.add(snapshot.toString());
+            }
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A process-wide registry of the {@link S3Metrics} of every bucket, each of which is exposed as an MXBean named
+ * <code>io.github.kuraun.aws.maven:type=S3Metrics,bucket=&lt;bucket&gt;</code>. A platform MBean server that refuses
+ * the registration only makes the metrics invisible to JMX.
+ */
+public final class S3MetricsRegistry {
+
+    private static final S3MetricsRegistry INSTANCE = new S3MetricsRegistry();
+
+    private static final String DOMAIN = "io.github.kuraun.aws.maven";
+
+    private final Map<String, S3Metrics> buckets = new ConcurrentHashMap<>();
+
+    S3MetricsRegistry() {
+    }
+
+    public static S3MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the metrics of a bucket, registering them on first use
+     *
+     * @param bucketName The name of the bucket
+     * @return The metrics
+     */
+    public S3Metrics getBucketMetrics(String bucketName) {
+        return this.buckets.computeIfAbsent(bucketName, name -> {
+            S3Metrics metrics = new S3Metrics();
+            register(name, metrics);
+            return metrics;
+        });
+    }
+
+    private static void register(String bucketName, S3Metrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":type=S3Metrics,bucket=" + ObjectName.quote(bucketName));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(metrics, name);
+            }
+        } catch (JMException | SecurityException e) {
+            // the metrics are still recorded and summarized
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.util;
+
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public abstract class CompressionUtils {
+
+    public static final String GZIP = "gzip";
+
+    /**
+     * Compiles a comma-separated list of glob patterns. Patterns without a <code>/</code> match the file name in any
+     * directory, e.g. <code>*.pom</code>; others match the whole path, with <code>**</code> matching across
+     * directories.
+     *
+     * @param globs The patterns, may be {@code null}
+     * @return The compiled patterns
+     */
+    public static List<Pattern> compilePatterns(String globs) {
+        if (globs == null || globs.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        for (String glob : globs.split(",")) {
+            String trimmed = glob.trim();
+            if (!trimmed.isEmpty()) {
+                patterns.add(Pattern.compile((trimmed.indexOf('/') == -1 ? "(?:.*/)?" : "") + toRegex(trimmed)));
+            }
+        }
+        return patterns;
+    }
+
+    public static boolean matches(List<Pattern> patterns, String path) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(path).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isGzip(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        for (String encoding : contentEncoding.split(",")) {
+            if (GZIP.equalsIgnoreCase(encoding.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes a response body according to its <code>Content-Encoding</code>
+     *
+     * @param in              The body as received
+     * @param contentEncoding The encoding of the body, may be {@code null}
+     * @param bufferSize      The size of the buffer of the inflater
+     * @return A stream of the decoded body
+     * @throws IOException if the body is not in the format it is declared to be in
+     */
+    public static InputStream decode(InputStream in, String contentEncoding, int bufferSize) throws IOException {
+        return isGzip(contentEncoding) ? new GZIPInputStream(in, bufferSize) : in;
+    }
+
+    /**
+     * Compresses a file with gzip in one pass, reporting the original bytes as they are read. The output does not
+     * depend on when it was written, so compressing the same file again gives the same bytes and the same ETag.
+     *
+     * @param source           The file to compress
+     * @param target           The file to write
+     * @param buffer           The buffer to read through
+     * @param transferProgress Notified of every chunk of the source
+     * @return The size of the compressed file
+     * @throws IOException if reading or writing fails
+     */
+    public static long gzip(Path source, Path target, byte[] buffer, TransferProgress transferProgress)
+            throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), buffer.length)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                transferProgress.notify(buffer, 0, read);
+            }
+        }
+        return Files.size(target);
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.util;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public abstract class DigestUtils {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String SDK_CHECKSUM_MISMATCH = "Data read has a different checksum than expected";
+
+    /**
+     * Computes the ETag S3 assigns to a file uploaded with a single request, i.e. the hex MD5 digest of its content
+     *
+     * @param file The file
+     * @return The ETag, without quotes
+     * @throws IOException if the file cannot be read
+     */
+    public static String eTag(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return toHex(md5(channel, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Computes the ETag S3 assigns to a file uploaded in parts, i.e. the hex MD5 digest of the concatenated MD5
+     * digests of the parts followed by the number of parts. The parts are hashed in parallel on the common
+     * {@link ForkJoinPool}.
+     *
+     * @param file     The file
+     * @param partSize The size of every part but the last
+     * @return The ETag, without quotes
+     * @throws IOException if the file cannot be read
+     */
+    public static String multipartETag(Path file, long partSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int parts = (int) Math.max(1, (size + partSize - 1) / partSize);
+            byte[][] digests = new byte[parts][];
+            try {
+                ForkJoinPool.commonPool().invoke(new PartDigests(channel, size, partSize, digests, 0, parts));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            MessageDigest digest = newMd5();
+            for (byte[] part : digests) {
+                digest.update(part);
+            }
+            return toHex(digest.digest()) + "-" + parts;
+        }
+    }
+
+    /**
+     * Returns the number of parts encoded in a multipart ETag
+     *
+     * @param eTag The ETag, with or without quotes
+     * @return The number of parts, or {@code 0} if the ETag is not a multipart ETag
+     */
+    public static int getPartCount(String eTag) {
+        String value = unquote(eTag);
+        int index = value.lastIndexOf('-');
+        if (index == -1) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.substring(index + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public static String unquote(String eTag) {
+        return eTag.length() >= 2 && eTag.startsWith("\"") && eTag.endsWith("\"")
+                ? eTag.substring(1, eTag.length() - 1) : eTag;
+    }
+
+    static byte[] md5(FileChannel channel, long position, long length) throws IOException {
+        MessageDigest digest = newMd5();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(1, length)));
+        long offset = position;
+        long end = position + length;
+        while (offset < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - offset));
+            int read = channel.read(buffer, offset);
+            if (read == -1) {
+                break;
+            }
+            buffer.flip();
+            digest.update(buffer);
+            offset += read;
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Tells whether a failure is the SDK rejecting a single-request upload because the ETag S3 returned differs from
+     * the MD5 digest of the body it sent
+     *
+     * @param failure The failure of the upload
+     * @return {@code true} if S3 stored different content than was sent
+     */
+    public static boolean isChecksumMismatch(Throwable failure) {
+        // the SDK wraps the exception of its interceptor when it unmarshalls the response
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SdkClientException && cause.getMessage() != null
+                    && cause.getMessage().startsWith(SDK_CHECKSUM_MISMATCH)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported", e);
+        }
+    }
+
+    /**
+     * Computes the hex SHA-256 digest of a string, so that a secret can take part in a lookup key without being kept
+     *
+     * @param value The string to digest, encoded as UTF-8
+     * @return The hex SHA-256 digest
+     */
+    public static String sha256(String value) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private static final class PartDigests extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final long partSize;
+
+        private final byte[][] digests;
+
+        private final int from;
+
+        private final int to;
+
+        private PartDigests(FileChannel channel, long size, long partSize, byte[][] digests, int from, int to) {
+            this.channel = channel;
+            this.size = size;
+            this.partSize = partSize;
+            this.digests = digests;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > 1) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new PartDigests(this.channel, this.size, this.partSize, this.digests, this.from, middle),
+                        new PartDigests(this.channel, this.size, this.partSize, this.digests, middle, this.to));
+                return;
+            }
+
+            long position = this.from * this.partSize;
+            try {
+                this.digests[this.from] = md5(this.channel, position, Math.min(this.partSize, this.size - position));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
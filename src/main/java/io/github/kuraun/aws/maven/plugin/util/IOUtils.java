@@ -16,13 +16,21 @@
 
 package io.github.kuraun.aws.maven.plugin.util;
 
+import io.github.kuraun.aws.maven.plugin.data.TransferProgress;
+
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 public abstract class IOUtils {
 
+    public static final int DEFAULT_TRANSFER_BUFFER_SIZE = 128 * 1024;
+
+    public static final int MINIMUM_TRANSFER_BUFFER_SIZE = 4096;
+
     private static final int BUFFER_SIZE = 8192;
 
     public static void copy(InputStream in, OutputStream out) throws IOException {
@@ -39,6 +47,51 @@ public abstract class IOUtils {
         }
     }
 
+    /**
+     * Copies up to <code>count</code> bytes from a stream into a file with positional writes, reporting each chunk
+     * straight from the buffer it was read into
+     *
+     * @param in               The stream to read from
+     * @param out              The channel to write to
+     * @param position         The file position of the first byte
+     * @param count            The maximum number of bytes to copy, or {@link Long#MAX_VALUE} to copy until EOF
+     * @param buffer           The buffer to copy through; larger buffers mean fewer reads, writes and events
+     * @param transferProgress Notified of every chunk, may be {@code null}
+     * @return The number of bytes copied
+     * @throws IOException if reading or writing fails
+     */
+    public static long copy(InputStream in, FileChannel out, long position, long count, byte[] buffer,
+                            TransferProgress transferProgress) throws IOException {
+        long copied = 0;
+        int read;
+        while (copied < count && (read = in.read(buffer, 0, (int) Math.min(buffer.length, count - copied))) != -1) {
+            ByteBuffer source = ByteBuffer.wrap(buffer, 0, read);
+            long offset = position + copied;
+            while (source.hasRemaining()) {
+                offset += out.write(source, offset);
+            }
+            copied += read;
+            if (transferProgress != null) {
+                transferProgress.notify(buffer, 0, read);
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Extends a file to its final length up front by writing its last byte. This only sets the length: most file
+     * systems leave the skipped range sparse, so blocks are still allocated as the content is written
+     *
+     * @param channel The channel of the file
+     * @param length  The final length of the file
+     * @throws IOException if the file cannot be extended
+     */
+    public static void preallocate(FileChannel channel, long length) throws IOException {
+        if (length > channel.size()) {
+            channel.write(ByteBuffer.wrap(new byte[1]), length - 1);
+        }
+    }
+
     public static void closeQuietly(Closeable... closeables) {
         for (Closeable closeable : closeables) {
             if (closeable != null) {
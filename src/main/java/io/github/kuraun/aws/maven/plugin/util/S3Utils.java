@@ -16,11 +16,13 @@
 
 package io.github.kuraun.aws.maven.plugin.util;
 
+import io.github.kuraun.aws.maven.plugin.aws.HttpTransportConfiguration;
 import org.apache.maven.wagon.proxy.ProxyInfo;
 import org.apache.maven.wagon.proxy.ProxyInfoProvider;
 import org.apache.maven.wagon.repository.Repository;
 import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.http.apache.ProxyConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 
 import java.net.URI;
 import java.util.Objects;
@@ -43,17 +45,58 @@ public abstract class S3Utils {
         return isNotBlank(basedir) ? appendIfMissing(basedir, "/", "/") : basedir;
     }
 
+    public static ProxyInfo getProxyInfo(ProxyInfoProvider proxyInfoProvider) {
+        return proxyInfoProvider != null ? proxyInfoProvider.getProxyInfo("s3") : null;
+    }
+
     public static ApacheHttpClient.Builder getApacheHttpClientBuilder(ProxyInfoProvider proxyInfoProvider) {
-        if (proxyInfoProvider != null) {
-            ProxyInfo proxyInfo = proxyInfoProvider.getProxyInfo("s3");
-            if (proxyInfo != null) {
-                ProxyConfiguration.Builder proxyConfig =
-                        ProxyConfiguration.builder().endpoint(URI.create("http://" + proxyInfo.getHost() + ":" + proxyInfo.getPort()));
-                return ApacheHttpClient.builder()
-                        .proxyConfiguration(proxyConfig.build());
-            }
+        return getApacheHttpClientBuilder(proxyInfoProvider, HttpTransportConfiguration.defaults());
+    }
+
+    public static ApacheHttpClient.Builder getApacheHttpClientBuilder(ProxyInfoProvider proxyInfoProvider,
+                                                                      HttpTransportConfiguration transport) {
+        ApacheHttpClient.Builder builder = ApacheHttpClient.builder()
+                .maxConnections(transport.getMaxConnections())
+                .useIdleConnectionReaper(transport.isUseIdleConnectionReaper())
+                .expectContinueEnabled(transport.isExpectContinueEnabled());
+        if (transport.getConnectionTimeout() != null) {
+            builder.connectionTimeout(transport.getConnectionTimeout());
+        }
+        if (transport.getSocketTimeout() != null) {
+            builder.socketTimeout(transport.getSocketTimeout());
+        }
+        if (transport.getConnectionAcquisitionTimeout() != null) {
+            builder.connectionAcquisitionTimeout(transport.getConnectionAcquisitionTimeout());
+        }
+        if (transport.getConnectionTimeToLive() != null) {
+            builder.connectionTimeToLive(transport.getConnectionTimeToLive());
         }
+        if (transport.getConnectionMaxIdleTime() != null) {
+            builder.connectionMaxIdleTime(transport.getConnectionMaxIdleTime());
+        }
+
+        ProxyInfo proxyInfo = getProxyInfo(proxyInfoProvider);
+        if (proxyInfo != null) {
+            ProxyConfiguration.Builder proxyConfig =
+                    ProxyConfiguration.builder().endpoint(URI.create("http://" + proxyInfo.getHost() + ":" + proxyInfo.getPort()));
+            builder.proxyConfiguration(proxyConfig.build());
+        }
+        return builder;
+    }
 
-        return ApacheHttpClient.builder();
+    public static NettyNioAsyncHttpClient.Builder getNettyHttpClientBuilder(HttpTransportConfiguration transport) {
+        NettyNioAsyncHttpClient.Builder builder = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(transport.getMaxConnections());
+        if (transport.getConnectionTimeout() != null) {
+            builder.connectionTimeout(transport.getConnectionTimeout());
+        }
+        if (transport.getSocketTimeout() != null) {
+            builder.readTimeout(transport.getSocketTimeout());
+            builder.writeTimeout(transport.getSocketTimeout());
+        }
+        if (transport.getConnectionAcquisitionTimeout() != null) {
+            builder.connectionAcquisitionTimeout(transport.getConnectionAcquisitionTimeout());
+        }
+        return builder;
     }
 }
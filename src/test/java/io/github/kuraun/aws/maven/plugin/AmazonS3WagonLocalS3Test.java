@@ -0,0 +1,676 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin;
+
+import io.github.kuraun.aws.maven.plugin.metrics.Operation;
+import io.github.kuraun.aws.maven.plugin.metrics.S3Metrics;
+import io.github.kuraun.aws.maven.plugin.metrics.S3MetricsRegistry;
+import io.github.kuraun.aws.maven.plugin.testing.LocalS3Server;
+import io.github.kuraun.aws.maven.plugin.util.DigestUtils;
+import org.apache.maven.wagon.ResourceDoesNotExistException;
+import org.apache.maven.wagon.TransferFailedException;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.apache.maven.wagon.observers.ChecksumObserver;
+import org.apache.maven.wagon.repository.Repository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AmazonS3WagonLocalS3Test {
+
+    private static final String BUCKET_NAME = "bucket";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private LocalS3Server server;
+
+    private AmazonS3Wagon wagon;
+
+    @Before
+    public void before() throws Exception {
+        this.server = new LocalS3Server();
+        this.server.createBucket(BUCKET_NAME);
+        this.wagon = newWagon(false);
+        connect(this.wagon);
+    }
+
+    @After
+    public void after() throws Exception {
+        this.wagon.disconnect();
+        this.server.close();
+    }
+
+    @Test
+    public void putAndGet() throws Exception {
+        // GIVEN
+        byte[] content = randomBytes(10_000);
+        File source = createFile(content);
+        File destination = new File(this.temporaryFolder.getRoot(), "downloaded.jar");
+
+        // WHEN
+        this.wagon.put(source, "foo/1.0/foo-1.0.jar");
+        this.wagon.get("foo/1.0/foo-1.0.jar", destination);
+
+        // THEN
+        assertThat(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar"), equalTo(content));
+        assertThat(Files.readAllBytes(destination.toPath()), equalTo(content));
+    }
+
+    @Test
+    public void putMultipartAndGetRanged() throws Exception {
+        // GIVEN
+        this.wagon.setMultipartThreshold(6 * 1024 * 1024);
+        this.wagon.setMultipartPartSize(5 * 1024 * 1024);
+        this.wagon.setDownloadPartSize(1024 * 1024);
+        byte[] content = randomBytes(12 * 1024 * 1024 + 17);
+        File source = createFile(content);
+        File destination = new File(this.temporaryFolder.getRoot(), "downloaded.zip");
+
+        // WHEN
+        this.wagon.put(source, "foo/1.0/foo-1.0.zip");
+        this.server.resetRequestCounts();
+        this.wagon.get("foo/1.0/foo-1.0.zip", destination);
+
+        // THEN
+        assertThat(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.zip"), equalTo(content));
+        assertThat(Files.readAllBytes(destination.toPath()), equalTo(content));
+        assertThat(this.server.getRequestCount("GET"), equalTo(13));
+    }
+
+    @Test
+    public void putSkipsUnchanged() throws Exception {
+        // GIVEN
+        this.wagon.setSkipUnchanged(true);
+        this.wagon.setMultipartThreshold(6 * 1024 * 1024);
+        this.wagon.setMultipartPartSize(5 * 1024 * 1024);
+        File small = createFile(randomBytes(10_000));
+        File large = createFile(randomBytes(12 * 1024 * 1024 + 17));
+        File changed = createFile(randomBytes(10_001));
+        this.wagon.put(small, "foo/1.0/foo-1.0.pom");
+        this.wagon.put(large, "foo/1.0/foo-1.0.zip");
+
+        // WHEN
+        this.server.resetRequestCounts();
+        this.wagon.put(small, "foo/1.0/foo-1.0.pom");
+        this.wagon.put(large, "foo/1.0/foo-1.0.zip");
+        int unchangedPuts = this.server.getRequestCount("PUT") + this.server.getRequestCount("POST");
+        this.wagon.put(changed, "foo/1.0/foo-1.0.pom");
+
+        // THEN
+        assertThat(unchangedPuts, equalTo(0));
+        assertThat(this.server.getRequestCount("PUT"), equalTo(1));
+        assertThat(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.pom"),
+                equalTo(Files.readAllBytes(changed.toPath())));
+    }
+
+    @Test
+    public void resourceExistsAndList() throws Exception {
+        // GIVEN
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.pom", new byte[]{1});
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar", new byte[]{2});
+        this.server.putObject(BUCKET_NAME, "repo/foo/2.0/foo-2.0.pom", new byte[]{3});
+
+        // WHEN / THEN
+        assertTrue(this.wagon.resourceExists("foo/1.0/foo-1.0.pom"));
+        assertFalse(this.wagon.resourceExists("foo/1.0/foo-1.0.war"));
+        assertThat(this.wagon.getFileList("foo/1.0/"), containsInAnyOrder("foo-1.0.pom", "foo-1.0.jar"));
+        assertThat(this.wagon.getFileList("foo/"), containsInAnyOrder("1.0/", "2.0/"));
+    }
+
+    @Test(expected = ResourceDoesNotExistException.class)
+    public void getMissing() throws Exception {
+        this.wagon.get("foo/1.0/missing.jar", new File(this.temporaryFolder.getRoot(), "missing.jar"));
+    }
+
+    @Test
+    public void getMissingRangedLeavesNoFile() throws Exception {
+        // GIVEN
+        this.wagon.setDownloadPartSize(1024 * 1024);
+        File destination = new File(this.temporaryFolder.getRoot(), "missing.jar");
+
+        // WHEN
+        try {
+            this.wagon.get("foo/1.0/missing.jar", destination);
+            fail("Expected a ResourceDoesNotExistException");
+        } catch (ResourceDoesNotExistException e) {
+            // expected
+        }
+
+        // THEN
+        assertFalse(destination.exists());
+    }
+
+    @Test
+    public void stalledTransfersFail() throws Exception {
+        // GIVEN
+        AmazonS3Wagon stalledWagon = newWagon(false);
+        stalledWagon.setApiCallTimeout(300);
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar", randomBytes(1000));
+        File source = createFile(randomBytes(1000));
+        File destination = new File(this.temporaryFolder.getRoot(), "stalled.jar");
+
+        // WHEN
+        connect(stalledWagon);
+        this.server.setLatency(2000);
+        try {
+            // THEN
+            try {
+                stalledWagon.get("foo/1.0/foo-1.0.jar", destination);
+                fail("Expected a TransferFailedException");
+            } catch (TransferFailedException e) {
+                // expected
+            }
+            try {
+                stalledWagon.put(source, "foo/1.0/foo-1.1.jar");
+                fail("Expected a TransferFailedException");
+            } catch (TransferFailedException e) {
+                // expected
+            }
+        } finally {
+            this.server.setLatency(0);
+            stalledWagon.disconnect();
+        }
+    }
+
+    @Test
+    public void putAndGetAsync() throws Exception {
+        // GIVEN
+        AmazonS3Wagon asyncWagon = newWagon(true);
+        byte[] content = randomBytes(10_000);
+        File source = createFile(content);
+        File destination = new File(this.temporaryFolder.getRoot(), "downloaded.jar");
+        File empty = createFile(new byte[0]);
+        File emptyDestination = new File(this.temporaryFolder.getRoot(), "empty.txt");
+
+        // WHEN
+        connect(asyncWagon);
+        try {
+            asyncWagon.put(source, "foo/1.0/foo-1.0.jar");
+            asyncWagon.get("foo/1.0/foo-1.0.jar", destination);
+            asyncWagon.put(empty, "foo/1.0/empty.txt");
+            asyncWagon.get("foo/1.0/empty.txt", emptyDestination);
+        } finally {
+            asyncWagon.disconnect();
+        }
+
+        // THEN
+        assertThat(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar"), equalTo(content));
+        assertThat(Files.readAllBytes(destination.toPath()), equalTo(content));
+        assertThat(emptyDestination.length(), equalTo(0L));
+    }
+
+    @Test
+    public void putMultipartAndGetRangedAsync() throws Exception {
+        // GIVEN
+        AmazonS3Wagon asyncWagon = newWagon(true);
+        asyncWagon.setMultipartThreshold(6 * 1024 * 1024);
+        asyncWagon.setMultipartPartSize(5 * 1024 * 1024);
+        asyncWagon.setDownloadPartSize(1024 * 1024);
+        asyncWagon.setMaxConcurrency(3);
+        byte[] content = randomBytes(12 * 1024 * 1024 + 17);
+        File source = createFile(content);
+        File destination = new File(this.temporaryFolder.getRoot(), "downloaded.zip");
+
+        // WHEN
+        connect(asyncWagon);
+        try {
+            asyncWagon.put(source, "foo/1.0/foo-1.0.zip");
+            this.server.resetRequestCounts();
+            asyncWagon.get("foo/1.0/foo-1.0.zip", destination);
+        } finally {
+            asyncWagon.disconnect();
+        }
+
+        // THEN
+        assertThat(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.zip"), equalTo(content));
+        assertThat(Files.readAllBytes(destination.toPath()), equalTo(content));
+        assertThat(this.server.getRequestCount("GET"), equalTo(13));
+    }
+
+    @Test
+    public void putMultipartAsyncReportsInFileOrder() throws Exception {
+        // GIVEN
+        AmazonS3Wagon asyncWagon = newWagon(true);
+        asyncWagon.setMultipartThreshold(6 * 1024 * 1024);
+        asyncWagon.setMultipartPartSize(5 * 1024 * 1024);
+        asyncWagon.setMaxConcurrency(3);
+        byte[] content = randomBytes(12 * 1024 * 1024 + 17);
+        ChecksumObserver checksum = new ChecksumObserver("SHA-1");
+        asyncWagon.addTransferListener(checksum);
+
+        // WHEN
+        connect(asyncWagon);
+        try {
+            asyncWagon.put(createFile(content), "foo/1.0/foo-1.0.zip");
+        } finally {
+            asyncWagon.disconnect();
+        }
+
+        // THEN
+        assertThat(checksum.getActualChecksum(),
+                equalTo(DigestUtils.toHex(MessageDigest.getInstance("SHA-1").digest(content))));
+    }
+
+    @Test
+    public void putMultipartMemoryMappedAsync() throws Exception {
+        // GIVEN
+        AmazonS3Wagon asyncWagon = newWagon(true);
+        asyncWagon.setMemoryMappedUploads(true);
+        asyncWagon.setMultipartThreshold(6 * 1024 * 1024);
+        asyncWagon.setMultipartPartSize(5 * 1024 * 1024);
+        asyncWagon.setMaxConcurrency(3);
+        byte[] small = randomBytes(100_000);
+        byte[] large = randomBytes(12 * 1024 * 1024 + 17);
+
+        // WHEN
+        connect(asyncWagon);
+        try {
+            asyncWagon.put(createFile(small), "foo/1.0/foo-1.0.pom");
+            asyncWagon.put(createFile(large), "foo/1.0/foo-1.0.zip");
+        } finally {
+            asyncWagon.disconnect();
+        }
+
+        // THEN
+        assertThat(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.pom"), equalTo(small));
+        assertThat(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.zip"), equalTo(large));
+    }
+
+    @Test(expected = ResourceDoesNotExistException.class)
+    public void getMissingAsync() throws Exception {
+        AmazonS3Wagon asyncWagon = newWagon(true);
+        connect(asyncWagon);
+        try {
+            asyncWagon.get("foo/1.0/missing.jar", new File(this.temporaryFolder.getRoot(), "missing.jar"));
+        } finally {
+            asyncWagon.disconnect();
+        }
+    }
+
+    @Test
+    public void getMissingAsyncLeavesNoFile() throws Exception {
+        // GIVEN
+        AmazonS3Wagon asyncWagon = newWagon(true);
+        File destination = new File(this.temporaryFolder.getRoot(), "missing.jar");
+
+        // WHEN
+        connect(asyncWagon);
+        try {
+            asyncWagon.get("foo/1.0/missing.jar", destination);
+            fail("Expected a ResourceDoesNotExistException");
+        } catch (ResourceDoesNotExistException e) {
+            // expected
+        } finally {
+            asyncWagon.disconnect();
+        }
+
+        // THEN
+        assertFalse(destination.exists());
+    }
+
+    @Test
+    public void getIfNewerUsesSingleConditionalGet() throws Exception {
+        // GIVEN
+        byte[] content = randomBytes(10_000);
+        this.server.putObject(BUCKET_NAME, "repo/foo/maven-metadata.xml", content);
+        File destination = createFile(new byte[]{42});
+        long future = System.currentTimeMillis() + 60_000;
+
+        // WHEN
+        this.server.resetRequestCounts();
+        boolean notNewer = this.wagon.getIfNewer("foo/maven-metadata.xml", destination, future);
+        byte[] untouched = Files.readAllBytes(destination.toPath());
+        boolean newer = this.wagon.getIfNewer("foo/maven-metadata.xml", destination, 1000);
+
+        // THEN
+        assertFalse(notNewer);
+        assertThat(untouched, equalTo(new byte[]{42}));
+        assertTrue(newer);
+        assertThat(Files.readAllBytes(destination.toPath()), equalTo(content));
+        assertThat(this.server.getRequestCount("HEAD"), equalTo(0));
+        assertThat(this.server.getRequestCount("GET"), equalTo(2));
+        assertThat(this.server.getResponseCount(304), equalTo(1));
+    }
+
+    @Test
+    public void getRevalidatesContentCache() throws Exception {
+        // GIVEN
+        AmazonS3Wagon cachingWagon = newWagon(false);
+        cachingWagon.setContentCache(true);
+        cachingWagon.setContentCacheDirectory(this.temporaryFolder.newFolder("content-cache").getPath());
+        byte[] content = randomBytes(10_000);
+        byte[] changed = randomBytes(20_000);
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar", content);
+        File first = new File(this.temporaryFolder.getRoot(), "first.jar");
+        File second = new File(this.temporaryFolder.getRoot(), "second.jar");
+        File third = new File(this.temporaryFolder.getRoot(), "third.jar");
+
+        // WHEN
+        connect(cachingWagon);
+        try {
+            cachingWagon.get("foo/1.0/foo-1.0.jar", first);
+            cachingWagon.get("foo/1.0/foo-1.0.jar", second);
+            this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar", changed);
+            cachingWagon.get("foo/1.0/foo-1.0.jar", third);
+        } finally {
+            cachingWagon.disconnect();
+        }
+
+        // THEN
+        assertThat(Files.readAllBytes(first.toPath()), equalTo(content));
+        assertThat(Files.readAllBytes(second.toPath()), equalTo(content));
+        assertThat(Files.readAllBytes(third.toPath()), equalTo(changed));
+        assertThat(this.server.getResponseCount(304), equalTo(1));
+    }
+
+    @Test
+    public void connectResolvesRegionOnce() throws Exception {
+        try (LocalS3Server regional = new LocalS3Server("eu-west-3")) {
+            // GIVEN
+            regional.createBucket("regional");
+            File cacheFile = new File(this.temporaryFolder.getRoot(), "regions.properties");
+
+            // WHEN
+            for (int i = 0; i < 2; i++) {
+                AmazonS3Wagon regionalWagon = new AmazonS3Wagon();
+                regionalWagon.setEndpoint(regional.getEndpoint().toString());
+                regionalWagon.setPathStyleAccess(true);
+                regionalWagon.setRegionCacheFile(cacheFile.getPath());
+                regionalWagon.connect(new Repository("regional", "s3://regional/repo"), authenticationInfo());
+                regionalWagon.disconnect();
+            }
+
+            // THEN
+            assertThat(regional.getRequestCount("HEAD"), equalTo(1));
+            assertTrue(new String(Files.readAllBytes(cacheFile.toPath()), "ISO-8859-1").contains("eu-west-3"));
+        }
+    }
+
+    @Test
+    public void directorySnapshotsAnswerSiblingChecks() throws Exception {
+        // GIVEN
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.pom", new byte[]{1});
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar", new byte[]{2});
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar.sha1", new byte[]{3});
+        AmazonS3Wagon snapshotWagon = newWagon(false);
+        snapshotWagon.setDirectorySnapshots(true);
+        connect(snapshotWagon);
+
+        try {
+            // WHEN
+            this.server.resetRequestCounts();
+            boolean pom = snapshotWagon.resourceExists("foo/1.0/foo-1.0.pom");
+            boolean jar = snapshotWagon.resourceExists("foo/1.0/foo-1.0.jar");
+            boolean sha1 = snapshotWagon.resourceExists("foo/1.0/foo-1.0.jar.sha1");
+            boolean war = snapshotWagon.resourceExists("foo/1.0/foo-1.0.war");
+            int listsBeforePut = this.server.getRequestCount("GET");
+            snapshotWagon.put(createFile(new byte[]{4}), "foo/1.0/foo-1.0.war");
+            boolean warAfterPut = snapshotWagon.resourceExists("foo/1.0/foo-1.0.war");
+
+            // THEN
+            assertTrue(pom && jar && sha1 && warAfterPut);
+            assertFalse(war);
+            assertThat(listsBeforePut, equalTo(1));
+            assertThat(this.server.getRequestCount("HEAD"), equalTo(0));
+        } finally {
+            snapshotWagon.disconnect();
+        }
+    }
+
+    @Test
+    public void prefetchesSiblingsOfPoms() throws Exception {
+        // GIVEN
+        byte[] jar = randomBytes(100_000);
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.pom", new byte[]{1});
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar", jar);
+        this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar.sha1", new byte[]{2});
+        AmazonS3Wagon prefetchingWagon = newWagon(false);
+        prefetchingWagon.setPrefetch(true);
+        connect(prefetchingWagon);
+        File destination = new File(this.temporaryFolder.getRoot(), "downloaded.jar");
+
+        try {
+            // WHEN
+            this.server.resetRequestCounts();
+            prefetchingWagon.get("foo/1.0/foo-1.0.pom", new File(this.temporaryFolder.getRoot(), "downloaded.pom"));
+            boolean pomSha1Missing = false;
+            try {
+                prefetchingWagon.get("foo/1.0/foo-1.0.pom.sha1",
+                        new File(this.temporaryFolder.getRoot(), "downloaded.pom.sha1"));
+            } catch (ResourceDoesNotExistException e) {
+                pomSha1Missing = true;
+            }
+            prefetchingWagon.get("foo/1.0/foo-1.0.jar", destination);
+            prefetchingWagon.get("foo/1.0/foo-1.0.jar.sha1",
+                    new File(this.temporaryFolder.getRoot(), "downloaded.jar.sha1"));
+
+            // THEN
+            assertTrue(pomSha1Missing);
+            assertThat(Files.readAllBytes(destination.toPath()), equalTo(jar));
+            assertThat(this.server.getRequestCount("GET"), equalTo(4));
+        } finally {
+            prefetchingWagon.disconnect();
+        }
+    }
+
+    @Test
+    public void recordsMetrics() throws Exception {
+        // GIVEN
+        byte[] content = randomBytes(10_000);
+        File source = createFile(content);
+        File destination = new File(this.temporaryFolder.getRoot(), "downloaded.jar");
+        S3Metrics bucket = this.wagon.getMetrics().getParent();
+        long requests = bucket.getRequests();
+
+        // WHEN
+        this.wagon.put(source, "foo/1.0/foo-1.0.jar");
+        this.wagon.get("foo/1.0/foo-1.0.jar", destination);
+        this.wagon.resourceExists("foo/1.0/foo-1.0.war");
+
+        // THEN
+        S3Metrics metrics = this.wagon.getMetrics();
+        assertThat(metrics.getOperation(Operation.PUT).getCount(), equalTo(1L));
+        assertThat(metrics.getOperation(Operation.PUT).getBytes(), equalTo(10_000L));
+        assertThat(metrics.getOperation(Operation.MARKER).getCount(), equalTo(3L));
+        assertThat(metrics.getOperation(Operation.GET).getCount(), equalTo(1L));
+        assertThat(metrics.getOperation(Operation.GET).getBytes(), equalTo(10_000L));
+        assertThat(metrics.getOperation(Operation.HEAD).getFailures(), equalTo(1L));
+        assertThat(bucket, sameInstance(S3MetricsRegistry.getInstance().getBucketMetrics(BUCKET_NAME)));
+        assertThat(bucket.getRequests() - requests, equalTo(6L));
+    }
+
+    @Test
+    public void readsGoToTheFastestReplica() throws Exception {
+        try (LocalS3Server replica = new LocalS3Server()) {
+            // GIVEN
+            byte[] content = randomBytes(10_000);
+            this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar", content);
+            replica.putObject("mirror", "repo/foo/1.0/foo-1.0.jar", content);
+            this.server.setLatency(200);
+            AmazonS3Wagon replicatedWagon = newWagon(false);
+            replicatedWagon.setReadReplicas("mirror@" + replica.getEndpoint());
+            connect(replicatedWagon);
+            File destination = new File(this.temporaryFolder.getRoot(), "downloaded.jar");
+
+            try {
+                // WHEN
+                this.server.resetRequestCounts();
+                replica.resetRequestCounts();
+                for (int i = 0; i < 3; i++) {
+                    replicatedWagon.get("foo/1.0/foo-1.0.jar", destination);
+                }
+                boolean exists = replicatedWagon.resourceExists("foo/1.0/foo-1.0.jar");
+                replicatedWagon.put(createFile(content), "foo/1.0/foo-1.0.war");
+
+                // THEN
+                assertTrue(exists);
+                assertThat(Files.readAllBytes(destination.toPath()), equalTo(content));
+                assertThat(replica.getRequestCount("GET"), equalTo(3));
+                assertThat(replica.getRequestCount("PUT"), equalTo(0));
+                assertThat(this.server.getRequestCount("GET"), equalTo(0));
+                // the file and its three directory markers
+                assertThat(this.server.getRequestCount("PUT"), equalTo(4));
+            } finally {
+                replicatedWagon.disconnect();
+            }
+        }
+    }
+
+    @Test
+    public void readsFallBackToTheRepositoryBucket() throws Exception {
+        try (LocalS3Server replica = new LocalS3Server()) {
+            // GIVEN
+            this.server.putObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar", new byte[]{1});
+            this.server.putObject(BUCKET_NAME, "repo/foo/1.1/foo-1.1.jar", new byte[]{2});
+            replica.putObject("mirror", "repo/foo/1.0/foo-1.0.jar", new byte[]{1});
+            this.server.setLatency(100);
+            AmazonS3Wagon replicatedWagon = newWagon(false);
+            replicatedWagon.setMaxRetries(0);
+            replicatedWagon.setReadReplicas("mirror@" + replica.getEndpoint());
+            connect(replicatedWagon);
+            File destination = new File(this.temporaryFolder.getRoot(), "downloaded.jar");
+
+            try {
+                // WHEN
+                this.server.resetRequestCounts();
+                replicatedWagon.get("foo/1.1/foo-1.1.jar", destination);
+                byte[] notYetReplicated = Files.readAllBytes(destination.toPath());
+                replica.close();
+                replicatedWagon.get("foo/1.0/foo-1.0.jar", destination);
+
+                // THEN
+                assertThat(notYetReplicated, equalTo(new byte[]{2}));
+                assertThat(Files.readAllBytes(destination.toPath()), equalTo(new byte[]{1}));
+                assertThat(this.server.getRequestCount("GET"), equalTo(2));
+            } finally {
+                replicatedWagon.disconnect();
+            }
+        }
+    }
+
+    @Test
+    public void compressesMatchingResources() throws Exception {
+        // GIVEN
+        StringBuilder pom = new StringBuilder("<project>");
+        for (int i = 0; i < 500; i++) {
+            pom.append("<dependency><groupId>foo</groupId><artifactId>bar</artifactId></dependency>");
+        }
+        byte[] content = pom.append("</project>").toString().getBytes("UTF-8");
+        byte[] jar = randomBytes(10_000);
+        AmazonS3Wagon compressingWagon = newWagon(false);
+        compressingWagon.setCompressPatterns("*.pom");
+        connect(compressingWagon);
+        File destination = new File(this.temporaryFolder.getRoot(), "downloaded.pom");
+
+        try {
+            // WHEN
+            compressingWagon.put(createFile(content), "foo/1.0/foo-1.0.pom");
+            compressingWagon.put(createFile(jar), "foo/1.0/foo-1.0.jar");
+            this.wagon.get("foo/1.0/foo-1.0.pom", destination);
+
+            // THEN
+            assertThat(this.server.getObjectHeaders(BUCKET_NAME, "repo/foo/1.0/foo-1.0.pom").get("Content-Encoding"),
+                    equalTo("gzip"));
+            assertTrue(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.pom").length < content.length / 10);
+            assertFalse(this.server.getObjectHeaders(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar")
+                    .containsKey("Content-Encoding"));
+            assertThat(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.jar"), equalTo(jar));
+            assertThat(Files.readAllBytes(destination.toPath()), equalTo(content));
+        } finally {
+            compressingWagon.disconnect();
+        }
+    }
+
+    @Test
+    public void decompressesEncodedResourcesAsync() throws Exception {
+        // GIVEN
+        StringBuilder text = new StringBuilder();
+        Random random = new Random(7);
+        while (text.length() < 3 * 1024 * 1024) {
+            text.append(Long.toHexString(random.nextLong())).append('\n');
+        }
+        byte[] content = text.toString().getBytes("UTF-8");
+        AmazonS3Wagon compressingWagon = newWagon(false);
+        compressingWagon.setCompressPatterns("*.txt");
+        AmazonS3Wagon asyncWagon = newWagon(true);
+        asyncWagon.setDownloadPartSize(1024 * 1024);
+        File destination = new File(this.temporaryFolder.getRoot(), "downloaded.txt");
+
+        // WHEN
+        connect(compressingWagon);
+        connect(asyncWagon);
+        try {
+            compressingWagon.put(createFile(content), "foo/1.0/foo-1.0.txt");
+            asyncWagon.get("foo/1.0/foo-1.0.txt", destination);
+        } finally {
+            compressingWagon.disconnect();
+            asyncWagon.disconnect();
+        }
+
+        // THEN
+        assertTrue(this.server.getObject(BUCKET_NAME, "repo/foo/1.0/foo-1.0.txt").length > 1024 * 1024);
+        assertThat(Files.readAllBytes(destination.toPath()), equalTo(content));
+    }
+
+    private AmazonS3Wagon newWagon(boolean asyncTransport) {
+        AmazonS3Wagon wagon = new AmazonS3Wagon();
+        wagon.setEndpoint(this.server.getEndpoint().toString());
+        wagon.setPathStyleAccess(true);
+        wagon.setAsyncTransport(asyncTransport);
+        wagon.setRegionCacheFile(new File(this.temporaryFolder.getRoot(), "bucket-regions.properties").getPath());
+        return wagon;
+    }
+
+    private static void connect(AmazonS3Wagon wagon) throws Exception {
+        wagon.connect(new Repository("local", "s3://" + BUCKET_NAME + "/repo"), authenticationInfo());
+    }
+
+    private static AuthenticationInfo authenticationInfo() {
+        AuthenticationInfo authenticationInfo = new AuthenticationInfo();
+        authenticationInfo.setUserName("akid");
+        authenticationInfo.setPassword("skid");
+        return authenticationInfo;
+    }
+
+    private File createFile(byte[] content) throws Exception {
+        File file = this.temporaryFolder.newFile();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -31,23 +31,46 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import java.io.File;
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.delete;
+import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 // WireMockRule is not still work.
 public class AmazonS3WagonTest {
@@ -210,4 +233,107 @@ public class AmazonS3WagonTest {
                 getTransferProgress(TransferEvent.REQUEST_GET));
         assertTrue(target.exists());
     }
+
+    @Test
+    public void putResourceWritesDirectoryMarkersOnce()
+            throws TransferFailedException, ResourceDoesNotExistException {
+        S3Client amazonS3 = mock(S3Client.class);
+        AmazonS3Wagon markerWagon = new AmazonS3Wagon(amazonS3, BUCKET_NAME, BASE_DIRECTORY);
+        File source = new File("src/test/resources/test.txt");
+
+        markerWagon.putResource(source, "com/acme/foo/1.0/foo-1.0.jar",
+                getTransferProgress(TransferEvent.REQUEST_PUT));
+        markerWagon.putResource(source, "com/acme/foo/1.0/foo-1.0.pom",
+                getTransferProgress(TransferEvent.REQUEST_PUT));
+        markerWagon.putResource(source, "com/acme/bar/1.0/bar-1.0.pom",
+                getTransferProgress(TransferEvent.REQUEST_PUT));
+
+        assertThat(getPutKeys(amazonS3), contains("repo/", "repo/com/", "repo/com/acme/",
+                "repo/com/acme/foo/", "repo/com/acme/foo/1.0/", "repo/com/acme/foo/1.0/foo-1.0.jar",
+                "repo/com/acme/foo/1.0/foo-1.0.pom", "repo/com/acme/bar/", "repo/com/acme/bar/1.0/",
+                "repo/com/acme/bar/1.0/bar-1.0.pom"));
+    }
+
+    @Test
+    public void putResourceWithoutDirectoryMarkers()
+            throws TransferFailedException, ResourceDoesNotExistException {
+        S3Client amazonS3 = mock(S3Client.class);
+        AmazonS3Wagon markerWagon = new AmazonS3Wagon(amazonS3, BUCKET_NAME, BASE_DIRECTORY);
+        markerWagon.setCreateDirectoryMarkers(false);
+
+        markerWagon.putResource(new File("src/test/resources/test.txt"), "com/acme/foo/1.0/foo-1.0.jar",
+                getTransferProgress(TransferEvent.REQUEST_PUT));
+
+        assertThat(getPutKeys(amazonS3), contains("repo/com/acme/foo/1.0/foo-1.0.jar"));
+    }
+
+    @Test
+    public void doesRemoteResourceExistCachesMetadata()
+            throws TransferFailedException, ResourceDoesNotExistException {
+        S3Client amazonS3 = mock(S3Client.class);
+        when(amazonS3.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(NoSuchKeyException.builder().statusCode(404).build())
+                .thenReturn(HeadObjectResponse.builder().lastModified(Instant.now()).build());
+        AmazonS3Wagon cachingWagon = new AmazonS3Wagon(amazonS3, BUCKET_NAME, BASE_DIRECTORY);
+        cachingWagon.setCreateDirectoryMarkers(false);
+
+        assertFalse(cachingWagon.doesRemoteResourceExist(FILE_NAME));
+        assertFalse(cachingWagon.doesRemoteResourceExist(FILE_NAME));
+        verify(amazonS3, times(1)).headObject(any(HeadObjectRequest.class));
+
+        cachingWagon.putResource(new File("src/test/resources/test.txt"), FILE_NAME,
+                getTransferProgress(TransferEvent.REQUEST_PUT));
+
+        assertTrue(cachingWagon.doesRemoteResourceExist(FILE_NAME));
+        assertTrue(cachingWagon.isRemoteResourceNewer(FILE_NAME, 0));
+        verify(amazonS3, times(2)).headObject(any(HeadObjectRequest.class));
+    }
+
+    @Test
+    public void putResourceDeletesObjectOnChecksumMismatch() throws ResourceDoesNotExistException {
+        S3Client amazonS3 = mock(S3Client.class);
+        when(amazonS3.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenThrow(
+                SdkClientException.create("Data read has a different checksum than expected. Was 0x01, but expected "
+                        + "0x02"));
+        AmazonS3Wagon verifyingWagon = new AmazonS3Wagon(amazonS3, BUCKET_NAME, BASE_DIRECTORY);
+        verifyingWagon.setCreateDirectoryMarkers(false);
+
+        try {
+            verifyingWagon.putResource(new File("src/test/resources/test.txt"), FILE_NAME,
+                    getTransferProgress(TransferEvent.REQUEST_PUT));
+            fail();
+        } catch (TransferFailedException e) {
+            ArgumentCaptor<DeleteObjectRequest> captor = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+            verify(amazonS3).deleteObject(captor.capture());
+            assertThat(captor.getValue().key(), equalTo(BASE_DIRECTORY + FILE_NAME));
+        }
+    }
+
+    @Test
+    public void putResourceDeletesObjectRejectedBySdkChecksum() throws ResourceDoesNotExistException {
+        stubFor(put(urlMatching(".*")).willReturn(
+                aResponse().withStatus(200).withHeader("ETag", "\"0123456789abcdef0123456789abcdef\"")));
+        stubFor(delete(urlMatching(".*")).willReturn(aResponse().withStatus(204)));
+        S3Client amazonS3 = S3Client.builder().credentialsProvider(
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("akid", "skid")))
+                .region(Region.AP_NORTHEAST_1).endpointOverride(URI.create("http://localhost:" + mockServer.port()))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true)
+                        .checksumValidationEnabled(true).build()).build();
+        AmazonS3Wagon verifyingWagon = new AmazonS3Wagon(amazonS3, BUCKET_NAME, BASE_DIRECTORY);
+        verifyingWagon.setCreateDirectoryMarkers(false);
+
+        try {
+            verifyingWagon.putResource(new File("src/test/resources/test.txt"), FILE_NAME,
+                    getTransferProgress(TransferEvent.REQUEST_PUT));
+            fail();
+        } catch (TransferFailedException e) {
+            this.mockServer.verify(deleteRequestedFor(urlMatching(".*" + FILE_NAME)));
+        }
+    }
+
+    private static List<String> getPutKeys(S3Client amazonS3) {
+        ArgumentCaptor<PutObjectRequest> captor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(amazonS3, atLeastOnce()).putObject(captor.capture(), any(RequestBody.class));
+        return captor.getAllValues().stream().map(PutObjectRequest::key).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertFalse;
+
+public class AdaptiveRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter();
+
+    private final long start = System.nanoTime();
+
+    @Test
+    public void unlimitedUntilThrottled() {
+        // WHEN
+        for (int i = 0; i < 100; i++) {
+            assertThat(this.rateLimiter.reserve(this.start + i), equalTo(0L));
+        }
+
+        // THEN
+        assertThat(this.rateLimiter.getRate(), equalTo(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void throttlingPacesRequests() {
+        // GIVEN
+        sendTwentyInOneSecond();
+
+        // WHEN
+        this.rateLimiter.onThrottled(this.start + SECOND, this.start + SECOND);
+
+        // THEN
+        assertThat(this.rateLimiter.getRate(), closeTo(14, 0.001));
+        long interval = SECOND / 14;
+        assertThat((double) this.rateLimiter.reserve(this.start + SECOND), closeTo(interval, 10));
+        assertThat((double) this.rateLimiter.reserve(this.start + SECOND), closeTo(2 * interval, 10));
+    }
+
+    @Test
+    public void acquireAsyncDoesNotBlock() throws Exception {
+        // GIVEN
+        this.rateLimiter.onThrottled(System.nanoTime());
+        long before = System.nanoTime();
+
+        // WHEN
+        CompletableFuture<Long> acquired = this.rateLimiter.acquireAsync();
+
+        // THEN
+        assertFalse(acquired.isDone());
+        assertThat(acquired.get(5, TimeUnit.SECONDS), greaterThan(before));
+        assertThat(System.nanoTime() - before, greaterThan(SECOND));
+    }
+
+    @Test
+    public void throttlingOfEarlierRequestsIsIgnored() {
+        // GIVEN
+        sendTwentyInOneSecond();
+        this.rateLimiter.onThrottled(this.start + SECOND, this.start + SECOND);
+
+        // WHEN
+        this.rateLimiter.onThrottled(this.start + SECOND - 1, this.start + SECOND + 1);
+        this.rateLimiter.onThrottled(this.start + 2 * SECOND, this.start + 2 * SECOND);
+
+        // THEN
+        assertThat(this.rateLimiter.getRate(), closeTo(14 * 0.7, 0.001));
+    }
+
+    @Test
+    public void rateNeverDropsBelowMinimum() {
+        // WHEN
+        for (int i = 1; i <= 20; i++) {
+            this.rateLimiter.onThrottled(this.start + i * SECOND, this.start + i * SECOND);
+        }
+
+        // THEN
+        assertThat(this.rateLimiter.getRate(), equalTo(AdaptiveRateLimiter.MIN_RATE));
+    }
+
+    @Test
+    public void successesLiftTheLimit() {
+        // GIVEN
+        sendTwentyInOneSecond();
+        this.rateLimiter.onThrottled(this.start + SECOND, this.start + SECOND);
+
+        // WHEN
+        this.rateLimiter.onSuccess(this.start + SECOND);
+        double increased = this.rateLimiter.getRate();
+        for (int i = 0; i < 1000; i++) {
+            this.rateLimiter.onSuccess(this.start + SECOND);
+        }
+
+        // THEN
+        assertThat(increased, closeTo(14 + 1.0 / 14, 0.001));
+        assertThat(this.rateLimiter.getRate(), equalTo(Double.POSITIVE_INFINITY));
+        assertThat(this.rateLimiter.reserve(this.start + SECOND), equalTo(0L));
+    }
+
+    private void sendTwentyInOneSecond() {
+        for (int i = 0; i < 20; i++) {
+            this.rateLimiter.reserve(this.start + i * SECOND / 20);
+        }
+    }
+}
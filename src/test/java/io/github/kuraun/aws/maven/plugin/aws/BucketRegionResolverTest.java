@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetBucketLocationRequest;
+import software.amazon.awssdk.services.s3.model.GetBucketLocationResponse;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BucketRegionResolverTest {
+
+    private static final String BUCKET_NAME = "bucket";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final S3Client amazonS3 = mock(S3Client.class);
+
+    @Test
+    public void lookupRegionFromHeader() {
+        // GIVEN
+        when(this.amazonS3.headBucket(any(HeadBucketRequest.class))).thenReturn((HeadBucketResponse)
+                HeadBucketResponse.builder().sdkHttpResponse(SdkHttpResponse.builder().statusCode(200)
+                        .putHeader("x-amz-bucket-region", "eu-central-1").build()).build());
+
+        // WHEN / THEN
+        assertThat(BucketRegionResolver.lookupRegion(this.amazonS3, BUCKET_NAME), equalTo("eu-central-1"));
+        verify(this.amazonS3, never()).getBucketLocation(any(GetBucketLocationRequest.class));
+    }
+
+    @Test
+    public void lookupRegionFromRedirect() {
+        // GIVEN
+        when(this.amazonS3.headBucket(any(HeadBucketRequest.class))).thenThrow(S3Exception.builder().statusCode(301)
+                .awsErrorDetails(AwsErrorDetails.builder().sdkHttpResponse(SdkHttpResponse.builder().statusCode(301)
+                        .putHeader("x-amz-bucket-region", "sa-east-1").build()).build()).build());
+
+        // WHEN / THEN
+        assertThat(BucketRegionResolver.lookupRegion(this.amazonS3, BUCKET_NAME), equalTo("sa-east-1"));
+        verify(this.amazonS3, never()).getBucketLocation(any(GetBucketLocationRequest.class));
+    }
+
+    @Test
+    public void lookupRegionFromLocation() {
+        // GIVEN
+        when(this.amazonS3.headBucket(any(HeadBucketRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).build());
+        when(this.amazonS3.getBucketLocation(any(GetBucketLocationRequest.class)))
+                .thenReturn(GetBucketLocationResponse.builder().locationConstraint("ap-northeast-1").build());
+
+        // WHEN / THEN
+        assertThat(BucketRegionResolver.lookupRegion(this.amazonS3, BUCKET_NAME), equalTo("ap-northeast-1"));
+    }
+
+    @Test
+    public void lookupRegionFails() {
+        // GIVEN
+        when(this.amazonS3.headBucket(any(HeadBucketRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).build());
+        when(this.amazonS3.getBucketLocation(any(GetBucketLocationRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).build());
+
+        // WHEN / THEN
+        assertThat(BucketRegionResolver.lookupRegion(this.amazonS3, BUCKET_NAME), nullValue());
+    }
+
+    @Test
+    public void toRegion() {
+        assertThat(BucketRegionResolver.toRegion(null), equalTo("us-east-1"));
+        assertThat(BucketRegionResolver.toRegion(""), equalTo("us-east-1"));
+        assertThat(BucketRegionResolver.toRegion("EU"), equalTo("eu-west-1"));
+        assertThat(BucketRegionResolver.toRegion("sa-east-1"), equalTo("sa-east-1"));
+    }
+
+    @Test
+    public void regionsAreCachedInMemory() {
+        // GIVEN
+        BucketRegionResolver resolver = new BucketRegionResolver();
+
+        // WHEN
+        resolver.putRegion(null, BUCKET_NAME, "eu-west-2", null);
+
+        // THEN
+        assertThat(resolver.getRegion(null, BUCKET_NAME, null), equalTo("eu-west-2"));
+        assertThat(resolver.getRegion("http://localhost:9000", BUCKET_NAME, null), nullValue());
+    }
+
+    @Test
+    public void regionsArePersisted() throws Exception {
+        // GIVEN
+        Path cacheFile = this.temporaryFolder.getRoot().toPath().resolve("cache").resolve("regions.properties");
+        new BucketRegionResolver().putRegion(null, BUCKET_NAME, "eu-west-2", cacheFile);
+        new BucketRegionResolver().putRegion("http://localhost:9000", BUCKET_NAME, "us-west-1", cacheFile);
+
+        // WHEN
+        BucketRegionResolver resolver = new BucketRegionResolver();
+
+        // THEN
+        assertThat(resolver.getRegion(null, BUCKET_NAME, cacheFile), equalTo("eu-west-2"));
+        assertThat(resolver.getRegion("http://localhost:9000", BUCKET_NAME, cacheFile), equalTo("us-west-1"));
+        assertThat(resolver.getRegion(null, "other", cacheFile), nullValue());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class DecorrelatedJitterBackoffStrategyTest {
+
+    private final DecorrelatedJitterBackoffStrategy strategy =
+            new DecorrelatedJitterBackoffStrategy(Duration.ofMillis(100), Duration.ofSeconds(2));
+
+    @Test
+    public void delaysStayWithinBounds() {
+        // GIVEN
+        Random random = new Random(42);
+
+        // WHEN / THEN
+        for (int retries = 0; retries < 20; retries++) {
+            for (int i = 0; i < 100; i++) {
+                long delay = this.strategy.delay(retries, random);
+                assertThat(delay, greaterThanOrEqualTo(100L));
+                assertThat(delay, lessThanOrEqualTo(retries == 0 ? 300L : 2000L));
+            }
+        }
+    }
+
+    @Test
+    public void delaysGrowWithRetries() {
+        // GIVEN
+        Random random = new Random(42);
+        long first = 0;
+        long fifth = 0;
+
+        // WHEN
+        for (int i = 0; i < 1000; i++) {
+            first += this.strategy.delay(0, random);
+            fifth += this.strategy.delay(4, random);
+        }
+
+        // THEN
+        assertThat(fifth, greaterThan(2 * first));
+    }
+}
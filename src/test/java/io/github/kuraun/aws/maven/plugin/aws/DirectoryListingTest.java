@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DirectoryListingTest {
+
+    private static final String BUCKET_NAME = "bucket";
+    private static final String PREFIX = "repo/release/";
+
+    private final S3Client amazonS3 = mock(S3Client.class);
+
+    @Test
+    public void iterateFollowsContinuationTokens() {
+        // GIVEN
+        when(this.amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(
+                ListObjectsV2Response.builder()
+                        .commonPrefixes(CommonPrefix.builder().prefix(PREFIX + "foo/").build())
+                        .contents(object(PREFIX), object(PREFIX + "maven-metadata.xml"))
+                        .isTruncated(true).nextContinuationToken("token").build(),
+                ListObjectsV2Response.builder()
+                        .contents(object(PREFIX + "robots.txt"))
+                        .isTruncated(false).build());
+
+        // WHEN
+        List<String> names = new ArrayList<>();
+        for (String name : new DirectoryListing(this.amazonS3, BUCKET_NAME, PREFIX)) {
+            names.add(name);
+        }
+
+        // THEN
+        assertThat(names, contains("foo/", "maven-metadata.xml", "robots.txt"));
+        ArgumentCaptor<ListObjectsV2Request> captor = ArgumentCaptor.forClass(ListObjectsV2Request.class);
+        verify(this.amazonS3, times(2)).listObjectsV2(captor.capture());
+        assertThat(captor.getAllValues().get(0).continuationToken(), nullValue());
+        assertThat(captor.getAllValues().get(1).continuationToken(), equalTo("token"));
+        assertThat(captor.getAllValues().get(1).prefix(), equalTo(PREFIX));
+        assertThat(captor.getAllValues().get(1).delimiter(), equalTo("/"));
+    }
+
+    @Test
+    public void iterateLazily() {
+        // GIVEN
+        when(this.amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(
+                ListObjectsV2Response.builder()
+                        .contents(object(PREFIX + "robots.txt"))
+                        .isTruncated(true).nextContinuationToken("token").build());
+
+        // WHEN
+        Iterator<String> names = new DirectoryListing(this.amazonS3, BUCKET_NAME, PREFIX).iterator();
+
+        // THEN
+        verify(this.amazonS3, never()).listObjectsV2(any(ListObjectsV2Request.class));
+        assertThat(names.next(), equalTo("robots.txt"));
+        verify(this.amazonS3, times(1)).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+
+    @Test
+    public void iterateEmpty() {
+        // GIVEN
+        when(this.amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(
+                ListObjectsV2Response.builder().contents(object(PREFIX)).isTruncated(false).build());
+
+        // WHEN
+        Iterator<String> names = new DirectoryListing(this.amazonS3, BUCKET_NAME, PREFIX).iterator();
+
+        // THEN
+        assertThat(names.hasNext(), equalTo(false));
+    }
+
+    private static S3Object object(String key) {
+        return S3Object.builder().key(key).build();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+public class HttpTransportConfigurationTest {
+
+    @Test
+    public void nonPositiveDurationsKeepDefaults() {
+        // GIVEN
+        HttpTransportConfiguration.Builder builder = HttpTransportConfiguration.builder()
+                .connectionTimeout(Duration.ZERO)
+                .socketTimeout(Duration.ofMillis(-1))
+                .apiCallTimeout(null);
+
+        // WHEN
+        HttpTransportConfiguration configuration = builder.build();
+
+        // THEN
+        assertThat(configuration.getConnectionTimeout(), nullValue());
+        assertThat(configuration.getSocketTimeout(), nullValue());
+        assertThat(configuration.getApiCallTimeout(), nullValue());
+        assertThat(configuration, equalTo(HttpTransportConfiguration.defaults()));
+    }
+
+    @Test
+    public void clientKeysDifferByTransport() {
+        // GIVEN
+        HttpTransportConfiguration tuned = HttpTransportConfiguration.builder()
+                .maxConnections(8)
+                .socketTimeout(Duration.ofSeconds(5))
+                .build();
+
+        // WHEN
+        S3ClientKey defaultKey = new S3ClientKey("us-east-1", null, false, "id", null);
+        S3ClientKey tunedKey = new S3ClientKey("us-east-1", null, false, "id", null, tuned);
+
+        // THEN
+        assertThat(tunedKey, not(equalTo(defaultKey)));
+        assertThat(defaultKey, equalTo(new S3ClientKey("us-east-1", null, false, "id", null,
+                HttpTransportConfiguration.defaults())));
+        assertThat(tuned.getSocketTimeout(), equalTo(Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ReplicaRouterTest {
+
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long[] now = {0};
+
+    private final Replica primary = new Replica("primary", null, null, null, true);
+
+    private final Replica near = new Replica("near", null, null, null, false);
+
+    private final Replica far = new Replica("far", null, null, null, false);
+
+    private final ReplicaRouter router = new ReplicaRouter(Arrays.asList(this.primary, this.near, this.far),
+            () -> this.now[0]);
+
+    @Test
+    public void fastestReplicaFirst() {
+        // GIVEN
+        this.router.recordSuccess(this.primary, 80 * MILLISECOND, 0);
+        this.router.recordSuccess(this.near, 10 * MILLISECOND, 0);
+        this.router.recordSuccess(this.far, 150 * MILLISECOND, 0);
+
+        // WHEN
+        List<Replica> candidates = this.router.candidates();
+
+        // THEN
+        assertThat(candidates, contains(this.near, this.primary, this.far));
+    }
+
+    @Test
+    public void unmeasuredReplicasFirst() {
+        // GIVEN
+        this.router.recordSuccess(this.primary, 80 * MILLISECOND, 0);
+        this.router.recordSuccess(this.near, 10 * MILLISECOND, 0);
+
+        // WHEN
+        List<Replica> candidates = this.router.candidates();
+
+        // THEN
+        assertThat(candidates, contains(this.far, this.near, this.primary));
+    }
+
+    @Test
+    public void largeTransfersDoNotCountTowardsLatency() {
+        // GIVEN
+        this.router.recordSuccess(this.primary, 80 * MILLISECOND, 0);
+        this.router.recordSuccess(this.near, 10 * MILLISECOND, 0);
+        this.router.recordSuccess(this.far, 150 * MILLISECOND, 0);
+
+        // WHEN
+        this.router.recordSuccess(this.near, 5000 * MILLISECOND, ReplicaRouter.THROUGHPUT_THRESHOLD * 100);
+
+        // THEN
+        assertThat(this.router.candidates(), contains(this.near, this.primary, this.far));
+    }
+
+    @Test
+    public void largeReadsGoToTheHighestThroughput() {
+        // GIVEN
+        long large = ReplicaRouter.THROUGHPUT_THRESHOLD * 100;
+        this.router.recordSuccess(this.primary, 80 * MILLISECOND, 0);
+        this.router.recordSuccess(this.near, 10 * MILLISECOND, 0);
+        this.router.recordSuccess(this.far, 150 * MILLISECOND, 0);
+        this.router.recordSuccess(this.primary, 2000 * MILLISECOND, large);
+        this.router.recordSuccess(this.near, 5000 * MILLISECOND, large);
+        this.router.recordSuccess(this.far, 1000 * MILLISECOND, large);
+
+        // WHEN
+        List<Replica> candidates = this.router.candidates(large);
+
+        // THEN
+        assertThat(candidates, contains(this.far, this.primary, this.near));
+        assertThat(this.router.candidates(ReplicaRouter.THROUGHPUT_THRESHOLD - 1),
+                contains(this.near, this.primary, this.far));
+    }
+
+    @Test
+    public void failedReplicasLastUntilTheirBackoffElapses() {
+        // GIVEN
+        this.router.recordSuccess(this.primary, 80 * MILLISECOND, 0);
+        this.router.recordSuccess(this.near, 10 * MILLISECOND, 0);
+        this.router.recordSuccess(this.far, 150 * MILLISECOND, 0);
+
+        // WHEN
+        this.router.recordFailure(this.near);
+
+        // THEN
+        assertThat(this.router.candidates(), contains(this.primary, this.far, this.near));
+        this.now[0] += ReplicaRouter.MIN_BACKOFF;
+        assertThat(this.router.candidates(), contains(this.near, this.primary, this.far));
+    }
+
+    @Test
+    public void backoffDoublesWithConsecutiveFailures() {
+        // GIVEN
+        this.router.recordFailure(this.near);
+        this.now[0] += ReplicaRouter.MIN_BACKOFF;
+
+        // WHEN
+        this.router.recordFailure(this.near);
+
+        // THEN
+        this.now[0] += ReplicaRouter.MIN_BACKOFF;
+        assertThat(this.router.candidates().get(2), equalTo(this.near));
+        this.now[0] += ReplicaRouter.MIN_BACKOFF;
+        assertThat(this.router.candidates().get(2), equalTo(this.far));
+    }
+
+    @Test
+    public void backoffIsCapped() {
+        // GIVEN
+        for (int i = 0; i < 40; i++) {
+            this.router.recordFailure(this.near);
+        }
+
+        // WHEN
+        this.now[0] += ReplicaRouter.MAX_BACKOFF;
+
+        // THEN
+        assertThat(this.router.candidates().contains(this.near), equalTo(true));
+        assertThat(this.router.candidates().get(2), equalTo(this.far));
+    }
+
+    @Test
+    public void successRestoresAFailedReplica() {
+        // GIVEN
+        this.router.recordSuccess(this.primary, 80 * MILLISECOND, 0);
+        this.router.recordSuccess(this.far, 150 * MILLISECOND, 0);
+        this.router.recordFailure(this.near);
+        this.now[0] += ReplicaRouter.MIN_BACKOFF;
+
+        // WHEN
+        this.router.recordSuccess(this.near, 10 * MILLISECOND, 0);
+
+        // THEN
+        this.router.recordFailure(this.primary);
+        assertThat(this.router.candidates(), contains(this.near, this.far, this.primary));
+    }
+
+    @Test
+    public void stalestReplicaIsExploredPeriodically() {
+        // GIVEN
+        this.router.recordSuccess(this.far, 150 * MILLISECOND, 0);
+        this.now[0]++;
+        this.router.recordSuccess(this.primary, 80 * MILLISECOND, 0);
+        this.router.recordSuccess(this.near, 10 * MILLISECOND, 0);
+
+        // WHEN
+        for (int i = 1; i < ReplicaRouter.EXPLORATION_INTERVAL; i++) {
+            assertThat(this.router.candidates().get(0), equalTo(this.near));
+        }
+
+        // THEN
+        assertThat(this.router.candidates(), contains(this.far, this.near, this.primary));
+        assertThat(this.router.candidates().get(0), equalTo(this.near));
+    }
+
+    @Test
+    public void parse() {
+        // WHEN
+        List<ReplicaLocation> locations = Replica.parse(" mirror-eu, s3://mirror-us/@http://localhost:9000,, ",
+                "https://s3.example.com");
+
+        // THEN
+        assertThat(locations, contains(new ReplicaLocation("mirror-eu", "https://s3.example.com"),
+                new ReplicaLocation("mirror-us", "http://localhost:9000")));
+    }
+
+    @Test
+    public void parseNothing() {
+        assertThat(Replica.parse(null, null), empty());
+        assertThat(Replica.parse(" ", null), empty());
+    }
+}
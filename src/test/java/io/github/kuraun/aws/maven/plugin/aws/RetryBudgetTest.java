@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import org.junit.Test;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+
+public class RetryBudgetTest {
+
+    private final RetryPolicyContext context = RetryPolicyContext.builder().build();
+
+    @Test
+    public void retriesStopWhenBudgetIsSpent() {
+        // GIVEN
+        RetryBudget budget = new RetryBudget(context -> true);
+
+        // WHEN
+        int retries = 0;
+        while (budget.shouldRetry(this.context)) {
+            retries++;
+        }
+
+        // THEN
+        assertThat(retries, equalTo((int) RetryBudget.INITIAL_BALANCE));
+    }
+
+    @Test
+    public void requestsEarnRetries() {
+        // GIVEN
+        RetryBudget budget = new RetryBudget(context -> true);
+        while (budget.shouldRetry(this.context)) {
+            // spend the initial balance
+        }
+
+        // WHEN
+        for (int i = 0; i < 25; i++) {
+            budget.deposit();
+        }
+
+        // THEN
+        assertThat(budget.shouldRetry(this.context), equalTo(true));
+        assertThat(budget.shouldRetry(this.context), equalTo(true));
+        assertThat(budget.shouldRetry(this.context), equalTo(false));
+    }
+
+    @Test
+    public void balanceIsCapped() {
+        // GIVEN
+        RetryBudget budget = new RetryBudget(context -> true);
+
+        // WHEN
+        for (int i = 0; i < 10_000; i++) {
+            budget.deposit();
+        }
+
+        // THEN
+        assertThat(budget.getBalance(), closeTo(RetryBudget.MAX_BALANCE, 0.001));
+    }
+
+    @Test
+    public void nonRetryableErrorsCostNothing() {
+        // GIVEN
+        RetryBudget budget = new RetryBudget(context -> false);
+
+        // WHEN
+        boolean retried = budget.shouldRetry(this.context);
+
+        // THEN
+        assertThat(retried, equalTo(false));
+        assertThat(budget.getBalance(), closeTo(RetryBudget.INITIAL_BALANCE, 0.001));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.aws;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class S3ClientRegistryTest {
+
+    private static final S3ClientKey KEY = new S3ClientKey("us-east-1", null, false, null, null);
+
+    private final S3ClientRegistry registry = new S3ClientRegistry();
+
+    @Test
+    public void acquireSharesClient() {
+        // GIVEN
+        AtomicInteger created = new AtomicInteger();
+
+        // WHEN
+        S3Client first = this.registry.acquire(KEY, () -> {
+            created.incrementAndGet();
+            return mock(S3Client.class);
+        });
+        S3Client second = this.registry.acquire(new S3ClientKey("us-east-1", null, false, null, null), () -> {
+            created.incrementAndGet();
+            return mock(S3Client.class);
+        });
+
+        // THEN
+        assertThat(second, sameInstance(first));
+        assertThat(created.get(), equalTo(1));
+        assertThat(this.registry.size(), equalTo(1));
+    }
+
+    @Test
+    public void acquireDifferentKeys() {
+        // WHEN
+        S3Client first = this.registry.acquire(KEY, () -> mock(S3Client.class));
+        S3Client second = this.registry.acquire(new S3ClientKey("us-east-1", "http://localhost:9000", true, null, null),
+                () -> mock(S3Client.class));
+
+        // THEN
+        assertThat(second, not(sameInstance(first)));
+        assertThat(this.registry.size(), equalTo(2));
+    }
+
+    @Test
+    public void releaseClosesAfterLastReference() {
+        // GIVEN
+        S3Client client = mock(S3Client.class);
+        this.registry.acquire(KEY, () -> client);
+        this.registry.acquire(KEY, () -> client);
+
+        // WHEN
+        this.registry.release(KEY);
+
+        // THEN
+        verify(client, never()).close();
+        assertThat(this.registry.size(), equalTo(1));
+
+        // WHEN
+        this.registry.release(KEY);
+
+        // THEN
+        verify(client).close();
+        assertThat(this.registry.size(), equalTo(0));
+    }
+
+    @Test
+    public void asyncClientsAreSeparate() {
+        // GIVEN
+        S3Client client = mock(S3Client.class);
+        S3AsyncClient asyncClient = mock(S3AsyncClient.class);
+        this.registry.acquire(KEY, () -> client);
+
+        // WHEN
+        S3AsyncClient acquired = this.registry.acquireAsync(KEY, () -> asyncClient);
+        this.registry.release(KEY);
+
+        // THEN
+        assertThat(acquired, sameInstance(asyncClient));
+        verify(client).close();
+        verify(asyncClient, never()).close();
+
+        // WHEN
+        this.registry.releaseAsync(KEY);
+
+        // THEN
+        verify(asyncClient).close();
+        assertThat(this.registry.size(), equalTo(0));
+    }
+}
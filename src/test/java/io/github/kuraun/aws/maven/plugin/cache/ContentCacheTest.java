@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ContentCacheTest {
+
+    private static final String BUCKET_NAME = "bucket";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void putAndGet() throws Exception {
+        // GIVEN
+        ContentCache cache = new ContentCache(this.temporaryFolder.newFolder().toPath(), 1024);
+        File destination = this.temporaryFolder.newFile();
+        ByteArrayOutputStream reported = new ByteArrayOutputStream();
+
+        // WHEN
+        cache.put(null, BUCKET_NAME, "foo.jar", "\"etag\"", file(new byte[]{1, 2, 3}));
+
+        // THEN
+        try (ContentCache.Entry entry = cache.get(null, BUCKET_NAME, "foo.jar")) {
+            assertThat(entry.getETag(), equalTo("\"etag\""));
+            entry.copyTo(destination, new byte[2], reported::write);
+        }
+        assertThat(Files.readAllBytes(destination.toPath()), equalTo(new byte[]{1, 2, 3}));
+        assertThat(reported.toByteArray(), equalTo(new byte[]{1, 2, 3}));
+        assertThat(cache.get("http://localhost:9000", BUCKET_NAME, "foo.jar"), nullValue());
+        assertThat(cache.get(null, BUCKET_NAME, "bar.jar"), nullValue());
+    }
+
+    @Test
+    public void putEvictsLeastRecentlyUsed() throws Exception {
+        // GIVEN
+        Path directory = this.temporaryFolder.newFolder().toPath();
+        ContentCache cache = new ContentCache(directory, 10);
+        cache.put(null, BUCKET_NAME, "old.jar", "\"old\"", file(new byte[4]));
+        cache.put(null, BUCKET_NAME, "used.jar", "\"used\"", file(new byte[4]));
+        Files.list(directory.resolve("content"))
+                .forEach(path -> setLastModifiedTime(path, 0));
+        cache.get(null, BUCKET_NAME, "used.jar").close();
+
+        // WHEN
+        cache.put(null, BUCKET_NAME, "new.jar", "\"new\"", file(new byte[4]));
+
+        // THEN
+        assertThat(cache.get(null, BUCKET_NAME, "old.jar"), nullValue());
+        try (ContentCache.Entry used = cache.get(null, BUCKET_NAME, "used.jar");
+             ContentCache.Entry added = cache.get(null, BUCKET_NAME, "new.jar")) {
+            assertThat(used, notNullValue());
+            assertThat(added, notNullValue());
+        }
+    }
+
+    @Test
+    public void putSharesContentWithSameETag() throws Exception {
+        // GIVEN
+        Path directory = this.temporaryFolder.newFolder().toPath();
+        ContentCache cache = new ContentCache(directory, 1024);
+
+        // WHEN
+        cache.put(null, BUCKET_NAME, "releases/foo.jar", "\"etag\"", file(new byte[]{1}));
+        cache.put(null, BUCKET_NAME, "staging/foo.jar", "\"etag\"", file(new byte[]{1}));
+
+        // THEN
+        assertThat(Files.list(directory.resolve("content")).count(), equalTo(1L));
+        assertThat(Files.list(directory.resolve("index")).count(), equalTo(2L));
+    }
+
+    private Path file(byte[] content) throws Exception {
+        File file = this.temporaryFolder.newFile();
+        Files.write(file.toPath(), content);
+        return file.toPath();
+    }
+
+    private static void setLastModifiedTime(Path path, long millis) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(millis));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class DirectorySnapshotCacheTest {
+
+    private static final String DIRECTORY = "repo/foo/1.0/";
+    private static final long TTL = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger listings = new AtomicInteger();
+    private final DirectorySnapshot snapshot = DirectorySnapshot.of(DIRECTORY, ListObjectsV2Response.builder().build());
+
+    private final DirectorySnapshotCache cache = new DirectorySnapshotCache(TTL, 2, this.clock::get);
+
+    @Test
+    public void getCachesSnapshot() {
+        // WHEN
+        DirectorySnapshot first = this.cache.get(DIRECTORY, list());
+        DirectorySnapshot second = this.cache.get(DIRECTORY, list());
+
+        // THEN
+        assertThat(first, sameInstance(this.snapshot));
+        assertThat(second, sameInstance(this.snapshot));
+        assertThat(this.listings.get(), equalTo(1));
+    }
+
+    @Test
+    public void snapshotsExpire() {
+        // GIVEN
+        this.cache.get(DIRECTORY, list());
+
+        // WHEN
+        this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL));
+        this.cache.get(DIRECTORY, list());
+
+        // THEN
+        assertThat(this.listings.get(), equalTo(2));
+    }
+
+    @Test
+    public void writesInvalidateTheirDirectory() {
+        // GIVEN
+        this.cache.get(DIRECTORY, list());
+        this.cache.get("repo/bar/1.0/", list());
+
+        // WHEN
+        this.cache.invalidate(DIRECTORY + "foo-1.0.jar");
+        this.cache.get(DIRECTORY, list());
+        this.cache.get("repo/bar/1.0/", list());
+
+        // THEN
+        assertThat(this.listings.get(), equalTo(3));
+    }
+
+    @Test
+    public void leastRecentlyUsedDirectoriesAreEvicted() {
+        // WHEN
+        this.cache.get("a/", list());
+        this.cache.get("b/", list());
+        this.cache.get("c/", list());
+
+        // THEN
+        assertThat(this.cache.size(), equalTo(2));
+    }
+
+    @Test
+    public void getDirectory() {
+        assertThat(DirectorySnapshotCache.getDirectory("repo/foo/1.0/foo-1.0.jar"), equalTo(DIRECTORY));
+        assertThat(DirectorySnapshotCache.getDirectory("foo.jar"), equalTo(""));
+    }
+
+    private Supplier<DirectorySnapshot> list() {
+        return () -> {
+            this.listings.incrementAndGet();
+            return this.snapshot;
+        };
+    }
+}
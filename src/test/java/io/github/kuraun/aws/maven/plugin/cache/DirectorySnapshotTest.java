@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Instant;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class DirectorySnapshotTest {
+
+    private static final String PREFIX = "repo/foo/1.0/";
+
+    private static final Instant LAST_MODIFIED = Instant.ofEpochMilli(1_500_000_000_000L);
+
+    @Test
+    public void answersForListedObjects() {
+        // GIVEN
+        ListObjectsV2Response page = ListObjectsV2Response.builder()
+                .contents(object("foo-1.0.pom", 10), object("foo-1.0.jar", 20), object("", 0),
+                        object("foo-1.0.jar.sha1", 40))
+                .isTruncated(false)
+                .build();
+
+        // WHEN
+        DirectorySnapshot snapshot = DirectorySnapshot.of(PREFIX, page);
+
+        // THEN
+        assertThat(snapshot.size(), equalTo(3));
+        assertThat(snapshot.isComplete(), equalTo(true));
+        HeadObjectResponse jar = snapshot.get("foo-1.0.jar");
+        assertThat(jar.contentLength(), equalTo(20L));
+        assertThat(jar.eTag(), equalTo("\"foo-1.0.jar\""));
+        assertThat(jar.lastModified(), equalTo(LAST_MODIFIED));
+        assertThat(snapshot.get("foo-1.0.jar.sha1").contentLength(), equalTo(40L));
+        assertThat(snapshot.get("foo-1.0.war"), nullValue());
+        assertThat(snapshot.get(""), nullValue());
+    }
+
+    @Test
+    public void truncatedListingIsIncomplete() {
+        // GIVEN
+        ListObjectsV2Response page = ListObjectsV2Response.builder()
+                .contents(object("foo-1.0.pom", 10))
+                .isTruncated(true)
+                .nextContinuationToken("token")
+                .build();
+
+        // WHEN
+        DirectorySnapshot snapshot = DirectorySnapshot.of(PREFIX, page);
+
+        // THEN
+        assertThat(snapshot.isComplete(), equalTo(false));
+        assertThat(snapshot.get("foo-1.0.pom").contentLength(), equalTo(10L));
+    }
+
+    private static S3Object object(String name, long size) {
+        return S3Object.builder().key(PREFIX + name).size(size).eTag("\"" + name + "\"")
+                .lastModified(LAST_MODIFIED).build();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ObjectMetadataCacheTest {
+
+    private static final String KEY = "repo/foo-1.0.pom";
+    private static final long TTL = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final HeadObjectResponse metadata = HeadObjectResponse.builder().eTag("etag").build();
+
+    private final ObjectMetadataCache cache = new ObjectMetadataCache(TTL, 2, this.clock::get);
+
+    @Test
+    public void getCachesResult() {
+        // WHEN
+        HeadObjectResponse first = this.cache.get(KEY, found());
+        HeadObjectResponse second = this.cache.get(KEY, found());
+
+        // THEN
+        assertThat(first, sameInstance(this.metadata));
+        assertThat(second, sameInstance(this.metadata));
+        assertThat(this.requests.get(), equalTo(1));
+    }
+
+    @Test
+    public void getCachesNotFound() {
+        // WHEN
+        HeadObjectResponse first = this.cache.get(KEY, status(404));
+        HeadObjectResponse second = this.cache.get(KEY, found());
+
+        // THEN
+        assertThat(first, nullValue());
+        assertThat(second, nullValue());
+        assertThat(this.requests.get(), equalTo(1));
+    }
+
+    @Test(expected = S3Exception.class)
+    public void getDoesNotCacheOtherFailures() {
+        // GIVEN
+        try {
+            this.cache.get(KEY, status(403));
+        } catch (S3Exception e) {
+            assertThat(this.cache.size(), equalTo(0));
+        }
+
+        // WHEN
+        this.cache.get(KEY, status(403));
+    }
+
+    @Test
+    public void getExpires() {
+        // GIVEN
+        this.cache.get(KEY, status(404));
+
+        // WHEN
+        this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL));
+        HeadObjectResponse actual = this.cache.get(KEY, found());
+
+        // THEN
+        assertThat(actual, sameInstance(this.metadata));
+        assertThat(this.requests.get(), equalTo(2));
+    }
+
+    @Test
+    public void peekDoesNotLoad() {
+        // GIVEN
+        HeadObjectResponse before = this.cache.peek(KEY);
+        this.cache.get(KEY, found());
+
+        // WHEN
+        HeadObjectResponse cached = this.cache.peek(KEY);
+        this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL));
+        HeadObjectResponse expired = this.cache.peek(KEY);
+
+        // THEN
+        assertThat(before, nullValue());
+        assertThat(cached, sameInstance(this.metadata));
+        assertThat(expired, nullValue());
+        assertThat(this.requests.get(), equalTo(1));
+    }
+
+    @Test
+    public void invalidate() {
+        // GIVEN
+        this.cache.get(KEY, status(404));
+
+        // WHEN
+        this.cache.invalidate(KEY);
+        HeadObjectResponse actual = this.cache.get(KEY, found());
+
+        // THEN
+        assertThat(actual, sameInstance(this.metadata));
+        assertThat(this.requests.get(), equalTo(2));
+    }
+
+    @Test
+    public void invalidateDuringLoad() {
+        // WHEN
+        this.cache.get(KEY, () -> {
+            this.cache.invalidate(KEY);
+            return this.metadata;
+        });
+
+        // THEN
+        assertThat(this.cache.size(), equalTo(0));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        // GIVEN
+        this.cache.get("a", found());
+        this.cache.get("b", found());
+        this.cache.get("a", found());
+
+        // WHEN
+        this.cache.get("c", found());
+        this.cache.get("a", found());
+        this.cache.get("b", found());
+
+        // THEN
+        assertThat(this.requests.get(), equalTo(4));
+        assertThat(this.cache.size(), equalTo(2));
+    }
+
+    @Test
+    public void zeroTtlDisablesCache() {
+        // GIVEN
+        this.cache.setTtl(0);
+
+        // WHEN
+        this.cache.get(KEY, found());
+        this.cache.get(KEY, found());
+
+        // THEN
+        assertThat(this.requests.get(), equalTo(2));
+        assertThat(this.cache.size(), equalTo(0));
+    }
+
+    private Supplier<HeadObjectResponse> found() {
+        return () -> {
+            this.requests.incrementAndGet();
+            return this.metadata;
+        };
+    }
+
+    private Supplier<HeadObjectResponse> status(int statusCode) {
+        return () -> {
+            this.requests.incrementAndGet();
+            throw S3Exception.builder().statusCode(statusCode).build();
+        };
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.cache;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PrefetcherTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Prefetcher prefetcher = new Prefetcher(1, 10);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    public PrefetcherTest() throws IOException {
+    }
+
+    @After
+    public void close() throws IOException {
+        this.prefetcher.close();
+    }
+
+    @Test
+    public void takeReturnsStagedObject() throws Exception {
+        // GIVEN
+        File destination = this.temporaryFolder.newFile();
+        this.prefetcher.prefetch("foo.jar", this::load);
+        this.prefetcher.prefetch("foo.jar", this::load);
+
+        // WHEN
+        try (Prefetcher.Entry entry = this.prefetcher.take("foo.jar")) {
+            entry.copyTo(destination, new byte[2], null);
+
+            // THEN
+            assertThat(entry.isMissing(), equalTo(false));
+            assertThat(entry.getETag(), equalTo("etag"));
+        }
+        assertThat(Files.readAllBytes(destination.toPath()), equalTo(new byte[]{1, 2, 3}));
+        assertThat(this.loads.get(), equalTo(1));
+        assertThat(this.prefetcher.getReservedBytes(), equalTo(0L));
+        assertThat(this.prefetcher.take("foo.jar"), nullValue());
+    }
+
+    @Test
+    public void takeJoinsInFlightDownload() throws Exception {
+        // GIVEN
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        this.prefetcher.prefetch("foo.jar", (key, file, budget) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return load(key, file, budget);
+        });
+        started.await();
+
+        // WHEN
+        new Thread(release::countDown).start();
+        Prefetcher.Entry entry = this.prefetcher.take("foo.jar");
+
+        // THEN
+        assertThat(entry, notNullValue());
+        entry.close();
+    }
+
+    @Test
+    public void missingObjectsAreRemembered() {
+        // GIVEN
+        this.prefetcher.prefetch("foo.jar.sha1", (key, file, budget) -> {
+            throw new FileNotFoundException(key);
+        });
+
+        // WHEN
+        Prefetcher.Entry entry = this.prefetcher.take("foo.jar.sha1");
+
+        // THEN
+        assertThat(entry.isMissing(), equalTo(true));
+    }
+
+    @Test
+    public void failedDownloadsAreNotStaged() {
+        // GIVEN
+        this.prefetcher.prefetch("foo.jar", (key, file, budget) -> {
+            throw new IOException("failed");
+        });
+
+        // WHEN / THEN
+        assertThat(this.prefetcher.take("foo.jar"), nullValue());
+        assertThat(this.prefetcher.getReservedBytes(), equalTo(0L));
+    }
+
+    @Test
+    public void objectsLargerThanTheBudgetAreNotStaged() {
+        // GIVEN
+        this.prefetcher.prefetch("foo.zip", (key, file, budget) -> budget.test(11) ? "etag" : null);
+
+        // WHEN / THEN
+        assertThat(this.prefetcher.take("foo.zip"), nullValue());
+    }
+
+    @Test
+    public void unusedObjectsMakeRoom() throws Exception {
+        // GIVEN
+        this.prefetcher.prefetch("a.jar", this::load);
+        this.prefetcher.prefetch("b.jar", this::load);
+        this.prefetcher.prefetch("c.jar", this::load);
+        this.prefetcher.take("c.jar").close();
+
+        // WHEN
+        this.prefetcher.prefetch("d.jar", (key, file, budget) -> budget.test(8) ? "etag" : null);
+        Prefetcher.Entry entry = this.prefetcher.take("d.jar");
+
+        // THEN
+        assertThat(entry, notNullValue());
+        assertThat(this.prefetcher.take("a.jar"), nullValue());
+        assertThat(this.prefetcher.take("b.jar"), nullValue());
+        assertThat(this.prefetcher.getReservedBytes(), equalTo(8L));
+        entry.close();
+        assertThat(this.prefetcher.getReservedBytes(), equalTo(0L));
+    }
+
+    private String load(String key, Path file, LongPredicate budget) throws IOException {
+        this.loads.incrementAndGet();
+        if (!budget.test(3)) {
+            return null;
+        }
+        Files.write(file, new byte[]{1, 2, 3});
+        return "etag";
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.s3.model.ServerSideEncryption;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class DigestTransferProgressTest {
+
+    private static final String ETAG = "\"9e107d9d372bb6826bd81d3542a419d6\"";
+
+    private final ByteArrayOutputStream reported = new ByteArrayOutputStream();
+
+    private final DigestTransferProgress transferProgress = new DigestTransferProgress(this.reported::write);
+
+    @Test
+    public void verify() throws IOException {
+        // GIVEN
+        byte[] content = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII);
+
+        // WHEN
+        this.transferProgress.notify(content, 0, 10);
+        this.transferProgress.notify(content, 10, content.length - 10);
+
+        // THEN
+        this.transferProgress.verify(ETAG, null, null);
+        assertThat(this.reported.toByteArray(), equalTo(content));
+    }
+
+    @Test(expected = IOException.class)
+    public void verifyMismatch() throws IOException {
+        // GIVEN
+        byte[] content = "The quick brown fox jumps over the lazy cat".getBytes(StandardCharsets.US_ASCII);
+
+        // WHEN
+        this.transferProgress.notify(content, content.length);
+
+        // THEN
+        this.transferProgress.verify(ETAG, ServerSideEncryption.AES256, null);
+    }
+
+    @Test
+    public void verifySkipsEncryptedETags() throws IOException {
+        // GIVEN
+        byte[] content = "The quick brown fox jumps over the lazy cat".getBytes(StandardCharsets.US_ASCII);
+
+        // WHEN
+        this.transferProgress.notify(content, content.length);
+
+        // THEN
+        this.transferProgress.verify(ETAG, ServerSideEncryption.AWS_KMS, null);
+        this.transferProgress.verify(ETAG, null, "AES256");
+    }
+}
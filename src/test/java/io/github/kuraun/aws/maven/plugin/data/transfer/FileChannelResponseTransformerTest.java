@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.SdkPublisher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+public class FileChannelResponseTransformerTest {
+
+    private static final int SIZE = 10_000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream reported = new ByteArrayOutputStream();
+
+    @Test
+    public void writeAtOffset() throws Exception {
+        // GIVEN
+        byte[] content = new byte[SIZE];
+        new Random(42).nextBytes(content);
+        File file = this.temporaryFolder.newFile();
+
+        // WHEN
+        String result;
+        long written;
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file.toPath(),
+                StandardOpenOption.WRITE)) {
+            FileChannelResponseTransformer<String> transformer = new FileChannelResponseTransformer<>(channel, 100,
+                    this.reported::write);
+            CompletableFuture<String> future = transformer.prepare();
+            transformer.onResponse("response");
+            transformer.onStream(publisher(content, 1024, true));
+            result = future.get(10, TimeUnit.SECONDS);
+            written = transformer.getBytesWritten();
+        }
+
+        // THEN
+        byte[] expected = new byte[100 + SIZE];
+        System.arraycopy(content, 0, expected, 100, SIZE);
+        assertThat(result, equalTo("response"));
+        assertThat(written, equalTo((long) SIZE));
+        assertThat(Files.readAllBytes(file.toPath()), equalTo(expected));
+        assertThat(this.reported.toByteArray(), equalTo(content));
+    }
+
+    @Test
+    public void retryDoesNotReportAgain() throws Exception {
+        // GIVEN
+        byte[] content = new byte[SIZE];
+        new Random(42).nextBytes(content);
+        File file = this.temporaryFolder.newFile();
+
+        // WHEN
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file.toPath(),
+                StandardOpenOption.WRITE)) {
+            FileChannelResponseTransformer<String> transformer = new FileChannelResponseTransformer<>(channel, 0,
+                    this.reported::write);
+            CompletableFuture<String> failed = transformer.prepare();
+            transformer.onResponse("response");
+            transformer.onStream(publisher(Arrays.copyOf(content, 3000), 1024, false));
+            try {
+                failed.get(10, TimeUnit.SECONDS);
+                fail("The first attempt should have failed");
+            } catch (ExecutionException expected) {
+                // the connection was reset
+            }
+
+            CompletableFuture<String> retried = transformer.prepare();
+            transformer.onResponse("response");
+            transformer.onStream(publisher(content, 1024, true));
+            retried.get(10, TimeUnit.SECONDS);
+        }
+
+        // THEN
+        assertThat(Files.readAllBytes(file.toPath()), equalTo(content));
+        assertThat(this.reported.toByteArray(), equalTo(content));
+    }
+
+    /**
+     * Publishes chunks of a heap or direct buffer on demand, then completes or fails
+     */
+    private static SdkPublisher<ByteBuffer> publisher(byte[] content, int chunkSize, boolean complete) {
+        return new SdkPublisher<ByteBuffer>() {
+            @Override
+            public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+                subscriber.onSubscribe(new Subscription() {
+
+                    private int position;
+
+                    private int chunks;
+
+                    private boolean done;
+
+                    @Override
+                    public void request(long n) {
+                        if (this.done) {
+                            return;
+                        }
+                        if (this.position >= content.length) {
+                            this.done = true;
+                            if (complete) {
+                                subscriber.onComplete();
+                            } else {
+                                subscriber.onError(new IllegalStateException("connection reset"));
+                            }
+                            return;
+                        }
+                        int length = Math.min(chunkSize, content.length - this.position);
+                        ByteBuffer chunk = this.chunks++ % 2 == 0 ? ByteBuffer.allocate(length)
+                                : ByteBuffer.allocateDirect(length);
+                        chunk.put(content, this.position, length).flip();
+                        this.position += length;
+                        subscriber.onNext(chunk);
+                    }
+
+                    @Override
+                    public void cancel() {
+                        this.done = true;
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.util.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FileRegionInputStreamTest {
+
+    private static final Path FILE = Paths.get("src/test/resources/test.txt");
+    private static final int START_POSITION = 10;
+    private static final int SIZE = 20;
+
+    private final AtomicInteger reported = new AtomicInteger();
+    private FileChannel channel;
+    private FileRegionInputStream inputStream;
+
+    @Before
+    public void before() throws Exception {
+        this.channel = FileChannel.open(FILE, StandardOpenOption.READ);
+        this.inputStream = new FileRegionInputStream(this.channel, START_POSITION, SIZE,
+                (buffer, offset, length) -> this.reported.addAndGet(length));
+    }
+
+    @After
+    public void after() {
+        IOUtils.closeQuietly(this.inputStream, this.channel);
+    }
+
+    @Test
+    public void readRegion() throws Exception {
+        // GIVEN
+        byte[] expected = Arrays.copyOfRange(Files.readAllBytes(FILE), START_POSITION, START_POSITION + SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // WHEN
+        IOUtils.copy(this.inputStream, out);
+
+        // THEN
+        assertThat(out.toByteArray(), equalTo(expected));
+        assertThat(this.reported.get(), equalTo(SIZE));
+        assertThat(this.inputStream.read(), equalTo(-1));
+    }
+
+    @Test
+    public void resetReplaysWithoutReportingTwice() throws Exception {
+        // GIVEN
+        this.inputStream.mark(SIZE);
+        IOUtils.copy(this.inputStream, new ByteArrayOutputStream());
+
+        // WHEN
+        this.inputStream.reset();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IOUtils.copy(this.inputStream, out);
+
+        // THEN
+        assertThat(out.size(), equalTo(SIZE));
+        assertThat(this.reported.get(), equalTo(SIZE));
+    }
+
+    @Test
+    public void closeLeavesChannelOpen() throws Exception {
+        // GIVEN
+
+        // WHEN
+        this.inputStream.close();
+
+        // THEN
+        assertThat(this.channel.isOpen(), equalTo(true));
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertTrue;
+
+public class MappedRegionAsyncRequestBodyTest {
+
+    private static final int SIZE = 10_000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream reported = new ByteArrayOutputStream();
+
+    private byte[] content;
+
+    private FileChannel channel;
+
+    @Before
+    public void before() throws Exception {
+        this.content = new byte[SIZE];
+        new Random(42).nextBytes(this.content);
+        File file = this.temporaryFolder.newFile();
+        Files.write(file.toPath(), this.content);
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    @After
+    public void after() throws Exception {
+        this.channel.close();
+    }
+
+    @Test
+    public void publishRegion() throws Exception {
+        // GIVEN
+        MappedRegionAsyncRequestBody body = new MappedRegionAsyncRequestBody(this.channel, 1000, 5000, 1024,
+                this.reported::write);
+
+        // WHEN
+        byte[] published = collect(body, 1);
+
+        // THEN
+        assertThat(body.contentLength().get(), equalTo(5000L));
+        assertThat(published, equalTo(Arrays.copyOfRange(this.content, 1000, 6000)));
+        assertThat(this.reported.toByteArray(), equalTo(published));
+    }
+
+    @Test
+    public void publishReadOnlySlices() throws Exception {
+        // GIVEN
+        MappedRegionAsyncRequestBody body = new MappedRegionAsyncRequestBody(this.channel, 0, SIZE, 4096,
+                this.reported::write);
+        CompletableFuture<ByteBuffer> first = new CompletableFuture<>();
+
+        // WHEN
+        body.subscribe(new Subscriber<ByteBuffer>() {
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer chunk) {
+                first.complete(chunk);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                first.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        // THEN
+        ByteBuffer chunk = first.get(10, TimeUnit.SECONDS);
+        assertTrue(chunk.isReadOnly());
+        assertTrue(chunk.isDirect());
+        assertThat(chunk.remaining(), equalTo(4096));
+    }
+
+    @Test
+    public void resubscribeDoesNotReportAgain() throws Exception {
+        // GIVEN
+        MappedRegionAsyncRequestBody body = new MappedRegionAsyncRequestBody(this.channel, 0, SIZE, 4096,
+                this.reported::write);
+
+        // WHEN
+        byte[] first = collect(body, 1);
+        byte[] second = collect(body, Long.MAX_VALUE);
+
+        // THEN
+        assertThat(first, equalTo(this.content));
+        assertThat(second, equalTo(this.content));
+        assertThat(this.reported.toByteArray(), equalTo(this.content));
+    }
+
+    @Test
+    public void concurrentSubscriptionsReadIndependently() throws Exception {
+        // GIVEN
+        MappedRegionAsyncRequestBody body = new MappedRegionAsyncRequestBody(this.channel, 0, SIZE, 512,
+                this.reported::write);
+
+        // WHEN
+        CompletableFuture<byte[]> first = CompletableFuture.supplyAsync(() -> collectUnchecked(body));
+        CompletableFuture<byte[]> second = CompletableFuture.supplyAsync(() -> collectUnchecked(body));
+
+        // THEN
+        assertThat(first.get(10, TimeUnit.SECONDS), equalTo(this.content));
+        assertThat(second.get(10, TimeUnit.SECONDS), equalTo(this.content));
+        assertThat(this.reported.toByteArray(), equalTo(this.content));
+    }
+
+    @Test
+    public void publishEmptyRegion() throws Exception {
+        // GIVEN
+        MappedRegionAsyncRequestBody body = new MappedRegionAsyncRequestBody(this.channel, 0, 0, 4096,
+                this.reported::write);
+
+        // WHEN
+        byte[] published = collect(body, 1);
+
+        // THEN
+        assertThat(published.length, equalTo(0));
+        assertThat(this.reported.size(), equalTo(0));
+    }
+
+    private static byte[] collectUnchecked(MappedRegionAsyncRequestBody body) {
+        try {
+            return collect(body, 1);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] collect(MappedRegionAsyncRequestBody body, long batch) throws Exception {
+        ByteArrayOutputStream published = new ByteArrayOutputStream();
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        body.subscribe(new Subscriber<ByteBuffer>() {
+
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(batch);
+            }
+
+            @Override
+            public void onNext(ByteBuffer chunk) {
+                byte[] bytes = new byte[chunk.remaining()];
+                chunk.get(bytes);
+                published.write(bytes, 0, bytes.length);
+                if (batch != Long.MAX_VALUE) {
+                    this.subscription.request(batch);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(published.toByteArray());
+            }
+        });
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import io.github.kuraun.aws.maven.plugin.util.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MultipartUploadTest {
+
+    private static final String BUCKET_NAME = "bucket";
+    private static final String KEY = "repo/foo-1.0.zip";
+    private static final String UPLOAD_ID = "upload-id";
+    private static final int SIZE = (int) (2.5 * MultipartUpload.MINIMUM_PART_SIZE);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final S3Client amazonS3 = mock(S3Client.class);
+    private final ExecutorService executorService = Executors.newFixedThreadPool(3);
+    private final AtomicLong reported = new AtomicLong();
+    private byte[] content;
+    private File source;
+
+    @Before
+    public void before() throws Exception {
+        this.content = new byte[SIZE];
+        new Random(42).nextBytes(this.content);
+        this.source = this.temporaryFolder.newFile();
+        Files.write(this.source.toPath(), this.content);
+
+        when(this.amazonS3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId(UPLOAD_ID).build());
+    }
+
+    @After
+    public void after() {
+        this.executorService.shutdownNow();
+    }
+
+    @Test
+    public void getPartSize() {
+        assertThat(MultipartUpload.getPartSize(1, 1), equalTo(MultipartUpload.MINIMUM_PART_SIZE));
+        assertThat(MultipartUpload.getPartSize(100_000L * MultipartUpload.MINIMUM_PART_SIZE,
+                MultipartUpload.MINIMUM_PART_SIZE), equalTo(10 * MultipartUpload.MINIMUM_PART_SIZE));
+    }
+
+    @Test
+    public void upload() throws Exception {
+        // GIVEN
+        byte[][] parts = new byte[3][];
+        when(this.amazonS3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            RequestBody body = invocation.getArgument(1);
+            parts[request.partNumber() - 1] = read(body);
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+
+        // WHEN
+        new MultipartUpload(this.amazonS3, this.executorService, MultipartUpload.MINIMUM_PART_SIZE)
+                .upload(BUCKET_NAME, KEY, this.source, (buffer, offset, length) -> this.reported.addAndGet(length));
+
+        // THEN
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            uploaded.write(part);
+        }
+        assertThat(uploaded.toByteArray(), equalTo(this.content));
+        assertThat(this.reported.get(), equalTo((long) SIZE));
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> captor =
+                ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(this.amazonS3).completeMultipartUpload(captor.capture());
+        List<CompletedPart> completedParts = captor.getValue().multipartUpload().parts();
+        assertThat(captor.getValue().uploadId(), equalTo(UPLOAD_ID));
+        assertThat(completedParts, contains(
+                CompletedPart.builder().partNumber(1).eTag("etag-1").build(),
+                CompletedPart.builder().partNumber(2).eTag("etag-2").build(),
+                CompletedPart.builder().partNumber(3).eTag("etag-3").build()));
+        verify(this.amazonS3, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void uploadReportsInFileOrder() throws Exception {
+        // GIVEN
+        when(this.amazonS3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            if (request.partNumber() == 1) {
+                // the later parts finish first
+                Thread.sleep(200);
+            }
+            read(invocation.getArgument(1));
+            return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+        });
+        ByteArrayOutputStream reported = new ByteArrayOutputStream();
+
+        // WHEN
+        new MultipartUpload(this.amazonS3, this.executorService, MultipartUpload.MINIMUM_PART_SIZE)
+                .upload(BUCKET_NAME, KEY, this.source, reported::write);
+
+        // THEN
+        assertThat(reported.toByteArray(), equalTo(this.content));
+    }
+
+    @Test
+    public void uploadAbortsOnFailure() throws Exception {
+        // GIVEN
+        S3Exception exception = (S3Exception) S3Exception.builder().message("failed").build();
+        when(this.amazonS3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            if (request.partNumber() == 2) {
+                throw exception;
+            }
+            return UploadPartResponse.builder().eTag("etag").build();
+        });
+
+        // WHEN
+        try {
+            new MultipartUpload(this.amazonS3, this.executorService, MultipartUpload.MINIMUM_PART_SIZE)
+                    .upload(BUCKET_NAME, KEY, this.source, (buffer, offset, length) -> this.reported.addAndGet(length));
+            fail("Exception must occur");
+        } catch (S3Exception e) {
+            // THEN
+            assertThat(e, equalTo(exception));
+            verify(this.amazonS3).abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(BUCKET_NAME).key(KEY).uploadId(UPLOAD_ID).build());
+            verify(this.amazonS3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        }
+    }
+
+    private static byte[] read(RequestBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            IOUtils.copy(in, out);
+        }
+        return out.toByteArray();
+    }
+}
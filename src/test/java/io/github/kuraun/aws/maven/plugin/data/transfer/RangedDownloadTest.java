@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.data.transfer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RangedDownloadTest {
+
+    private static final String BUCKET_NAME = "bucket";
+    private static final String KEY = "repo/foo-1.0.zip";
+    private static final int PART_SIZE = 1000;
+    private static final int SIZE = 4500;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final S3Client amazonS3 = mock(S3Client.class);
+    private final ExecutorService executorService = Executors.newFixedThreadPool(3);
+    private final ByteArrayOutputStream reported = new ByteArrayOutputStream();
+    private byte[] content;
+    private File destination;
+
+    @Before
+    public void before() throws Exception {
+        this.content = new byte[SIZE];
+        new Random(42).nextBytes(this.content);
+        this.destination = this.temporaryFolder.newFile();
+    }
+
+    @After
+    public void after() {
+        this.executorService.shutdownNow();
+    }
+
+    @Test
+    public void getTotalLength() {
+        assertThat(RangedDownload.getTotalLength("bytes 0-999/4500"), equalTo(4500L));
+        assertThat(RangedDownload.getTotalLength("bytes 0-999/*"), equalTo(-1L));
+        assertThat(RangedDownload.getTotalLength(null), equalTo(-1L));
+    }
+
+    @Test
+    public void download() throws Exception {
+        // GIVEN
+        when(this.amazonS3.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            String[] range = request.range().substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(range[0]);
+            int end = Math.min(Integer.parseInt(range[1]), SIZE - 1);
+            return response(GetObjectResponse.builder().eTag("etag").contentLength((long) (end - start + 1))
+                    .contentRange(String.format("bytes %d-%d/%d", start, end, SIZE)).build(),
+                    Arrays.copyOfRange(this.content, start, end + 1));
+        });
+
+        // WHEN
+        new RangedDownload(this.amazonS3, this.executorService, PART_SIZE)
+                .download(BUCKET_NAME, KEY, this.destination, this.reported::write);
+
+        // THEN
+        assertThat(Files.readAllBytes(this.destination.toPath()), equalTo(this.content));
+        assertThat(this.reported.toByteArray(), equalTo(this.content));
+        verify(this.amazonS3, times(5)).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    public void downloadIfRangeIgnored() throws Exception {
+        // GIVEN
+        when(this.amazonS3.getObject(any(GetObjectRequest.class))).thenReturn(
+                response(GetObjectResponse.builder().contentLength((long) SIZE).build(), this.content));
+
+        // WHEN
+        new RangedDownload(this.amazonS3, this.executorService, PART_SIZE)
+                .download(BUCKET_NAME, KEY, this.destination, this.reported::write);
+
+        // THEN
+        assertThat(Files.readAllBytes(this.destination.toPath()), equalTo(this.content));
+        assertThat(this.reported.toByteArray(), equalTo(this.content));
+        verify(this.amazonS3, times(1)).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    public void downloadEmptyObject() throws Exception {
+        // GIVEN
+        Files.write(this.destination.toPath(), this.content);
+        when(this.amazonS3.getObject(any(GetObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(416).build());
+
+        // WHEN
+        new RangedDownload(this.amazonS3, this.executorService, PART_SIZE)
+                .download(BUCKET_NAME, KEY, this.destination, this.reported::write);
+
+        // THEN
+        assertThat(this.destination.length(), equalTo(0L));
+        assertThat(this.reported.size(), equalTo(0));
+    }
+
+    @Test
+    public void downloadGzipEncoded() throws Exception {
+        // GIVEN
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(this.content);
+        }
+        byte[] encoded = compressed.toByteArray();
+        when(this.amazonS3.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            if (request.range() == null) {
+                return response(GetObjectResponse.builder().eTag("etag").contentEncoding("gzip")
+                        .contentLength((long) encoded.length).build(), encoded);
+            }
+            return response(GetObjectResponse.builder().eTag("etag").contentEncoding("gzip")
+                    .contentLength((long) PART_SIZE)
+                    .contentRange(String.format("bytes 0-%d/%d", PART_SIZE - 1, encoded.length)).build(),
+                    Arrays.copyOf(encoded, PART_SIZE));
+        });
+
+        // WHEN
+        new RangedDownload(this.amazonS3, this.executorService, PART_SIZE)
+                .download(BUCKET_NAME, KEY, this.destination, this.reported::write);
+
+        // THEN
+        assertThat(Files.readAllBytes(this.destination.toPath()), equalTo(this.content));
+        assertThat(this.reported.toByteArray(), equalTo(this.content));
+        verify(this.amazonS3, times(2)).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    public void downloadAbortsStreamsOnFailure() throws Exception {
+        // GIVEN
+        AtomicBoolean aborted = new AtomicBoolean();
+        when(this.amazonS3.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            String[] range = request.range().substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(range[0]);
+            int end = Math.min(Integer.parseInt(range[1]), SIZE - 1);
+            GetObjectResponse response = GetObjectResponse.builder().eTag("etag")
+                    .contentLength((long) (end - start + 1))
+                    .contentRange(String.format("bytes %d-%d/%d", start, end, SIZE)).build();
+            if (start == 0) {
+                // the connection drops half way through the first range
+                return new ResponseInputStream<>(response, AbortableInputStream.create(
+                        new ByteArrayInputStream(this.content, 0, PART_SIZE / 2), () -> aborted.set(true)));
+            }
+            return response(response, Arrays.copyOfRange(this.content, start, end + 1));
+        });
+
+        // WHEN
+        try {
+            new RangedDownload(this.amazonS3, this.executorService, PART_SIZE)
+                    .download(BUCKET_NAME, KEY, this.destination, this.reported::write);
+            fail("Expected an EOFException");
+        } catch (EOFException e) {
+            // expected
+        }
+
+        // THEN
+        assertThat(aborted.get(), equalTo(true));
+    }
+
+    private static ResponseInputStream<GetObjectResponse> response(GetObjectResponse response, byte[] body) {
+        return new ResponseInputStream<>(response, AbortableInputStream.create(new ByteArrayInputStream(body)));
+    }
+}
@@ -29,6 +29,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class StandardSessionListenerSupportTest {
 
@@ -48,6 +49,15 @@ public class StandardSessionListenerSupportTest {
         assertFalse(this.sessionListenerSupport.hasSessionListener(this.sessionListener));
     }
 
+    @Test
+    public void nothingIsFiredWithoutListeners() {
+        this.sessionListenerSupport.removeSessionListener(this.sessionListener);
+        this.sessionListenerSupport.addSessionListener(null);
+        this.sessionListenerSupport.fireSessionOpening();
+        this.sessionListenerSupport.fireSessionError(new IOException());
+        verifyZeroInteractions(this.sessionListener);
+    }
+
     @Test
     public void fireSessionOpening() {
         this.sessionListenerSupport.fireSessionOpening();
@@ -24,14 +24,31 @@ import org.apache.maven.wagon.events.TransferListener;
 import org.apache.maven.wagon.resource.Resource;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class StandardTransferListenerSupportTest {
 
@@ -50,8 +67,10 @@ public class StandardTransferListenerSupportTest {
     @Test
     public void transferListenerManagement() {
         assertTrue(this.transferListenerSupport.hasTransferListener(this.transferListener));
+        assertTrue(this.transferListenerSupport.hasTransferListeners());
         this.transferListenerSupport.removeTransferListener(this.transferListener);
         assertFalse(this.transferListenerSupport.hasTransferListener(this.transferListener));
+        assertFalse(this.transferListenerSupport.hasTransferListeners());
         this.transferListenerSupport.addTransferListener(null);
     }
 
@@ -93,4 +112,130 @@ public class StandardTransferListenerSupportTest {
         verify(this.transferListener).transferError(Matchers.eq(new TransferEvent(this.wagon, this.resource, exception,
                 REQUEST_TYPE)));
     }
+
+    @Test
+    public void listenersAreNotAddedTwice() {
+        // WHEN
+        this.transferListenerSupport.addTransferListener(this.transferListener);
+        this.transferListenerSupport.fireTransferStarted(this.resource, REQUEST_TYPE);
+        this.transferListenerSupport.removeTransferListener(this.transferListener);
+
+        // THEN
+        verify(this.transferListener, times(1)).transferStarted(any(TransferEvent.class));
+        assertFalse(this.transferListenerSupport.hasTransferListeners());
+    }
+
+    @Test
+    public void nothingIsFiredWithoutListeners() {
+        // GIVEN
+        this.transferListenerSupport.removeTransferListener(this.transferListener);
+
+        // WHEN
+        this.transferListenerSupport.fireTransferInitiated(this.resource, REQUEST_TYPE);
+        this.transferListenerSupport.fireTransferProgress(this.resource, REQUEST_TYPE, new byte[1], 1);
+        this.transferListenerSupport.fireTransferError(this.resource, REQUEST_TYPE, new IOException());
+
+        // THEN
+        verifyZeroInteractions(this.transferListener);
+    }
+
+    @Test
+    public void progressEventsOfATransferAreReused() {
+        // GIVEN
+        Resource other = mock(Resource.class);
+        byte[] buffer = new byte[1];
+
+        // WHEN
+        this.transferListenerSupport.fireTransferProgress(this.resource, REQUEST_TYPE, buffer, 1);
+        this.transferListenerSupport.fireTransferProgress(this.resource, REQUEST_TYPE, buffer, 1);
+        this.transferListenerSupport.fireTransferProgress(other, REQUEST_TYPE, buffer, 1);
+
+        // THEN
+        ArgumentCaptor<TransferEvent> events = ArgumentCaptor.forClass(TransferEvent.class);
+        verify(this.transferListener, times(3)).transferProgress(events.capture(), any(byte[].class), anyInt());
+        assertThat(events.getAllValues().get(1), sameInstance(events.getAllValues().get(0)));
+        assertThat(events.getAllValues().get(2), not(sameInstance(events.getAllValues().get(0))));
+        assertThat(events.getAllValues().get(2).getResource(), sameInstance(other));
+    }
+
+    @Test
+    public void concurrentFiringWhileListenersChange() throws Exception {
+        // GIVEN
+        int threads = 4;
+        int events = 20_000;
+        this.transferListenerSupport.removeTransferListener(this.transferListener);
+        CountingTransferListener permanent = new CountingTransferListener();
+        this.transferListenerSupport.addTransferListener(permanent);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean firing = new AtomicBoolean(true);
+
+        try {
+            // WHEN
+            Future<?> churn = executor.submit(() -> {
+                start.await();
+                while (firing.get()) {
+                    CountingTransferListener churned = new CountingTransferListener();
+                    this.transferListenerSupport.addTransferListener(churned);
+                    this.transferListenerSupport.removeTransferListener(churned);
+                }
+                return null;
+            });
+            List<Future<?>> firers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Resource resource = mock(Resource.class);
+                firers.add(executor.submit(() -> {
+                    start.await();
+                    byte[] buffer = new byte[1];
+                    for (int j = 0; j < events; j++) {
+                        this.transferListenerSupport.fireTransferProgress(resource, REQUEST_TYPE, buffer, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> firer : firers) {
+                firer.get();
+            }
+            firing.set(false);
+            churn.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // THEN
+        assertThat(permanent.progress.get(), equalTo((long) threads * events));
+        assertTrue(this.transferListenerSupport.hasTransferListener(permanent));
+        assertThat(this.transferListenerSupport.hasTransferListener(new CountingTransferListener()), equalTo(false));
+    }
+
+    private static final class CountingTransferListener implements TransferListener {
+
+        private final AtomicLong progress = new AtomicLong();
+
+        @Override
+        public void transferInitiated(TransferEvent transferEvent) {
+        }
+
+        @Override
+        public void transferStarted(TransferEvent transferEvent) {
+        }
+
+        @Override
+        public void transferProgress(TransferEvent transferEvent, byte[] buffer, int length) {
+            this.progress.addAndGet(length);
+        }
+
+        @Override
+        public void transferCompleted(TransferEvent transferEvent) {
+        }
+
+        @Override
+        public void transferError(TransferEvent transferEvent) {
+        }
+
+        @Override
+        public void debug(String message) {
+        }
+    }
 }
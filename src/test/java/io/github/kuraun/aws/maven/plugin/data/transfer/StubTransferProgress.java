@@ -26,8 +26,8 @@ public class StubTransferProgress implements TransferProgress {
     private volatile int length;
 
     @Override
-    public void notify(byte[] buffer, int length) {
-        this.buffer = Arrays.copyOf(buffer, buffer.length);
+    public void notify(byte[] buffer, int offset, int length) {
+        this.buffer = Arrays.copyOfRange(buffer, offset, offset + length);
         this.length = length;
     }
 
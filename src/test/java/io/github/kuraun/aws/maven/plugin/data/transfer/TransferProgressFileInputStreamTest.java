@@ -22,6 +22,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.Arrays;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -99,4 +100,18 @@ public class TransferProgressFileInputStreamTest {
         // THEN
         assertThat(actual, equalTo(expected));
     }
+
+    @Test
+    public void readReportsActualCount() throws Exception {
+        // GIVEN
+        byte[] buffer = new byte[BIG_SIZE];
+
+        // WHEN
+        int count = this.inputStream.read(buffer, START_POSITION, BIG_SIZE - START_POSITION);
+
+        // THEN
+        assertThat(this.transferProgress.getLength(), equalTo(count));
+        assertThat(this.transferProgress.getBuffer(),
+                equalTo(Arrays.copyOfRange(buffer, START_POSITION, START_POSITION + count)));
+    }
 }
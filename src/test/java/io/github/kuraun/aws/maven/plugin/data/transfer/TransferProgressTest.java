@@ -19,23 +19,48 @@ package io.github.kuraun.aws.maven.plugin.data.transfer;
 import io.github.kuraun.aws.maven.plugin.data.TransferListenerSupport;
 import org.apache.maven.wagon.events.TransferEvent;
 import org.apache.maven.wagon.resource.Resource;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class TransferProgressTest {
 
     private static final int REQUEST_TYPE = TransferEvent.REQUEST_GET;
+    private static final int GRANULARITY = 8;
+    private static final long INTERVAL = 100;
+
     private final Resource resource = mock(Resource.class);
     private final TransferListenerSupport transferListenerSupport = mock(TransferListenerSupport.class);
-    private final StandardTransferProgress transferProgress = new StandardTransferProgress(this.resource, REQUEST_TYPE, this.transferListenerSupport);
+    private final AtomicLong clock = new AtomicLong();
+    private final StandardTransferProgress transferProgress = new StandardTransferProgress(this.resource, REQUEST_TYPE,
+            this.transferListenerSupport, GRANULARITY, INTERVAL, this.clock::get);
+
+    @Before
+    public void before() {
+        when(this.transferListenerSupport.hasTransferListeners()).thenReturn(true);
+    }
 
     @Test
     public void notifyProgress() {
         // GIVEN
-        byte[] buffer = new byte[0];
-        int length = 0;
+        byte[] buffer = new byte[GRANULARITY];
+        int length = GRANULARITY;
 
         // WHEN
         this.transferProgress.notify(buffer, length);
@@ -43,4 +68,54 @@ public class TransferProgressTest {
         // THEN
         verify(this.transferListenerSupport).fireTransferProgress(this.resource, REQUEST_TYPE, buffer, length);
     }
+
+    @Test
+    public void notifyWithoutListeners() {
+        // GIVEN
+        when(this.transferListenerSupport.hasTransferListeners()).thenReturn(false);
+
+        // WHEN
+        this.transferProgress.notify(new byte[GRANULARITY], GRANULARITY);
+        this.transferProgress.flush();
+
+        // THEN
+        verify(this.transferListenerSupport, never()).fireTransferProgress(any(Resource.class), anyInt(),
+                any(byte[].class), anyInt());
+    }
+
+    @Test
+    public void notifyCoalesces() {
+        // GIVEN
+        List<byte[]> events = new ArrayList<>();
+        doAnswer(invocation -> events.add(Arrays.copyOf((byte[]) invocation.getArgument(2),
+                (int) invocation.getArgument(3)))).when(this.transferListenerSupport)
+                .fireTransferProgress(any(Resource.class), anyInt(), any(byte[].class), anyInt());
+        byte[] buffer = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+
+        // WHEN
+        this.transferProgress.notify(buffer, 1, 3);
+        this.transferProgress.notify(buffer, 4, 6);
+        this.transferProgress.notify(buffer, 10, 2);
+        this.transferProgress.flush();
+
+        // THEN
+        assertThat(events, contains(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, new byte[]{9, 10, 11}));
+    }
+
+    @Test
+    public void notifyAfterInterval() {
+        // GIVEN
+        byte[] buffer = new byte[1];
+        this.transferProgress.notify(buffer, 1);
+        verify(this.transferListenerSupport, never()).fireTransferProgress(any(Resource.class), anyInt(),
+                any(byte[].class), anyInt());
+
+        // WHEN
+        this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(INTERVAL));
+        this.transferProgress.notify(buffer, 1);
+
+        // THEN
+        verify(this.transferListenerSupport).fireTransferProgress(eq(this.resource), eq(REQUEST_TYPE),
+                any(byte[].class), eq(2));
+    }
 }
@@ -33,15 +33,19 @@ import org.apache.maven.wagon.proxy.ProxyInfo;
 import org.apache.maven.wagon.proxy.ProxyInfoProvider;
 import org.apache.maven.wagon.repository.Repository;
 import org.apache.maven.wagon.resource.Resource;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -49,12 +53,17 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AbstractWagonTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private final SessionListenerSupport sessionListenerSupport = mock(SessionListenerSupport.class);
     private final SessionListener sessionListener = mock(SessionListener.class);
     private final TransferListenerSupport transferListenerSupport = mock(TransferListenerSupport.class);
@@ -349,6 +358,9 @@ public class AbstractWagonTest {
             AuthorizationException {
         when(this.wagon.isRemoteResourceNewer("foo", 0)).thenReturn(false);
         assertFalse(this.wagon.getIfNewer("foo", new File("bar"), 0));
+        verify(this.transferListenerSupport, never()).fireTransferInitiated(new Resource("foo"),
+                TransferEvent.REQUEST_GET);
+        verify(this.wagon, never()).getResource(eq("foo"), eq(new File("bar")), any(TransferProgress.class));
     }
 
     @Test
@@ -357,7 +369,10 @@ public class AbstractWagonTest {
         when(this.wagon.isRemoteResourceNewer("foo", 0)).thenReturn(true);
 
         assertTrue(this.wagon.getIfNewer("foo", new File("bar"), 0));
+        verify(this.transferListenerSupport).fireTransferInitiated(new Resource("foo"), TransferEvent.REQUEST_GET);
+        verify(this.transferListenerSupport).fireTransferStarted(new Resource("foo"), TransferEvent.REQUEST_GET);
         verify(this.wagon).getResource(eq("foo"), eq(new File("bar")), any(TransferProgress.class));
+        verify(this.transferListenerSupport).fireTransferCompleted(new Resource("foo"), TransferEvent.REQUEST_GET);
     }
 
     @Test
@@ -491,6 +506,74 @@ public class AbstractWagonTest {
                 TransferEvent.REQUEST_PUT);
     }
 
+    @Test
+    public void putDirectoryRecursive() throws IOException, TransferFailedException, ResourceDoesNotExistException,
+            AuthorizationException {
+        File directory = this.temporaryFolder.newFolder();
+        File a = createFile(directory, "a.html");
+        File b = createFile(directory, "css/b.css");
+        File c = createFile(directory, "css/images/c.png");
+        new File(directory, "empty").mkdir();
+        this.wagon.setDirectoryConcurrency(3);
+
+        this.wagon.putDirectory(directory, "site/");
+
+        verify(this.wagon).putResource(eq(a), eq("site/a.html"), any(TransferProgress.class));
+        verify(this.wagon).putResource(eq(b), eq("site/css/b.css"), any(TransferProgress.class));
+        verify(this.wagon).putResource(eq(c), eq("site/css/images/c.png"), any(TransferProgress.class));
+        verify(this.wagon, times(3)).putResource(any(File.class), any(String.class), any(TransferProgress.class));
+        verify(this.transferListenerSupport).fireTransferCompleted(new Resource("site/css/images/c.png"),
+                TransferEvent.REQUEST_PUT);
+    }
+
+    @Test
+    public void putDirectoryRoot() throws IOException, TransferFailedException, ResourceDoesNotExistException,
+            AuthorizationException {
+        File directory = this.temporaryFolder.newFolder();
+        File a = createFile(directory, "a.html");
+
+        this.wagon.putDirectory(directory, ".");
+
+        verify(this.wagon).putResource(eq(a), eq("a.html"), any(TransferProgress.class));
+    }
+
+    @Test
+    public void putDirectoryAggregatesFailures() throws IOException, TransferFailedException,
+            ResourceDoesNotExistException, AuthorizationException {
+        File directory = this.temporaryFolder.newFolder();
+        File a = createFile(directory, "a.html");
+        File b = createFile(directory, "b.html");
+        File c = createFile(directory, "c.html");
+        TransferFailedException first = new TransferFailedException("a");
+        AuthorizationException second = new AuthorizationException("c");
+        doThrow(first).when(this.wagon).putResource(eq(a), eq("site/a.html"), any(TransferProgress.class));
+        doThrow(second).when(this.wagon).putResource(eq(c), eq("site/c.html"), any(TransferProgress.class));
+
+        try {
+            this.wagon.putDirectory(directory, "site");
+            fail();
+        } catch (TransferFailedException e) {
+            assertSame(first, e.getCause());
+            assertArrayEquals(new Throwable[]{second}, e.getSuppressed());
+        }
+
+        verify(this.wagon).putResource(eq(b), eq("site/b.html"), any(TransferProgress.class));
+        verify(this.transferListenerSupport).fireTransferError(new Resource("site/a.html"),
+                TransferEvent.REQUEST_PUT, first);
+    }
+
+    @Test(expected = ResourceDoesNotExistException.class)
+    public void putDirectorySingleFailure() throws IOException, TransferFailedException,
+            ResourceDoesNotExistException, AuthorizationException {
+        File directory = this.temporaryFolder.newFolder();
+        File a = createFile(directory, "a.html");
+        createFile(directory, "b.html");
+        doThrow(new ResourceDoesNotExistException("a")).when(this.wagon)
+                .putResource(eq(a), eq("site/a.html"), any(TransferProgress.class));
+
+        this.wagon.putDirectory(directory, "site");
+    }
+
     @Test
     public void resourceExists() throws TransferFailedException, AuthorizationException {
         this.wagon.resourceExists("foo");
@@ -550,6 +633,13 @@ public class AbstractWagonTest {
         new StubWagon(true);
     }
 
+    private static File createFile(File directory, String path) throws IOException {
+        File file = new File(directory, path);
+        file.getParentFile().mkdirs();
+        file.createNewFile();
+        return file;
+    }
+
     private static class StubWagon extends AbstractWagon {
 
         protected StubWagon(boolean supportsDirectoryCopy) {
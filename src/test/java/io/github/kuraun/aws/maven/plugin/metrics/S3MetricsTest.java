@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.isEmptyString;
+
+public class S3MetricsTest {
+
+    private final S3Metrics bucket = new S3Metrics();
+
+    private final S3Metrics session = new S3Metrics(this.bucket);
+
+    @Test
+    public void recordRollsUp() {
+        // WHEN
+        this.session.record(Operation.GET, millis(10), 1000, true);
+        this.session.record(Operation.GET, millis(30), 0, false);
+        new S3Metrics(this.bucket).record(Operation.GET, millis(20), 500, true);
+
+        // THEN
+        OperationSnapshot own = this.session.getOperation(Operation.GET);
+        assertThat(own.getCount(), equalTo(2L));
+        assertThat(own.getFailures(), equalTo(1L));
+        assertThat(own.getBytes(), equalTo(1000L));
+        assertThat(own.getTotalMillis(), equalTo(40L));
+        assertThat(own.getMaxMillis(), equalTo(30L));
+        assertThat(own.getBytesPerSecond(), equalTo(25_000L));
+        OperationSnapshot total = this.bucket.getOperation(Operation.GET);
+        assertThat(total.getCount(), equalTo(3L));
+        assertThat(total.getBytes(), equalTo(1500L));
+        assertThat(this.bucket.getOperation(Operation.PUT).getCount(), equalTo(0L));
+    }
+
+    @Test
+    public void percentilesAreBucketUpperBounds() {
+        // GIVEN
+        for (int i = 0; i < 98; i++) {
+            this.session.record(Operation.HEAD, millis(3), 0, true);
+        }
+        this.session.record(Operation.HEAD, millis(100), 0, true);
+        this.session.record(Operation.HEAD, millis(900), 0, true);
+
+        // WHEN
+        OperationSnapshot snapshot = this.session.getOperation(Operation.HEAD);
+
+        // THEN
+        assertThat(snapshot.getP50Millis(), equalTo(4L));
+        assertThat(snapshot.getP90Millis(), equalTo(4L));
+        assertThat(snapshot.getP99Millis(), equalTo(128L));
+        assertThat(snapshot.getMaxMillis(), equalTo(900L));
+    }
+
+    @Test
+    public void requestsRetriesAndThrottling() {
+        // WHEN
+        this.bucket.executionStarted();
+        this.bucket.requestStarted();
+        this.bucket.requestStarted();
+        this.bucket.requestFinished(503);
+        this.bucket.requestFinished(200);
+        this.bucket.executionStarted();
+        this.bucket.requestStarted();
+        this.bucket.requestFinished(429);
+
+        // THEN
+        assertThat(this.bucket.getRequests(), equalTo(3L));
+        assertThat(this.bucket.getRetries(), equalTo(1L));
+        assertThat(this.bucket.getThrottledResponses(), equalTo(2L));
+        assertThat(this.bucket.getPeakConcurrentRequests(), equalTo(2));
+    }
+
+    @Test
+    public void summaryAndReset() {
+        // GIVEN
+        assertThat(this.session.summary(), isEmptyString());
+        this.session.record(Operation.PUT, millis(1000), 3 * 1024 * 1024, true);
+        this.session.record(Operation.MARKER, millis(1), 0, false);
+
+        // WHEN
+        String summary = this.session.summary();
+        this.session.reset();
+
+        // THEN
+        assertThat(summary, equalTo("PUT 1, 3.0 MiB at 3.0 MiB/s, p50 1000 ms, p99 1000 ms, max 1000 ms; "
+                + "MARKER 1 (1 failed), p50 1 ms, p99 1 ms, max 1 ms"));
+        assertThat(this.session.summary(), isEmptyString());
+        assertThat(this.bucket.getOperation(Operation.PUT).getCount(), equalTo(1L));
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,713 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.testing;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.kuraun.aws.maven.plugin.util.DaemonThreadFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory, S3-compatible HTTP server on the loopback interface for tests and benchmarks. It understands
+ * path-style requests for the operations the wagon uses: object GET (with ranges and conditions), HEAD, PUT (including
+ * <code>aws-chunked</code> bodies), DELETE, ListObjectsV2, multipart uploads, HeadBucket and GetBucketLocation.
+ * Requests are not authenticated.
+ */
+public final class LocalS3Server implements Closeable {
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+    private static final String XMLNS = "http://s3.amazonaws.com/doc/2006-03-01/";
+
+    private static final int DEFAULT_MAX_KEYS = 1000;
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private static final Pattern PART_NUMBER = Pattern.compile("<PartNumber>(\\d+)</PartNumber>");
+
+    private final HttpServer server;
+
+    private final ExecutorService executorService;
+
+    private final String region;
+
+    private final Map<String, NavigableMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    private final AtomicLong uploadIds = new AtomicLong();
+
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    private final Map<Integer, AtomicInteger> responseCounts = new ConcurrentHashMap<>();
+
+    private volatile long latency;
+
+    public LocalS3Server() throws IOException {
+        this("us-east-1");
+    }
+
+    public LocalS3Server(String region) throws IOException {
+        this.region = region;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executorService = Executors.newCachedThreadPool(new DaemonThreadFactory("local-s3"));
+        this.server.setExecutor(this.executorService);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public URI getEndpoint() {
+        return URI.create(String.format("http://%s:%d", this.server.getAddress().getHostString(),
+                this.server.getAddress().getPort()));
+    }
+
+    public String getRegion() {
+        return this.region;
+    }
+
+    /**
+     * Returns a client for this server using path-style requests and dummy credentials
+     *
+     * @return A new client; the caller closes it
+     */
+    public S3Client newClient() {
+        return S3Client.builder()
+                .endpointOverride(getEndpoint())
+                .region(Region.of(this.region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("akid", "skid")))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+    }
+
+    /**
+     * Delays every response, e.g. to simulate a distant region
+     *
+     * @param latency The delay in milliseconds
+     */
+    public void setLatency(long latency) {
+        this.latency = latency;
+    }
+
+    public void createBucket(String bucketName) {
+        this.buckets.putIfAbsent(bucketName, new ConcurrentSkipListMap<>());
+    }
+
+    public void putObject(String bucketName, String key, byte[] content) {
+        putObject(bucketName, key, content, Collections.emptyMap());
+    }
+
+    public void putObject(String bucketName, String key, byte[] content, Map<String, String> headers) {
+        createBucket(bucketName);
+        this.buckets.get(bucketName).put(key, new StoredObject(content, md5Hex(content), headers));
+    }
+
+    /**
+     * Returns the content of an object
+     *
+     * @param bucketName The bucket of the object
+     * @param key        The key of the object
+     * @return The content, or {@code null} if the object does not exist
+     */
+    public byte[] getObject(String bucketName, String key) {
+        StoredObject object = getStoredObject(bucketName, key);
+        return object != null ? object.content : null;
+    }
+
+    /**
+     * Returns the headers stored with an object, such as <code>Content-Encoding</code> and user metadata
+     *
+     * @param bucketName The bucket of the object
+     * @param key        The key of the object
+     * @return The headers, or {@code null} if the object does not exist
+     */
+    public Map<String, String> getObjectHeaders(String bucketName, String key) {
+        StoredObject object = getStoredObject(bucketName, key);
+        return object != null ? object.headers : null;
+    }
+
+    public List<String> getKeys(String bucketName) {
+        NavigableMap<String, StoredObject> bucket = this.buckets.get(bucketName);
+        return bucket != null ? new ArrayList<>(bucket.keySet()) : Collections.emptyList();
+    }
+
+    /**
+     * Returns the number of requests received with an HTTP method since the last reset
+     *
+     * @param method The HTTP method, e.g. <code>GET</code>
+     * @return The number of requests
+     */
+    public int getRequestCount(String method) {
+        AtomicInteger count = this.requestCounts.get(method);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Returns the number of responses sent with an HTTP status since the last reset
+     *
+     * @param status The HTTP status, e.g. <code>304</code>
+     * @return The number of responses
+     */
+    public int getResponseCount(int status) {
+        AtomicInteger count = this.responseCounts.get(status);
+        return count != null ? count.get() : 0;
+    }
+
+    public void resetRequestCounts() {
+        this.requestCounts.clear();
+        this.responseCounts.clear();
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executorService.shutdownNow();
+    }
+
+    private StoredObject getStoredObject(String bucketName, String key) {
+        NavigableMap<String, StoredObject> bucket = this.buckets.get(bucketName);
+        return bucket != null ? bucket.get(key) : null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            this.requestCounts.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+            byte[] body = readBody(exchange);
+            if (this.latency > 0) {
+                Thread.sleep(this.latency);
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            int slash = path.indexOf('/', 1);
+            String bucketName = slash == -1 ? path.substring(1) : path.substring(1, slash);
+            String key = slash == -1 ? "" : path.substring(slash + 1);
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            if (key.isEmpty()) {
+                handleBucket(exchange, method, bucketName, query);
+            } else {
+                handleObject(exchange, method, bucketName, key, query, body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "SlowDown", "Server is shutting down");
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, "InternalError", String.valueOf(e));
+        } finally {
+            this.responseCounts.computeIfAbsent(exchange.getResponseCode(), s -> new AtomicInteger())
+                    .incrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void handleBucket(HttpExchange exchange, String method, String bucketName, Map<String, String> query)
+            throws IOException {
+        if ("PUT".equals(method)) {
+            createBucket(bucketName);
+            send(exchange, 200, null);
+            return;
+        }
+
+        NavigableMap<String, StoredObject> bucket = this.buckets.get(bucketName);
+        if (bucket == null) {
+            sendError(exchange, 404, "NoSuchBucket", "The specified bucket does not exist");
+        } else if ("HEAD".equals(method)) {
+            exchange.getResponseHeaders().set("x-amz-bucket-region", this.region);
+            send(exchange, 200, null);
+        } else if ("GET".equals(method) && query.containsKey("location")) {
+            String location = "us-east-1".equals(this.region) ? "" : this.region;
+            sendXml(exchange, 200, "<LocationConstraint xmlns=\"" + XMLNS + "\">" + location
+                    + "</LocationConstraint>");
+        } else if ("GET".equals(method)) {
+            list(exchange, bucketName, bucket, query);
+        } else {
+            sendError(exchange, 405, "MethodNotAllowed", method);
+        }
+    }
+
+    private void handleObject(HttpExchange exchange, String method, String bucketName, String key,
+                              Map<String, String> query, byte[] body) throws IOException {
+        NavigableMap<String, StoredObject> bucket = this.buckets.get(bucketName);
+        if (bucket == null) {
+            sendError(exchange, 404, "NoSuchBucket", "The specified bucket does not exist");
+            return;
+        }
+
+        Headers headers = exchange.getRequestHeaders();
+        switch (method) {
+            case "PUT":
+                Map<String, String> trailers = new LinkedHashMap<>();
+                byte[] content = decode(headers, body, trailers);
+                if (query.containsKey("uploadId")) {
+                    uploadPart(exchange, query.get("uploadId"), Integer.parseInt(query.get("partNumber")), content);
+                } else {
+                    Map<String, String> stored = getStoredHeaders(headers);
+                    stored.putAll(trailers);
+                    StoredObject object = new StoredObject(content, null, stored);
+                    bucket.put(key, object);
+                    exchange.getResponseHeaders().set("ETag", quote(object.eTag));
+                    send(exchange, 200, null);
+                }
+                break;
+            case "POST":
+                if (query.containsKey("uploads")) {
+                    String uploadId = Long.toString(this.uploadIds.incrementAndGet());
+                    this.uploads.put(uploadId, new Upload(bucketName, key, getStoredHeaders(headers)));
+                    sendXml(exchange, 200, "<InitiateMultipartUploadResult xmlns=\"" + XMLNS + "\"><Bucket>"
+                            + escape(bucketName) + "</Bucket><Key>" + escape(key) + "</Key><UploadId>" + uploadId
+                            + "</UploadId></InitiateMultipartUploadResult>");
+                } else if (query.containsKey("uploadId")) {
+                    completeUpload(exchange, bucket, key, query.get("uploadId"), body);
+                } else {
+                    sendError(exchange, 405, "MethodNotAllowed", method);
+                }
+                break;
+            case "DELETE":
+                if (query.containsKey("uploadId")) {
+                    this.uploads.remove(query.get("uploadId"));
+                } else {
+                    bucket.remove(key);
+                }
+                send(exchange, 204, null);
+                break;
+            case "GET":
+            case "HEAD":
+                get(exchange, "HEAD".equals(method), bucket.get(key), headers);
+                break;
+            default:
+                sendError(exchange, 405, "MethodNotAllowed", method);
+        }
+    }
+
+    private void uploadPart(HttpExchange exchange, String uploadId, int partNumber, byte[] content)
+            throws IOException {
+        Upload upload = this.uploads.get(uploadId);
+        if (upload == null) {
+            sendError(exchange, 404, "NoSuchUpload", "The specified upload does not exist");
+            return;
+        }
+        upload.parts.put(partNumber, content);
+        exchange.getResponseHeaders().set("ETag", quote(md5Hex(content)));
+        send(exchange, 200, null);
+    }
+
+    private void completeUpload(HttpExchange exchange, NavigableMap<String, StoredObject> bucket, String key,
+                                String uploadId, byte[] body) throws IOException {
+        Upload upload = this.uploads.remove(uploadId);
+        if (upload == null) {
+            sendError(exchange, 404, "NoSuchUpload", "The specified upload does not exist");
+            return;
+        }
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ByteArrayOutputStream digests = new ByteArrayOutputStream();
+        Matcher matcher = PART_NUMBER.matcher(new String(body, StandardCharsets.UTF_8));
+        int parts = 0;
+        while (matcher.find()) {
+            byte[] part = upload.parts.get(Integer.parseInt(matcher.group(1)));
+            if (part == null) {
+                sendError(exchange, 400, "InvalidPart", "Part " + matcher.group(1) + " was not uploaded");
+                return;
+            }
+            content.write(part, 0, part.length);
+            byte[] digest = md5(part);
+            digests.write(digest, 0, digest.length);
+            parts++;
+        }
+
+        String eTag = toHex(md5(digests.toByteArray())) + "-" + parts;
+        bucket.put(key, new StoredObject(content.toByteArray(), eTag, upload.headers));
+        sendXml(exchange, 200, "<CompleteMultipartUploadResult xmlns=\"" + XMLNS + "\"><Bucket>"
+                + escape(upload.bucketName) + "</Bucket><Key>" + escape(key) + "</Key><ETag>" + escape(quote(eTag))
+                + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    private void get(HttpExchange exchange, boolean head, StoredObject object, Headers headers) throws IOException {
+        if (object == null) {
+            sendError(exchange, 404, "NoSuchKey", "The specified key does not exist.");
+            return;
+        }
+
+        Headers responseHeaders = exchange.getResponseHeaders();
+        responseHeaders.set("ETag", quote(object.eTag));
+        responseHeaders.set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.ofInstant(object.lastModified, ZoneOffset.UTC)));
+        responseHeaders.set("Accept-Ranges", "bytes");
+        object.headers.forEach(responseHeaders::set);
+
+        String ifMatch = headers.getFirst("If-Match");
+        if (ifMatch != null && !ifMatch.equals(quote(object.eTag)) && !"*".equals(ifMatch)) {
+            sendError(exchange, 412, "PreconditionFailed", "At least one of the preconditions did not hold");
+            return;
+        }
+        String ifNoneMatch = headers.getFirst("If-None-Match");
+        Instant ifModifiedSince = parseDate(headers.getFirst("If-Modified-Since"));
+        if ((ifNoneMatch != null && ifNoneMatch.equals(quote(object.eTag)))
+                || (ifNoneMatch == null && ifModifiedSince != null && !object.lastModified.isAfter(ifModifiedSince))) {
+            send(exchange, 304, null);
+            return;
+        }
+
+        byte[] content = object.content;
+        int start = 0;
+        int end = content.length;
+        int status = 200;
+        String range = headers.getFirst("Range");
+        if (range != null) {
+            Matcher matcher = RANGE.matcher(range);
+            if (matcher.matches()) {
+                if (matcher.group(1).isEmpty()) {
+                    start = Math.max(0, content.length - Integer.parseInt(matcher.group(2)));
+                } else {
+                    start = Integer.parseInt(matcher.group(1));
+                    if (!matcher.group(2).isEmpty()) {
+                        end = (int) Math.min(content.length, Long.parseLong(matcher.group(2)) + 1);
+                    }
+                }
+                if (start >= content.length) {
+                    responseHeaders.set("Content-Range", "bytes */" + content.length);
+                    sendError(exchange, 416, "InvalidRange", "The requested range is not satisfiable");
+                    return;
+                }
+                responseHeaders.set("Content-Range", String.format("bytes %d-%d/%d", start, end - 1,
+                        content.length));
+                status = 206;
+            }
+        }
+
+        if (head) {
+            responseHeaders.set("Content-Length", Integer.toString(content.length));
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            exchange.sendResponseHeaders(status, end - start == 0 ? -1 : end - start);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content, start, end - start);
+            }
+        }
+    }
+
+    private void list(HttpExchange exchange, String bucketName, NavigableMap<String, StoredObject> bucket,
+                      Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.get("delimiter");
+        String token = query.containsKey("continuation-token") ? query.get("continuation-token")
+                : query.get("start-after");
+        int maxKeys = query.containsKey("max-keys") ? Integer.parseInt(query.get("max-keys")) : DEFAULT_MAX_KEYS;
+
+        StringBuilder contents = new StringBuilder();
+        int count = 0;
+        String last = null;
+        boolean truncated = false;
+        for (Map.Entry<String, StoredObject> entry : bucket.tailMap(prefix, true).entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            if (token != null && (key.compareTo(token) <= 0 || (token.endsWith(String.valueOf(delimiter))
+                    && key.startsWith(token)))) {
+                continue;
+            }
+
+            String commonPrefix = null;
+            if (delimiter != null) {
+                int index = key.indexOf(delimiter, prefix.length());
+                if (index != -1) {
+                    commonPrefix = key.substring(0, index + delimiter.length());
+                }
+            }
+            if (commonPrefix != null && commonPrefix.equals(last)) {
+                continue;
+            }
+            if (count == maxKeys) {
+                truncated = true;
+                break;
+            }
+
+            if (commonPrefix != null) {
+                contents.append("<CommonPrefixes><Prefix>").append(escape(commonPrefix))
+                        .append("</Prefix></CommonPrefixes>");
+                last = commonPrefix;
+            } else {
+                StoredObject object = entry.getValue();
+                contents.append("<Contents><Key>").append(escape(key)).append("</Key><LastModified>")
+                        .append(DateTimeFormatter.ISO_INSTANT.format(object.lastModified))
+                        .append("</LastModified><ETag>").append(escape(quote(object.eTag))).append("</ETag><Size>")
+                        .append(object.content.length).append("</Size><StorageClass>STANDARD</StorageClass>")
+                        .append("</Contents>");
+                last = key;
+            }
+            count++;
+        }
+
+        StringBuilder xml = new StringBuilder("<ListBucketResult xmlns=\"" + XMLNS + "\">")
+                .append("<Name>").append(escape(bucketName)).append("</Name>")
+                .append("<Prefix>").append(escape(prefix)).append("</Prefix>")
+                .append("<KeyCount>").append(count).append("</KeyCount>")
+                .append("<MaxKeys>").append(maxKeys).append("</MaxKeys>");
+        if (delimiter != null) {
+            xml.append("<Delimiter>").append(escape(delimiter)).append("</Delimiter>");
+        }
+        if (query.containsKey("continuation-token")) {
+            xml.append("<ContinuationToken>").append(escape(token)).append("</ContinuationToken>");
+        }
+        xml.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (truncated) {
+            xml.append("<NextContinuationToken>").append(escape(last)).append("</NextContinuationToken>");
+        }
+        xml.append(contents).append("</ListBucketResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    private static Map<String, String> getStoredHeaders(Headers headers) {
+        Map<String, String> stored = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            String name = header.getKey().toLowerCase();
+            String value = header.getValue().get(0);
+            if ("content-encoding".equals(name)) {
+                String encoding = value.replaceAll("\\s*aws-chunked\\s*,?\\s*", "").replaceAll(",\\s*$", "");
+                if (!encoding.isEmpty()) {
+                    stored.put("Content-Encoding", encoding);
+                }
+            } else if ("content-type".equals(name) || "cache-control".equals(name)
+                    || "content-disposition".equals(name)) {
+                stored.put(header.getKey(), value);
+            } else if (name.startsWith("x-amz-meta-") || (name.startsWith("x-amz-checksum-")
+                    && !"x-amz-checksum-algorithm".equals(name))) {
+                stored.put(name, value);
+            }
+        }
+        return stored;
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Decodes an <code>aws-chunked</code> body, i.e. <code>size;chunk-signature=...\r\n data \r\n</code> chunks ending
+     * with an empty chunk and optional trailing headers, which are added to the given map
+     */
+    private static byte[] decode(Headers headers, byte[] body, Map<String, String> trailers) throws IOException {
+        String contentSha256 = headers.getFirst("x-amz-content-sha256");
+        String contentEncoding = headers.getFirst("Content-Encoding");
+        boolean chunked = (contentSha256 != null && contentSha256.startsWith("STREAMING-"))
+                || (contentEncoding != null && contentEncoding.contains("aws-chunked"));
+        if (!chunked) {
+            return body;
+        }
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(body.length);
+        int position = 0;
+        while (true) {
+            int lineEnd = indexOfCrlf(body, position);
+            String line = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int semicolon = line.indexOf(';');
+            int size = Integer.parseInt((semicolon == -1 ? line : line.substring(0, semicolon)).trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                break;
+            }
+            decoded.write(body, position, size);
+            position += size + 2;
+        }
+
+        // trailing headers, e.g. flexible checksums
+        while (position < body.length) {
+            int lineEnd = indexOfCrlf(body, position);
+            String line = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            position = lineEnd + 2;
+            int colon = line.indexOf(':');
+            if (colon != -1) {
+                trailers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+            }
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] body, int from) throws EOFException {
+        for (int i = from; i < body.length - 1; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') {
+                return i;
+            }
+        }
+        if (from < body.length) {
+            return body.length;
+        }
+        throw new EOFException("Truncated aws-chunked body");
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals == -1 ? parameter : parameter.substring(0, equals);
+            String value = equals == -1 ? "" : parameter.substring(equals + 1);
+            query.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return query;
+    }
+
+    private static Instant parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code, String message)
+            throws IOException {
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            send(exchange, status, null);
+        } else {
+            sendXml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + escape(message)
+                    + "</Message></Error>");
+        }
+    }
+
+    private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        send(exchange, status, (XML_HEADER + xml).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body == null || body.length == 0 ? -1 : body.length);
+        if (body != null && body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String quote(String eTag) {
+        return "\"" + eTag + "\"";
+    }
+
+    private static byte[] md5(byte[] content) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String md5Hex(byte[] content) {
+        return toHex(md5(content));
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static final class StoredObject {
+
+        private final byte[] content;
+
+        private final String eTag;
+
+        private final Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        private final Map<String, String> headers;
+
+        private StoredObject(byte[] content, String eTag, Map<String, String> headers) {
+            this.content = content;
+            this.eTag = eTag != null ? eTag : md5Hex(content);
+            this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+        }
+    }
+
+    private static final class Upload {
+
+        private final String bucketName;
+
+        private final String key;
+
+        private final Map<String, String> headers;
+
+        private final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+
+        private Upload(String bucketName, String key, Map<String, String> headers) {
+            this.bucketName = bucketName;
+            this.key = key;
+            this.headers = headers;
+        }
+    }
+}
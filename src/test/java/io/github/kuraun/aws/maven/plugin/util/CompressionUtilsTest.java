@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompressionUtilsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void matchesFileNamesInAnyDirectory() {
+        // GIVEN
+        List<Pattern> patterns = CompressionUtils.compilePatterns(" *.pom, maven-metadata.xml ,");
+
+        // THEN
+        assertTrue(CompressionUtils.matches(patterns, "foo/1.0/foo-1.0.pom"));
+        assertTrue(CompressionUtils.matches(patterns, "foo/maven-metadata.xml"));
+        assertTrue(CompressionUtils.matches(patterns, "maven-metadata.xml"));
+        assertFalse(CompressionUtils.matches(patterns, "foo/1.0/foo-1.0.pom.sha1"));
+        assertFalse(CompressionUtils.matches(patterns, "foo/maven-metadata-xml"));
+    }
+
+    @Test
+    public void matchesPaths() {
+        // GIVEN
+        List<Pattern> patterns = CompressionUtils.compilePatterns("site/**/*.html,docs/?.txt");
+
+        // THEN
+        assertTrue(CompressionUtils.matches(patterns, "site/foo/1.0/index.html"));
+        assertTrue(CompressionUtils.matches(patterns, "docs/a.txt"));
+        assertFalse(CompressionUtils.matches(patterns, "other/site/foo/index.html"));
+        assertFalse(CompressionUtils.matches(patterns, "docs/ab.txt"));
+    }
+
+    @Test
+    public void matchesNothingWithoutPatterns() {
+        assertFalse(CompressionUtils.matches(CompressionUtils.compilePatterns(null), "foo-1.0.pom"));
+    }
+
+    @Test
+    public void isGzip() {
+        assertTrue(CompressionUtils.isGzip("gzip"));
+        assertTrue(CompressionUtils.isGzip("aws-chunked, GZIP"));
+        assertFalse(CompressionUtils.isGzip("identity"));
+        assertFalse(CompressionUtils.isGzip(null));
+    }
+
+    @Test
+    public void gzipReportsTheOriginalBytesAndDecodes() throws Exception {
+        // GIVEN
+        StringBuilder pom = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            pom.append("<dependency><groupId>foo</groupId><artifactId>bar</artifactId></dependency>\n");
+        }
+        byte[] content = pom.toString().getBytes("UTF-8");
+        Path source = this.temporaryFolder.newFile().toPath();
+        Path target = this.temporaryFolder.newFile().toPath();
+        Files.write(source, content);
+        ByteArrayOutputStream reported = new ByteArrayOutputStream();
+
+        // WHEN
+        long length = CompressionUtils.gzip(source, target, new byte[4096], reported::write);
+
+        // THEN
+        assertThat(length, lessThan((long) content.length / 10));
+        assertThat(reported.toByteArray(), equalTo(content));
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (InputStream in = CompressionUtils.decode(Files.newInputStream(target), "gzip", 4096)) {
+            IOUtils.copy(in, decoded);
+        }
+        assertThat(decoded.toByteArray(), equalTo(content));
+    }
+
+    @Test
+    public void gzipIsRepeatable() throws Exception {
+        // GIVEN
+        Path source = this.temporaryFolder.newFile().toPath();
+        Path first = this.temporaryFolder.newFile().toPath();
+        Path second = this.temporaryFolder.newFile().toPath();
+        Files.write(source, "<project/>".getBytes("UTF-8"));
+
+        // WHEN
+        CompressionUtils.gzip(source, first, new byte[4096], (buffer, offset, length) -> {
+        });
+        CompressionUtils.gzip(source, second, new byte[8192], (buffer, offset, length) -> {
+        });
+
+        // THEN
+        assertThat(Files.readAllBytes(first), equalTo(Files.readAllBytes(second)));
+    }
+
+    @Test
+    public void decodeLeavesOtherEncodings() throws Exception {
+        // GIVEN
+        InputStream in = new ByteArrayInputStream(new byte[]{1, 2, 3});
+
+        // THEN
+        assertThat(CompressionUtils.decode(in, null, 4096), sameInstance(in));
+    }
+}
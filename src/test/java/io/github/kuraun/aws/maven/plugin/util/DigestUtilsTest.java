@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019-Present Kuraun Developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.kuraun.aws.maven.plugin.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class DigestUtilsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void eTag() throws Exception {
+        // GIVEN
+        Path file = createFile("The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII));
+
+        // WHEN
+        String eTag = DigestUtils.eTag(file);
+
+        // THEN
+        assertThat(eTag, equalTo("9e107d9d372bb6826bd81d3542a419d6"));
+    }
+
+    @Test
+    public void multipartETag() throws Exception {
+        // GIVEN
+        Path file = createFile("abcdefg".getBytes(StandardCharsets.US_ASCII));
+        Path parts = createFile(concat(md5("abc"), md5("def"), md5("g")));
+
+        // WHEN
+        String eTag = DigestUtils.multipartETag(file, 3);
+
+        // THEN
+        assertThat(eTag, equalTo(DigestUtils.eTag(parts) + "-3"));
+    }
+
+    @Test
+    public void getPartCount() {
+        assertThat(DigestUtils.getPartCount("\"9e107d9d372bb6826bd81d3542a419d6\""), equalTo(0));
+        assertThat(DigestUtils.getPartCount("\"9e107d9d372bb6826bd81d3542a419d6-12\""), equalTo(12));
+        assertThat(DigestUtils.getPartCount("9e107d9d372bb6826bd81d3542a419d6-x"), equalTo(0));
+    }
+
+    @Test
+    public void sha256() {
+        assertThat(DigestUtils.sha256("The quick brown fox jumps over the lazy dog"),
+                equalTo("d7a8fbb307d7809469ca9abcb0082e4f8d5651e46d3cdb762d02d0bf37c9e592"));
+    }
+
+    private Path createFile(byte[] content) throws Exception {
+        Path file = this.temporaryFolder.newFile().toPath();
+        Files.write(file, content);
+        return file;
+    }
+
+    private static byte[] md5(String content) throws Exception {
+        return MessageDigest.getInstance("MD5").digest(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        byte[] result = new byte[arrays.length * 16];
+        for (int i = 0; i < arrays.length; i++) {
+            System.arraycopy(arrays[i], 0, result, i * 16, 16);
+        }
+        return result;
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.kuraun.aws.maven.plugin.util;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -8,6 +10,10 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
@@ -16,6 +22,9 @@ import static org.mockito.Mockito.mock;
 
 public class IOUtilsTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void copy() throws Exception {
         // GIVEN
@@ -30,6 +39,40 @@ public class IOUtilsTest {
         assertThat(expected, equalTo(out.toString()));
     }
 
+    @Test
+    public void copyToChannel() throws Exception {
+        // GIVEN
+        byte[] content = "0123456789".getBytes();
+        Path file = this.temporaryFolder.newFile().toPath();
+        ByteArrayOutputStream reported = new ByteArrayOutputStream();
+
+        // WHEN
+        long copied;
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            copied = IOUtils.copy(new ByteArrayInputStream(content), out, 2, 6, new byte[4], reported::write);
+        }
+
+        // THEN
+        assertThat(copied, equalTo(6L));
+        assertThat(Files.readAllBytes(file), equalTo(new byte[]{0, 0, '0', '1', '2', '3', '4', '5'}));
+        assertThat(new String(reported.toByteArray()), equalTo("012345"));
+    }
+
+    @Test
+    public void preallocate() throws Exception {
+        // GIVEN
+        Path file = this.temporaryFolder.newFile().toPath();
+
+        // WHEN
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            IOUtils.preallocate(out, 100);
+            IOUtils.preallocate(out, 10);
+        }
+
+        // THEN
+        assertThat(Files.size(file), equalTo(100L));
+    }
+
     @Test
     public void closeQuietlyIfNoCloseables() {
         // GIVEN